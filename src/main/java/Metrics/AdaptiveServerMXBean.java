@@ -0,0 +1,36 @@
+package Metrics;
+
+/**
+ * JMX view of an adaptive maze server: the concurrency it chose and why,
+ * and what happened to the requests it did not serve right away.
+ */
+public interface AdaptiveServerMXBean {
+
+    int getConcurrencyLimit();
+
+    int getActiveWorkers();
+
+    int getQueuedConnections();
+
+    int getQueuedBatchConnections();
+
+    double getQueueDelayMillis();
+
+    double getServiceMillis();
+
+    double getCpuLoad();
+
+    double getGradient();
+
+    boolean isSaturated();
+
+    long getAdmittedCount();
+
+    long getDeferredCount();
+
+    long getRejectedCount();
+
+    long getPreemptedCount();
+
+    long getLimitChangeCount();
+}
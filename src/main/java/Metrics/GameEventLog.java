@@ -0,0 +1,86 @@
+package Metrics;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Structured, append-only log of gameplay events (generate, solve, move, win, save, load).
+ * Events go to the "gameplay" logger, which log4j2.xml routes to a rolling
+ * JSON-lines file through the async (ring buffer) loggers, so the calling
+ * thread only pays for building the message - and not even that when
+ * the logger is disabled.
+ *
+ * Events are logged at their own {@code EVENT} level, between WARN and INFO. When the
+ * ring buffer is full, log4j2.component.properties discards INFO and below, so
+ * diagnostics may be dropped under load but gameplay events never are: their caller
+ * waits for room instead, and the file has no gaps.
+ *
+ * Each line looks like:
+ * <pre>
+ *     {"ts":"2025-07-01T12:00:00,123","seq":42,"event":"move","dir":"UP","row":3,"col":4}
+ * </pre>
+ */
+public final class GameEventLog {
+
+    private static final Logger EVENTS = LogManager.getLogger("gameplay");
+    // More specific than INFO, so a full ring buffer blocks these instead of discarding them
+    private static final Level EVENT = Level.forName("EVENT", 350);
+
+    private GameEventLog() {
+    }
+
+    /**
+     * A new maze was generated.
+     */
+    public static void generated(int rows, int cols, long elapsedNanos) {
+        if (!EVENTS.isEnabled(EVENT)) return;
+        EVENTS.log(EVENT, "\"event\":\"generate\",\"rows\":" + rows + ",\"cols\":" + cols
+                + ",\"ms\":" + elapsedNanos / 1_000_000);
+    }
+
+    /**
+     * The current maze was solved.
+     *
+     * @param steps length of the solution path (0 if none was found)
+     */
+    public static void solved(int steps, long elapsedNanos) {
+        if (!EVENTS.isEnabled(EVENT)) return;
+        EVENTS.log(EVENT, "\"event\":\"solve\",\"steps\":" + steps + ",\"ms\":" + elapsedNanos / 1_000_000);
+    }
+
+    /**
+     * The player moved.
+     *
+     * @param direction requested direction
+     * @param row row after the move
+     * @param col column after the move
+     * @param accepted false if the move was blocked
+     */
+    public static void moved(String direction, int row, int col, boolean accepted) {
+        if (!EVENTS.isEnabled(EVENT)) return;
+        EVENTS.log(EVENT, "\"event\":\"move\",\"dir\":\"" + direction + "\",\"row\":" + row + ",\"col\":" + col
+                + (accepted ? "" : ",\"blocked\":true"));
+    }
+
+    /**
+     * The player reached the goal.
+     *
+     * @param moves number of accepted moves since the maze was created
+     * @param elapsedMillis time since the maze was created
+     */
+    public static void won(int moves, long elapsedMillis) {
+        if (!EVENTS.isEnabled(EVENT)) return;
+        EVENTS.log(EVENT, "\"event\":\"win\",\"moves\":" + moves + ",\"ms\":" + elapsedMillis);
+    }
+
+    /**
+     * The maze was saved to or loaded from a file.
+     *
+     * @param event "save" or "load"
+     */
+    public static void file(String event, String path) {
+        if (!EVENTS.isEnabled(EVENT)) return;
+        EVENTS.log(EVENT, "\"event\":\"" + event + "\",\"path\":\"" + path.replace("\\", "\\\\").replace("\"", "\\\"") + "\"");
+    }
+}
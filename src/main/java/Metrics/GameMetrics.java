@@ -0,0 +1,114 @@
+package Metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Central registry of the hot-path metrics of the game.
+ * Each {@link Operation} has a counter and a latency histogram, exported
+ * through JMX (domain "MazeGame") and summarised to log4j once a minute.
+ *
+ * Usage:
+ * <pre>
+ *     long start = System.nanoTime();
+ *     ... do the work ...
+ *     GameMetrics.record(GameMetrics.Operation.SOLVE, start);
+ * </pre>
+ */
+public final class GameMetrics {
+
+    private static final Logger LOG = LogManager.getLogger(GameMetrics.class);
+    private static final long SUMMARY_PERIOD_SECONDS = 60;
+
+    /**
+     * Operations that are instrumented.
+     */
+    public enum Operation {
+        GENERATE, SOLVE, MOVE, REDRAW, SAVE, LOAD
+    }
+
+    private static final GameMetrics INSTANCE = new GameMetrics();
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final long[] lastLoggedCounts = new long[Operation.values().length];
+
+    private GameMetrics() {
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation.name().toLowerCase()));
+        }
+        registerMBeans();
+        startSummaryLogger();
+    }
+
+    /**
+     * @return the shared metrics registry
+     */
+    public static GameMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records one call of an operation that started at {@code startNanos}.
+     *
+     * @param operation the measured operation
+     * @param startNanos value of {@link System#nanoTime()} taken before the call
+     */
+    public static void record(Operation operation, long startNanos) {
+        INSTANCE.stats.get(operation).recordSince(startNanos);
+    }
+
+    /**
+     * @return the stats of a single operation
+     */
+    public OperationStats get(Operation operation) {
+        return stats.get(operation);
+    }
+
+    private void registerMBeans() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (OperationStats operationStats : stats.values()) {
+                ObjectName name = new ObjectName("MazeGame:type=Operation,name=" + operationStats.getName());
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(operationStats, name);
+                }
+            }
+        } catch (Exception e) {
+            LOG.warn("Could not register metrics MBeans", e);
+        }
+    }
+
+    private void startSummaryLogger() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-summary");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::logSummary,
+                SUMMARY_PERIOD_SECONDS, SUMMARY_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Logs one line per operation that was called since the last summary.
+     */
+    public void logSummary() {
+        if (!LOG.isInfoEnabled()) return;
+        for (Operation operation : Operation.values()) {
+            OperationStats s = stats.get(operation);
+            long count = s.getCount();
+            if (count == lastLoggedCounts[operation.ordinal()]) continue;
+            lastLoggedCounts[operation.ordinal()] = count;
+            LOG.info(String.format("%-8s count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+                    s.getName(), count, s.getMeanMillis(), s.getP50Millis(), s.getP99Millis(), s.getMaxMillis()));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package Metrics;
+
+/**
+ * Counter and latency histogram of a single operation (generate, solve, move...).
+ */
+public class OperationStats implements OperationStatsMXBean {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    public OperationStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return operation name, as shown in JMX and in the log summary
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one call that started at {@code startNanos} (from {@link System#nanoTime()}).
+     */
+    public void recordSince(long startNanos) {
+        histogram.record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return histogram.getMeanNanos() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return histogram.getPercentileNanos(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return histogram.getPercentileNanos(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return histogram.getMaxNanos() / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,17 @@
+package Metrics;
+
+/**
+ * JMX view of the counters and latencies of one instrumented operation.
+ */
+public interface OperationStatsMXBean {
+
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+}
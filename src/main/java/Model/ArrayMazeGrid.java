@@ -0,0 +1,38 @@
+package Model;
+
+/**
+ * {@link IMazeGrid} over an on-heap {@code int[][]}, as returned by {@code Maze.getMaze()}.
+ */
+public class ArrayMazeGrid implements IMazeGrid {
+
+    private final int[][] cells;
+
+    /**
+     * @param cells the maze matrix (not copied)
+     */
+    public ArrayMazeGrid(int[][] cells) {
+        this.cells = cells;
+    }
+
+    @Override
+    public int getRows() {
+        return cells.length;
+    }
+
+    @Override
+    public int getColumns() {
+        return cells.length > 0 ? cells[0].length : 0;
+    }
+
+    @Override
+    public int getCell(int row, int col) {
+        return cells[row][col];
+    }
+
+    /**
+     * @return the underlying matrix
+     */
+    public int[][] getCells() {
+        return cells;
+    }
+}
@@ -0,0 +1,23 @@
+package Model;
+
+/**
+ * Thrown out of a running search when it reaches a limit of its {@link SolveBudget}.
+ */
+public class BudgetExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SolveStatus status;
+
+    public BudgetExceededException(SolveStatus status) {
+        super("Solve budget exceeded: " + status);
+        this.status = status;
+    }
+
+    /**
+     * @return which limit was reached
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+}
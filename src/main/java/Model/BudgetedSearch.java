@@ -0,0 +1,57 @@
+package Model;
+
+import algorithms.search.AState;
+import algorithms.search.ISearchable;
+import algorithms.search.ISearchingAlgorithm;
+import algorithms.search.Solution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs one of the JAR's searchers within a {@link SolveBudget}. If a limit is
+ * reached, or there is no path, the result is the best effort: the path from
+ * the start to the expanded cell closest to the goal.
+ */
+public final class BudgetedSearch {
+
+    private BudgetedSearch() {
+    }
+
+    /**
+     * @param searcher a new, unused searcher
+     * @param searchable maze to solve; may itself be decorated (events, cancellation)
+     * @param budget limits of the search
+     * @return the path and how the search ended
+     * @throws IllegalArgumentException if the searcher returns a malformed path
+     */
+    public static SolveResult solve(ISearchingAlgorithm searcher, ISearchable searchable, SolveBudget budget) {
+        BudgetedSearchable budgeted = new BudgetedSearchable(searchable, budget);
+        SolveStatus status;
+        Solution raw = null;
+        try {
+            raw = searcher.solve(budgeted);
+            status = raw != null && !raw.getSolutionPath().isEmpty() ? SolveStatus.SOLVED : SolveStatus.NO_SOLUTION;
+        } catch (BudgetExceededException e) {
+            status = e.getStatus();
+        }
+        CompactSolution path = status == SolveStatus.SOLVED
+                ? CompactSolution.fromPath(raw.getSolutionPath())
+                : pathTo(budgeted.getBestState());
+        return new SolveResult(path, status, budgeted.getExpansions());
+    }
+
+    /**
+     * @return the path from the start of the search to {@code state}, following its {@code cameFrom} links
+     */
+    public static CompactSolution pathTo(AState state) {
+        if (state == null) return null;
+        List<AState> path = new ArrayList<>();
+        for (AState at = state; at != null; at = at.getCameFrom()) {
+            path.add(at);
+        }
+        Collections.reverse(path);
+        return CompactSolution.fromPath(path);
+    }
+}
@@ -0,0 +1,105 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+import algorithms.search.AState;
+import algorithms.search.ISearchable;
+import algorithms.search.MazeState;
+
+import java.util.ArrayList;
+
+/**
+ * Decorates a maze searchable problem to enforce a {@link SolveBudget}. Every
+ * expansion (a call for successors) is counted and checked against the limits,
+ * and the expanded state closest to the goal is remembered, so that a search cut
+ * short still leaves a best-effort path behind (its {@code cameFrom} chain).
+ *
+ * Heap use is estimated, not measured: the JAR's searchers keep every state they
+ * discover, so the search holds roughly {@value #BYTES_PER_EXPANSION} bytes per
+ * expanded state (the state, its position and key string, and the open and
+ * visited set entries of it and of about one waiting neighbour).
+ */
+public class BudgetedSearchable implements ISearchable {
+
+    static final long BYTES_PER_EXPANSION = 320;
+    // The clock is read once per this many expansions
+    private static final int CLOCK_INTERVAL = 64;
+
+    private final ISearchable searchable;
+    private final long deadlineNanos;
+    private final long maxExpansions;
+    private final long maxHeapBytes;
+    private final Position goal;
+
+    private long expansions;
+    private MazeState best;
+    private long bestDistance = Long.MAX_VALUE;
+
+    /**
+     * @param searchable problem to search
+     * @param budget limits of the search; the clock starts now
+     */
+    public BudgetedSearchable(ISearchable searchable, SolveBudget budget) {
+        this.searchable = searchable;
+        this.deadlineNanos = budget.deadlineNanos(System.nanoTime());
+        this.maxExpansions = budget.getMaxExpansions();
+        this.maxHeapBytes = budget.getMaxHeapBytes();
+        AState goalState = searchable.getGoalState();
+        this.goal = goalState instanceof MazeState ? ((MazeState) goalState).getPosition() : null;
+    }
+
+    @Override
+    public AState getStartState() {
+        return searchable.getStartState();
+    }
+
+    @Override
+    public AState getGoalState() {
+        return searchable.getGoalState();
+    }
+
+    /**
+     * @throws BudgetExceededException once a limit is reached
+     */
+    @Override
+    public ArrayList<AState> getAllPossibleStates(AState state) {
+        if (maxExpansions > 0 && expansions >= maxExpansions) {
+            throw new BudgetExceededException(SolveStatus.EXPANSION_LIMIT);
+        }
+        if (maxHeapBytes > 0 && expansions * BYTES_PER_EXPANSION >= maxHeapBytes) {
+            throw new BudgetExceededException(SolveStatus.MEMORY_LIMIT);
+        }
+        if (expansions % CLOCK_INTERVAL == 0 && System.nanoTime() >= deadlineNanos) {
+            throw new BudgetExceededException(SolveStatus.TIME_LIMIT);
+        }
+        expansions++;
+        if (goal != null && state instanceof MazeState) {
+            long distance = distanceToGoal(((MazeState) state).getPosition());
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = (MazeState) state;
+            }
+        }
+        return searchable.getAllPossibleStates(state);
+    }
+
+    /**
+     * @return states expanded so far
+     */
+    public long getExpansions() {
+        return expansions;
+    }
+
+    /**
+     * @return the expanded state closest to the goal, or null before the first expansion
+     */
+    public MazeState getBestState() {
+        return best;
+    }
+
+    // Moves needed with diagonals allowed (Chebyshev), ties broken towards fewer straight moves
+    private long distanceToGoal(Position position) {
+        long rows = Math.abs(position.getRowIndex() - goal.getRowIndex());
+        long cols = Math.abs(position.getColumnIndex() - goal.getColumnIndex());
+        return Math.max(rows, cols) * (1L << 32) + rows + cols;
+    }
+}
@@ -0,0 +1,46 @@
+package Model;
+
+import algorithms.search.AState;
+import algorithms.search.ISearchable;
+
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decorates a searchable problem so that a search running on it can be stopped
+ * from outside. The JAR's algorithms have no cancellation of their own, but they
+ * ask for successors once per expanded state; that call checks the flag and
+ * throws {@link SearchCancelledException} once it is set, unwinding the search.
+ */
+public class CancellableSearchable implements ISearchable {
+
+    private final ISearchable searchable;
+    private final BooleanSupplier cancelled;
+
+    /**
+     * @param searchable problem to search
+     * @param cancelled checked once per expansion; must be cheap, e.g. a volatile read
+     */
+    public CancellableSearchable(ISearchable searchable, BooleanSupplier cancelled) {
+        this.searchable = searchable;
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public AState getStartState() {
+        return searchable.getStartState();
+    }
+
+    @Override
+    public AState getGoalState() {
+        return searchable.getGoalState();
+    }
+
+    @Override
+    public ArrayList<AState> getAllPossibleStates(AState state) {
+        if (cancelled.getAsBoolean()) {
+            throw new SearchCancelledException();
+        }
+        return searchable.getAllPossibleStates(state);
+    }
+}
@@ -0,0 +1,188 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+import algorithms.search.AState;
+import algorithms.search.MazeState;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact solution path: the start cell plus one {@link MoveDirection} code per step.
+ * Unlike the solver's {@code List<AState>}, it holds no {@code cameFrom} chain, so
+ * keeping it does not keep the search graph reachable. A path of n steps takes n bytes.
+ */
+public class CompactSolution {
+
+    // Run-length encoding: 3 bits of move code, 5 bits of run length
+    private static final int RUN_BITS = 5;
+    private static final int MAX_RUN = (1 << RUN_BITS) - 1;
+
+    private final int startRow;
+    private final int startCol;
+    private final byte[] moves;
+
+    /**
+     * @param startRow row of the first cell of the path
+     * @param startCol column of the first cell of the path
+     * @param moves one {@link MoveDirection} code per step
+     */
+    public CompactSolution(int startRow, int startCol, byte[] moves) {
+        this.startRow = startRow;
+        this.startCol = startCol;
+        this.moves = moves;
+    }
+
+    /**
+     * Converts a solver path into move codes.
+     *
+     * @param path path of {@link MazeState}s, as returned by {@code Solution.getSolutionPath()}
+     * @return the compact path, or null if the path is empty
+     * @throws IllegalArgumentException if two consecutive cells are not neighbours
+     */
+    public static CompactSolution fromPath(List<AState> path) {
+        if (path == null || path.isEmpty()) return null;
+
+        Position start = positionOf(path.get(0));
+        byte[] moves = new byte[path.size() - 1];
+        Position previous = start;
+        for (int i = 1; i < path.size(); i++) {
+            Position current = positionOf(path.get(i));
+            MoveDirection direction = MoveDirection.fromDelta(
+                    current.getRowIndex() - previous.getRowIndex(),
+                    current.getColumnIndex() - previous.getColumnIndex());
+            if (direction == null) {
+                throw new IllegalArgumentException("Solution step " + i + " is not a single move: "
+                        + previous + " -> " + current);
+            }
+            moves[i - 1] = (byte) direction.getCode();
+            previous = current;
+        }
+        return new CompactSolution(start.getRowIndex(), start.getColumnIndex(), moves);
+    }
+
+    private static Position positionOf(AState state) {
+        if (!(state instanceof MazeState mazeState)) {
+            throw new IllegalArgumentException("Not a maze state: " + state);
+        }
+        return mazeState.getPosition();
+    }
+
+    /**
+     * Checks in one pass that the path starts at {@code start}, only makes legal
+     * moves on the grid and ends at {@code goal}.
+     */
+    public boolean validate(IMazeGrid grid, Position start, Position goal) {
+        if (start == null || goal == null) return false;
+        if (startRow != start.getRowIndex() || startCol != start.getColumnIndex()) return false;
+        if (!grid.isFree(startRow, startCol)) return false;
+
+        int row = startRow;
+        int col = startCol;
+        for (byte code : moves) {
+            MoveDirection direction = MoveDirection.fromCode(code);
+            if (!direction.canMove(grid, row, col)) return false;
+            row += direction.getRowDelta();
+            col += direction.getColDelta();
+        }
+        return row == goal.getRowIndex() && col == goal.getColumnIndex();
+    }
+
+    /**
+     * @return number of cells on the path (steps + 1)
+     */
+    public int size() {
+        return moves.length + 1;
+    }
+
+    /**
+     * @return the move code of step i
+     */
+    public MoveDirection getMove(int i) {
+        return MoveDirection.fromCode(moves[i]);
+    }
+
+    public int getStartRow() {
+        return startRow;
+    }
+
+    public int getStartCol() {
+        return startCol;
+    }
+
+    /**
+     * @return the cell the path ends in - the goal for a full solution, the furthest
+     *         cell reached for a partial one
+     */
+    public Position getEndPosition() {
+        int row = startRow;
+        int col = startCol;
+        for (byte code : moves) {
+            MoveDirection direction = MoveDirection.fromCode(code);
+            row += direction.getRowDelta();
+            col += direction.getColDelta();
+        }
+        return new Position(row, col);
+    }
+
+    /**
+     * Rebuilds the path as plain {@link MazeState}s, without back-pointers.
+     */
+    public List<AState> toStates() {
+        List<AState> states = new ArrayList<>(size());
+        int row = startRow;
+        int col = startCol;
+        states.add(new MazeState(new Position(row, col)));
+        for (byte code : moves) {
+            MoveDirection direction = MoveDirection.fromCode(code);
+            row += direction.getRowDelta();
+            col += direction.getColDelta();
+            states.add(new MazeState(new Position(row, col)));
+        }
+        return states;
+    }
+
+    /**
+     * Writes the path run-length encoded, one byte per run: the move code in the
+     * top 3 bits and the run length (1-31) in the low 5 bits. Zig-zag paths stay
+     * at a byte per step, straight corridors shrink up to 31 times.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(startRow);
+        out.writeInt(startCol);
+        out.writeInt(moves.length);
+        int i = 0;
+        while (i < moves.length) {
+            int run = 1;
+            while (i + run < moves.length && moves[i + run] == moves[i] && run < MAX_RUN) {
+                run++;
+            }
+            out.writeByte((moves[i] << RUN_BITS) | run);
+            i += run;
+        }
+    }
+
+    /**
+     * Reads a path written by {@link #write(DataOutput)}.
+     */
+    public static CompactSolution read(DataInput in) throws IOException {
+        int startRow = in.readInt();
+        int startCol = in.readInt();
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Corrupt solution (negative length)");
+        byte[] moves = new byte[length];
+        int i = 0;
+        while (i < length) {
+            int packed = in.readUnsignedByte();
+            int run = packed & MAX_RUN;
+            if (run == 0 || i + run > length) throw new IOException("Corrupt solution run");
+            Arrays.fill(moves, i, i + run, (byte) (packed >>> RUN_BITS));
+            i += run;
+        }
+        return new CompactSolution(startRow, startCol, moves);
+    }
+}
@@ -0,0 +1,504 @@
+package Model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Background autosave of the game in progress, so a crashed game can be resumed
+ * exactly where it stopped.
+ *
+ * The maze is written once per game; after that every accepted move is appended
+ * to a write-ahead journal as a fixed 16-byte record, so the cost of a checkpoint
+ * does not depend on the maze size. Every few thousand moves the journal is
+ * compacted: the moves so far are written to a packed {@link MoveJournal} file and
+ * the journal is truncated. All writing happens on one daemon thread; callers only
+ * queue small tasks and never wait for the disk.
+ *
+ * Layout under the checkpoint directory:
+ * <pre>
+ *     game.ckpt       generation, {@link SessionRecording} with the maze and start
+ *     moves.ckpt      generation, moves up to the last compaction
+ *     solution.ckpt   generation, {@link CompactSolution}
+ *     moves.wal       generation, then one record per move since the last compaction
+ * </pre>
+ * Every game gets a random generation number; files of an older game are ignored
+ * on recovery. Snapshot files are replaced atomically, and a torn record at the
+ * end of the journal (the game crashed while writing it) is dropped.
+ */
+public class GameCheckpointer implements AutoCloseable {
+
+    private static final Logger LOG = LogManager.getLogger(GameCheckpointer.class);
+
+    private static final int GAME_MAGIC = 0x4D5A434B;     // "MZCK"
+    private static final int MOVES_MAGIC = 0x4D5A434D;    // "MZCM"
+    private static final int SOLUTION_MAGIC = 0x4D5A4353; // "MZCS"
+    private static final int WAL_MAGIC = 0x4D5A574C;      // "MZWL"
+    private static final int VERSION = 1;
+
+    private static final String GAME_FILE = "game.ckpt";
+    private static final String MOVES_FILE = "moves.ckpt";
+    private static final String SOLUTION_FILE = "solution.ckpt";
+    private static final String WAL_FILE = "moves.wal";
+
+    private static final int WAL_HEADER_BYTES = 16;
+    // int move index, int row, int col, byte code, byte ~code, short marker
+    private static final int RECORD_BYTES = 16;
+    private static final short RECORD_MARKER = 0x4D56; // "MV"
+
+    // Journal records between compactions (about 128 KB of journal)
+    private static final int COMPACT_THRESHOLD = 8192;
+    // Records reach the OS as soon as the writer is idle, which survives a crash of the
+    // game; forcing them to the device (against power loss) is done at most this often
+    private static final long FORCE_INTERVAL_MILLIS = 1000;
+
+    private final Path directory;
+    private final ThreadPoolExecutor writer;
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+
+    // Writer thread state
+    private final ByteBuffer records = ByteBuffer.allocate(RECORD_BYTES * 256);
+    private FileChannel wal;
+    private long generation;
+    private MoveJournal moves; // the writer's own copy of the game's moves
+    private int walRecords;
+    private boolean dirty;
+    private long lastForceMillis;
+
+    /**
+     * State recovered from a checkpoint directory.
+     */
+    public static class Checkpoint {
+        private final SessionRecording recording;
+        private final CompactSolution solution;
+        private final int[] position;
+
+        Checkpoint(SessionRecording recording, CompactSolution solution, int[] position) {
+            this.recording = recording;
+            this.solution = solution;
+            this.position = position;
+        }
+
+        /**
+         * @return the maze, its start and every move played so far
+         */
+        public SessionRecording getRecording() {
+            return recording;
+        }
+
+        /**
+         * @return the last solution found for the maze, or null if none
+         */
+        public CompactSolution getSolution() {
+            return solution;
+        }
+
+        /**
+         * @return [row, col] written with the last journal record, or null if no record survived
+         */
+        public int[] getPosition() {
+            return position;
+        }
+    }
+
+    /**
+     * Creates a checkpointer writing to the given directory. Nothing is written
+     * (and an existing checkpoint stays recoverable) until the first {@link #startGame}.
+     *
+     * @throws IOException if the directory cannot be created
+     */
+    public GameCheckpointer(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "game-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the game's checkpoint directory, {@code maze.checkpoint.dir} or {@code ~/.maze-game/checkpoint}
+     */
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("maze.checkpoint.dir",
+                Path.of(System.getProperty("user.home"), ".maze-game", "checkpoint").toString()));
+    }
+
+    /**
+     * @return true if the directory holds a game that can be recovered
+     */
+    public static boolean exists(Path directory) {
+        return Files.isRegularFile(directory.resolve(GAME_FILE));
+    }
+
+    /**
+     * Starts checkpointing a new game. The recording is written once; its journal
+     * must not be changed by the caller afterwards.
+     *
+     * @param recording maze, start and the moves already played (usually none)
+     * @param solution known solution, or null
+     */
+    public void startGame(SessionRecording recording, CompactSolution solution) {
+        long newGeneration = ThreadLocalRandom.current().nextLong();
+        submit(() -> writeGame(newGeneration, recording, solution));
+    }
+
+    /**
+     * Stops checkpointing and removes the checkpoint, e.g. for a maze that cannot be recorded.
+     */
+    public void clear() {
+        submit(this::deleteCheckpoint);
+    }
+
+    /**
+     * Queues an accepted move and the position it led to.
+     */
+    public void moved(MoveDirection move, int row, int col) {
+        submit(() -> appendMove(move, row, col));
+    }
+
+    /**
+     * Queues a new solution of the current game's maze.
+     */
+    public void solved(CompactSolution solution) {
+        submit(() -> {
+            if (moves == null) return;
+            writeSolution(solution);
+        });
+    }
+
+    /**
+     * Writes everything queued so far, forces it to disk and stops the writer,
+     * waiting up to 5 seconds for it.
+     */
+    @Override
+    public void close() {
+        try {
+            closeAsync().get(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOG.warn("Checkpoint writer did not finish in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // never completed exceptionally; write failures are logged by the writer
+        }
+    }
+
+    /**
+     * Like {@link #close()}, without waiting: the writer finishes the queued
+     * writes on its own thread. May be called from any thread, and more than once.
+     *
+     * @return future completed once everything is on disk and the writer has stopped
+     */
+    public synchronized CompletableFuture<Void> closeAsync() {
+        if (!writer.isShutdown()) {
+            submit(() -> {
+                try {
+                    flushRecords();
+                    forceWal();
+                    closeWal();
+                } finally {
+                    closed.complete(null);
+                }
+            });
+            writer.shutdown();
+        }
+        return closed;
+    }
+
+    // Runs a task on the writer; a failed checkpoint is logged, never thrown at the game
+    private void submit(IoTask task) {
+        if (writer.isShutdown()) return;
+        try {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                    // Coalesce a burst of moves into one write
+                    if (writer.getQueue().isEmpty()) {
+                        flushRecords();
+                        if (System.currentTimeMillis() - lastForceMillis >= FORCE_INTERVAL_MILLIS) {
+                            forceWal();
+                        }
+                    }
+                } catch (IOException e) {
+                    LOG.warn("Checkpoint write failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // closed concurrently; the game goes on without autosave
+        }
+    }
+
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    // =================== Writer thread ===================
+
+    private void writeGame(long newGeneration, SessionRecording recording, CompactSolution solution) throws IOException {
+        long start = System.nanoTime();
+        records.clear();
+        closeWal();
+        generation = newGeneration;
+        moves = recording.getJournal();
+        walRecords = 0;
+
+        // A crash before the game file is replaced leaves the old game intact; a crash
+        // after it leaves side files of the old generation, which recovery ignores
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(GAME_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            recording.write(out);
+        }
+        writeAtomically(directory.resolve(GAME_FILE), bytes.toByteArray());
+        Files.deleteIfExists(directory.resolve(MOVES_FILE));
+        Files.deleteIfExists(directory.resolve(SOLUTION_FILE));
+        resetWal();
+        if (solution != null) {
+            writeSolution(solution);
+        }
+        LOG.debug("Checkpointed a new {}x{} game in {} ms", recording.getRows(), recording.getColumns(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void appendMove(MoveDirection move, int row, int col) throws IOException {
+        if (moves == null) return;
+        int index = moves.size();
+        moves.append(move);
+        if (!records.hasRemaining()) {
+            flushRecords();
+        }
+        records.putInt(index).putInt(row).putInt(col)
+                .put((byte) move.getCode()).put((byte) ~move.getCode()).putShort(RECORD_MARKER);
+        if (++walRecords >= COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+
+    private void flushRecords() throws IOException {
+        if (records.position() == 0 || wal == null) return;
+        records.flip();
+        while (records.hasRemaining()) {
+            wal.write(records);
+        }
+        records.clear();
+        dirty = true;
+    }
+
+    private void forceWal() throws IOException {
+        if (wal != null && dirty) {
+            wal.force(false);
+            dirty = false;
+        }
+        lastForceMillis = System.currentTimeMillis();
+    }
+
+    // Folds the journal into the moves file; costs 3 bits per move played, nothing per maze cell
+    private void compact() throws IOException {
+        long start = System.nanoTime();
+        flushRecords();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MOVES_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            moves.write(out);
+        }
+        writeAtomically(directory.resolve(MOVES_FILE), bytes.toByteArray());
+        // Records already in the moves file are skipped on recovery, so a crash here loses nothing
+        wal.truncate(WAL_HEADER_BYTES);
+        wal.position(WAL_HEADER_BYTES);
+        wal.force(false);
+        walRecords = 0;
+        LOG.debug("Compacted the move journal at {} moves in {} ms", moves.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void writeSolution(CompactSolution solution) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SOLUTION_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            solution.write(out);
+        }
+        writeAtomically(directory.resolve(SOLUTION_FILE), bytes.toByteArray());
+    }
+
+    private void resetWal() throws IOException {
+        wal = FileChannel.open(directory.resolve(WAL_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(WAL_HEADER_BYTES);
+        header.putInt(WAL_MAGIC).putInt(VERSION).putLong(generation).flip();
+        while (header.hasRemaining()) {
+            wal.write(header);
+        }
+        wal.force(false);
+        dirty = false;
+        lastForceMillis = System.currentTimeMillis();
+    }
+
+    private void closeWal() throws IOException {
+        if (wal != null) {
+            wal.close();
+            wal = null;
+        }
+    }
+
+    private void deleteCheckpoint() throws IOException {
+        records.clear();
+        closeWal();
+        moves = null;
+        for (String name : new String[]{GAME_FILE, MOVES_FILE, SOLUTION_FILE, WAL_FILE}) {
+            Files.deleteIfExists(directory.resolve(name));
+        }
+    }
+
+    // =================== Recovery ===================
+
+    /**
+     * Reads the game checkpointed in a directory: the maze, every move that
+     * reached the disk and the last solution.
+     *
+     * @return the checkpoint, or null if the directory holds none
+     * @throws IOException if the game file is unreadable
+     */
+    public static Checkpoint recover(Path directory) throws IOException {
+        Path gameFile = directory.resolve(GAME_FILE);
+        if (!Files.isRegularFile(gameFile)) return null;
+
+        long generation;
+        SessionRecording recording;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(gameFile))) {
+            readHeader(in, GAME_MAGIC);
+            generation = in.readLong();
+            recording = SessionRecording.read(in);
+        }
+
+        MoveJournal moves = recording.getJournal();
+        Path movesFile = directory.resolve(MOVES_FILE);
+        if (Files.isRegularFile(movesFile)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(movesFile))) {
+                readHeader(in, MOVES_MAGIC);
+                if (in.readLong() == generation) {
+                    moves = MoveJournal.read(in);
+                }
+            } catch (IOException e) {
+                LOG.warn("Ignoring unreadable compacted moves: {}", e.getMessage());
+            }
+        }
+
+        int[] position = readWal(directory.resolve(WAL_FILE), generation, moves);
+
+        CompactSolution solution = null;
+        Path solutionFile = directory.resolve(SOLUTION_FILE);
+        if (Files.isRegularFile(solutionFile)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(solutionFile))) {
+                readHeader(in, SOLUTION_MAGIC);
+                if (in.readLong() == generation) {
+                    solution = CompactSolution.read(in);
+                }
+            } catch (IOException e) {
+                LOG.warn("Ignoring unreadable checkpointed solution: {}", e.getMessage());
+            }
+        }
+
+        SessionRecording full = recording.isSeeded()
+                ? new SessionRecording(recording.getSeed(), recording.getRows(), recording.getColumns(),
+                        recording.getStart(), moves)
+                : new SessionRecording(recording.getMazeBytes(), recording.getRows(), recording.getColumns(),
+                        recording.getStart(), moves);
+        return new Checkpoint(full, solution, position);
+    }
+
+    // Appends the journal's moves past the compacted ones; returns the last recorded position
+    private static int[] readWal(Path walFile, long generation, MoveJournal moves) throws IOException {
+        if (!Files.isRegularFile(walFile)) return null;
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(walFile, StandardOpenOption.READ)) {
+            // Compaction keeps the journal small enough to read in one go
+            buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() < WAL_HEADER_BYTES || buffer.getInt() != WAL_MAGIC
+                || buffer.getInt() != VERSION || buffer.getLong() != generation) {
+            return null;
+        }
+
+        int[] position = null;
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int index = buffer.getInt();
+            int row = buffer.getInt();
+            int col = buffer.getInt();
+            byte code = buffer.get();
+            byte check = buffer.get();
+            short marker = buffer.getShort();
+            if (marker != RECORD_MARKER || check != (byte) ~code || index > moves.size()
+                    || code < 0 || code >= MoveDirection.values().length) {
+                buffer.position(buffer.position() - RECORD_BYTES);
+                break; // torn or garbage tail
+            }
+            if (index < moves.size()) {
+                continue; // already in the moves file; a compaction was cut short before truncating
+            }
+            moves.append(MoveDirection.fromCode(code));
+            position = new int[]{row, col};
+        }
+        if (buffer.hasRemaining()) {
+            LOG.info("Dropped {} bytes of torn records at the end of the move journal", buffer.remaining());
+        }
+        return position;
+    }
+
+    private static void readHeader(DataInputStream in, int magic) throws IOException {
+        if (in.readInt() != magic) {
+            throw new IOException("Not a game checkpoint file");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version: " + version);
+        }
+    }
+
+    private static void writeAtomically(Path target, byte[] data) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(data);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package Model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Bulk operations over whole grids or rows: counting free cells, packing them into
+ * bitsets and converting cells to ARGB pixels. They run row by row on the storage of
+ * the grid - the arrays of an {@link ArrayMazeGrid}, the segment of an
+ * {@link OffHeapMazeGrid} - instead of one {@code getCell} call per cell, and use
+ * SIMD through the Vector API when it is available, so scans of huge grids are
+ * limited by memory bandwidth rather than by the loop.
+ *
+ * The Vector API is an incubator module and only present with
+ * {@code --add-modules jdk.incubator.vector}; without it (or with
+ * {@code -Dmaze.kernels=scalar}) the same operations run as plain loops.
+ */
+public final class GridKernels {
+
+    private static final Logger LOG = LogManager.getLogger(GridKernels.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final GridKernels SCALAR = new GridKernels(new ScalarRowKernels());
+    private static final GridKernels DEFAULT = select();
+
+    private final RowKernels rows;
+
+    private GridKernels(RowKernels rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * @return the fastest kernels available in this JVM
+     */
+    public static GridKernels get() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the plain-loop kernels, e.g. to compare against in benchmarks
+     */
+    public static GridKernels scalar() {
+        return SCALAR;
+    }
+
+    // The vector class is loaded by name, so nothing links against the module when it is missing
+    private static GridKernels select() {
+        if ("scalar".equals(System.getProperty("maze.kernels"))) {
+            return SCALAR;
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            LOG.debug("{} is not available; grid kernels use scalar loops", VECTOR_MODULE);
+            return SCALAR;
+        }
+        try {
+            RowKernels vector = (RowKernels) Class.forName("Model.VectorRowKernels")
+                    .getDeclaredConstructor().newInstance();
+            LOG.debug("Grid kernels use the Vector API ({})", vector.getName());
+            return new GridKernels(vector);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOG.warn("Could not load the vector grid kernels, using scalar loops: {}", e.toString());
+            return SCALAR;
+        }
+    }
+
+    /**
+     * @return true if these kernels use the Vector API
+     */
+    public boolean isVectorized() {
+        return this != SCALAR;
+    }
+
+    /**
+     * @return short description, e.g. "scalar" or "vector 256-bit"
+     */
+    public String getName() {
+        return rows.getName();
+    }
+
+    /**
+     * @return number of free cells in the grid
+     */
+    public long countOpen(IMazeGrid grid) {
+        return countOpen(grid, 0, grid.getRows());
+    }
+
+    /**
+     * @return number of free cells in rows {@code [fromRow, toRow)}
+     */
+    public long countOpen(IMazeGrid grid, int fromRow, int toRow) {
+        int cols = grid.getColumns();
+        if (grid instanceof OffHeapMazeGrid offHeap) {
+            return rows.countOpen(offHeap.getCells(), (long) fromRow * cols, (long) toRow * cols);
+        }
+        long count = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            count += rows.countOpen(rowCells(grid, row, 0, cols), 0, cols);
+        }
+        return count;
+    }
+
+    /**
+     * Sets bit {@code i} of {@code words} (bit {@code i & 63} of word {@code i >>> 6})
+     * for every free cell {@code i} in {@code [fromCell, toCell)}, cells numbered in
+     * row-major order. Other bits are left alone. Tasks that pack different ranges in
+     * parallel must use ranges aligned to 64 cells, so they never share a word.
+     *
+     * @return number of free cells in the range
+     */
+    public long packOpenCells(IMazeGrid grid, long fromCell, long toCell, long[] words) {
+        if (grid instanceof OffHeapMazeGrid offHeap) {
+            // Row-major bytes: the cell number is the offset in the segment
+            return packOpenCells(offHeap.getCells(), fromCell, toCell, words);
+        }
+        int cols = grid.getColumns();
+        long count = 0;
+        long cell = fromCell;
+        while (cell < toCell) {
+            int row = (int) (cell / cols);
+            int col = (int) (cell % cols);
+            int length = (int) Math.min(cols - col, toCell - cell);
+            int[] cells = rowCells(grid, row, col, length);
+            int from = grid instanceof ArrayMazeGrid ? col : 0;
+            for (int done = 0; done < length; ) {
+                // Never cross a word boundary, so each chunk is one shifted OR
+                int shift = (int) ((cell + done) & 63);
+                int chunk = Math.min(64 - shift, length - done);
+                long bits = rows.openBits(cells, from + done, chunk);
+                words[(int) ((cell + done) >>> 6)] |= bits << shift;
+                count += Long.bitCount(bits);
+                done += chunk;
+            }
+            cell += length;
+        }
+        return count;
+    }
+
+    private long packOpenCells(MemorySegment cells, long fromCell, long toCell, long[] words) {
+        long count = 0;
+        long cell = fromCell;
+        while (cell < toCell) {
+            int shift = (int) (cell & 63);
+            int chunk = (int) Math.min(64 - shift, toCell - cell);
+            long bits = rows.openBits(cells, cell, chunk);
+            words[(int) (cell >>> 6)] |= bits << shift;
+            count += Long.bitCount(bits);
+            cell += chunk;
+        }
+        return count;
+    }
+
+    /**
+     * Converts part of a row to pixels: {@code freeArgb} for free cells, {@code wallArgb} for walls.
+     *
+     * @param argb target pixels; {@code length} pixels are written from {@code offset}
+     */
+    public void toArgb(IMazeGrid grid, int row, int fromCol, int length, int[] argb, int offset,
+                       int freeArgb, int wallArgb) {
+        if (grid instanceof OffHeapMazeGrid offHeap) {
+            long from = (long) row * grid.getColumns() + fromCol;
+            rows.toArgb(offHeap.getCells(), from, argb, offset, length, freeArgb, wallArgb);
+            return;
+        }
+        int[] cells = rowCells(grid, row, fromCol, length);
+        int from = grid instanceof ArrayMazeGrid ? fromCol : 0;
+        rows.toArgb(cells, from, argb, offset, length, freeArgb, wallArgb);
+    }
+
+    // Either the whole stored row (array grids, no copy) or just the requested cells
+    private static int[] rowCells(IMazeGrid grid, int row, int fromCol, int length) {
+        if (grid instanceof ArrayMazeGrid array) {
+            return array.getCells()[row];
+        }
+        return grid.getRegion(row, fromCol, 1, length)[0];
+    }
+}
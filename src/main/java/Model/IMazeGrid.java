@@ -0,0 +1,79 @@
+package Model;
+
+/**
+ * Read access to the cells of a maze grid, independent of where the
+ * cells are stored (on-heap array, memory-mapped file, ...).
+ * Cells use the same encoding as {@code Maze.getMaze()}: 0 = free, 1 = wall.
+ */
+public interface IMazeGrid {
+
+    /**
+     * @return number of rows in the grid
+     */
+    int getRows();
+
+    /**
+     * @return number of columns in the grid
+     */
+    int getColumns();
+
+    /**
+     * Returns the value of a single cell.
+     *
+     * @param row row index (must be in bounds)
+     * @param col column index (must be in bounds)
+     * @return 0 for a free cell, 1 for a wall
+     */
+    int getCell(int row, int col);
+
+    /**
+     * Checks if a cell is inside the grid and not a wall.
+     */
+    default boolean isFree(int row, int col) {
+        return row >= 0 && row < getRows() &&
+                col >= 0 && col < getColumns() &&
+                getCell(row, col) == 0;
+    }
+
+    /**
+     * Pins the grid's storage for a reader outside the thread that owns the grid
+     * (the view, a background builder): until the matching {@link #release()},
+     * closing the grid does not free the cells. Grids without storage to free
+     * always succeed.
+     *
+     * @return false if the storage has already been freed; the grid must not be read then
+     */
+    default boolean acquire() {
+        return true;
+    }
+
+    /**
+     * Ends a read started with a successful {@link #acquire()}.
+     */
+    default void release() {
+    }
+
+    /**
+     * Copies a rectangular region of the grid, clipped to the grid bounds.
+     * Used by the renderer to fetch only the part of the maze it shows.
+     *
+     * @param fromRow first row of the region
+     * @param fromCol first column of the region
+     * @param rows number of rows to copy
+     * @param cols number of columns to copy
+     * @return the region as a 2D array (may be smaller than requested near the edges)
+     */
+    default int[][] getRegion(int fromRow, int fromCol, int rows, int cols) {
+        int startRow = Math.max(0, fromRow);
+        int startCol = Math.max(0, fromCol);
+        int endRow = Math.min(getRows(), fromRow + rows);
+        int endCol = Math.min(getColumns(), fromCol + cols);
+        int[][] region = new int[Math.max(0, endRow - startRow)][Math.max(0, endCol - startCol)];
+        for (int r = startRow; r < endRow; r++) {
+            for (int c = startCol; c < endCol; c++) {
+                region[r - startRow][c - startCol] = getCell(r, c);
+            }
+        }
+        return region;
+    }
+}
@@ -2,17 +2,42 @@ package Model;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import algorithms.mazeGenerators.Position;
 
 public interface IModel {
     void generateMaze(int rows, int cols);
+    void generateLargeMaze(int rows, int cols, File backingFile) throws IOException; // chunked, memory-mapped; only the chunks in use are paged in
     void solveMaze();
-    void saveMaze(File file) throws IOException;
+    void solveMaze(SolverAlgorithm algorithm, SearchEventStream events); // events may be null; streams expanded cells
+    void setSharedSolves(boolean shared); // share searches with other models solving the same maze; off by default
+    SolveStatus solveMazeWithin(SolverAlgorithm algorithm, SolveBudget budget); // stops at the budget's limits
+    void saveMaze(File file) throws IOException; // always a self-contained file
+    void saveMazeReference(File file) throws IOException; // opt-in: names the maze's MazeStore entry, loads only where it is stored
     void loadMaze(File file) throws IOException, ClassNotFoundException;
 
-    int[][] getMaze(); // 2D maze data for drawing
+    int[][] getMaze(); // 2D maze data, null unless the maze is a small on-heap one
+    IMazeGrid getMazeGrid(); // read access for drawing, wherever the cells are stored; read big mazes by region
+    void releaseMaze(); // drops the maze and frees its off-heap or mapped storage now
+    CompletableFuture<MazeAnalysis> getMazeAnalysis(); // completes with null if the maze is not analysed
+    void setBackgroundAnalysis(boolean enabled); // analyse each generated or loaded maze right away; on by default
+    int[][] getMazeRegion(int fromRow, int fromCol, int rows, int cols); // part of the maze, pages in chunked mazes
+    int[] getMazeSize(); // [rows, cols]
     int[] getCharacterPosition(); // current [row, col] of player
-    void moveCharacter(String direction); // "UP", "DOWN", "LEFT", "RIGHT"
+    void moveCharacter(String direction); // "UP", "DOWN", "LEFT", "RIGHT", "UP-LEFT", ...
+    void saveReplay(File file) throws IOException; // maze + recorded moves
+    ReplayPlayer loadReplay(File file) throws IOException;
+    void followReplay(ReplayPlayer player); // the character and moves continue from where the replay stopped
+    void enableCheckpoints(File directory) throws IOException; // background autosave of maze + moves
+    void disableCheckpoints(); // flushes pending checkpoint writes
+    CompletableFuture<Void> closeCheckpoints(); // on exit: flushes without waiting, from any thread
+    boolean resumeFromCheckpoint(File directory) throws IOException; // false if there is no checkpoint
     java.util.List<algorithms.search.AState> getSolution(); // for drawing path
+    CompactSolution getCompactSolution(); // one move code per step, validated
+    CompactSolution getPartialSolution(); // best effort of a budgeted solve that stopped early
+    SolveStatus getSolveStatus(); // how the last solve ended, null if not solved
+    int getNumberOfNodesEvaluated(); // expansions of the last solve
+    long estimateMemoryBytes(); // approximate memory held by the model
+    Position getStartPosition();
     Position getGoalPosition();
 }
\ No newline at end of file
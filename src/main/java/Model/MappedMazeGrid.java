@@ -0,0 +1,316 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maze grid stored in a memory-mapped file, split into square chunks.
+ * Only the most recently used chunks are mapped at any time, so grids far
+ * larger than the heap (e.g. 100k x 100k) can be generated and played.
+ *
+ * File layout: a fixed header followed by the chunks in row-major order.
+ * Each chunk holds CHUNK_SIDE x CHUNK_SIDE cells, one bit per cell
+ * (bit set = free), so a freshly created file is all walls.
+ *
+ * Readers that do not know when the owner closes the grid (the view) pin it
+ * with {@link #acquire()}; closing then only closes the file when the last of
+ * them calls {@link #release()}.
+ */
+public class MappedMazeGrid implements IMazeGrid, Closeable {
+
+    private static final int MAGIC = 0x4D5A4348; // "MZCH"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+
+    /** Side of a square chunk, in cells. */
+    public static final int CHUNK_SIDE = 512;
+    private static final int CHUNK_BYTES = CHUNK_SIDE * CHUNK_SIDE / 8;
+    private static final int DEFAULT_RESIDENT_CHUNKS = 1024; // 32 MB of mapped cells
+
+    private final Path path;
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int rows;
+    private final int cols;
+    private final int chunkCols;
+    private final Map<Integer, MappedByteBuffer> residentChunks;
+    private Position startPosition;
+    private Position goalPosition;
+    private int readers; // pinned by acquire(), guarded by this
+    private boolean closing;
+
+    private MappedMazeGrid(Path path, RandomAccessFile file, boolean writable, int rows, int cols, int maxResidentChunks) {
+        this.path = path;
+        this.file = file;
+        this.channel = file.getChannel();
+        this.writable = writable;
+        this.rows = rows;
+        this.cols = cols;
+        this.chunkCols = (cols + CHUNK_SIDE - 1) / CHUNK_SIDE;
+        // Access-ordered map = LRU of mapped chunks; evicted mappings are released by the GC
+        this.residentChunks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, MappedByteBuffer> eldest) {
+                if (size() > maxResidentChunks) {
+                    if (MappedMazeGrid.this.writable) {
+                        eldest.getValue().force();
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a new grid file filled with walls.
+     *
+     * @param path backing file (overwritten if it exists)
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return the new grid, open for writing
+     * @throws IOException if the file cannot be created
+     */
+    public static MappedMazeGrid create(Path path, int rows, int cols) throws IOException {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Maze dimensions must be positive");
+        }
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+        long chunkRows = (rows + CHUNK_SIDE - 1) / CHUNK_SIDE;
+        long chunkCols = (cols + CHUNK_SIDE - 1) / CHUNK_SIDE;
+        file.setLength(0);
+        file.setLength(HEADER_BYTES + chunkRows * chunkCols * CHUNK_BYTES); // sparse, zero = wall
+
+        MappedMazeGrid grid = new MappedMazeGrid(path, file, true, rows, cols, DEFAULT_RESIDENT_CHUNKS);
+        grid.startPosition = new Position(0, 0);
+        grid.goalPosition = new Position(rows - 1, cols - 1);
+        grid.writeHeader();
+        return grid;
+    }
+
+    /**
+     * Opens an existing grid file.
+     *
+     * @param path backing file
+     * @param writable true to allow {@link #setCell}
+     * @return the opened grid
+     * @throws IOException if the file is missing or not a chunked maze
+     */
+    public static MappedMazeGrid open(Path path, boolean writable) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), writable ? "rw" : "r");
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        file.getChannel().read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            file.close();
+            throw new IOException("Not a chunked maze file: " + path);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            file.close();
+            throw new IOException("Unsupported chunked maze version: " + version);
+        }
+        int rows = header.getInt();
+        int cols = header.getInt();
+        int chunkSide = header.getInt();
+        if (chunkSide != CHUNK_SIDE) {
+            file.close();
+            throw new IOException("Unsupported chunk size: " + chunkSide);
+        }
+        MappedMazeGrid grid = new MappedMazeGrid(path, file, writable, rows, cols, DEFAULT_RESIDENT_CHUNKS);
+        grid.startPosition = new Position(header.getInt(), header.getInt());
+        grid.goalPosition = new Position(header.getInt(), header.getInt());
+        return grid;
+    }
+
+    /**
+     * Checks if the given file starts with the chunked maze header.
+     */
+    public static boolean isMappedMazeFile(Path path) {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            return file.length() >= HEADER_BYTES && file.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION)
+                .putInt(rows).putInt(cols).putInt(CHUNK_SIDE)
+                .putInt(startPosition.getRowIndex()).putInt(startPosition.getColumnIndex())
+                .putInt(goalPosition.getRowIndex()).putInt(goalPosition.getColumnIndex());
+        header.clear();
+        channel.write(header, 0);
+    }
+
+    // Maps the chunk on first use, evicting the least recently used one if needed
+    private synchronized MappedByteBuffer chunk(int chunkRow, int chunkCol) {
+        int index = chunkRow * chunkCols + chunkCol;
+        MappedByteBuffer buffer = residentChunks.get(index);
+        if (buffer == null) {
+            try {
+                long offset = HEADER_BYTES + (long) index * CHUNK_BYTES;
+                buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                        offset, CHUNK_BYTES);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to map maze chunk " + index, e);
+            }
+            residentChunks.put(index, buffer);
+        }
+        return buffer;
+    }
+
+    // Bit index of a cell inside its chunk
+    private static int bitIndex(int row, int col) {
+        return (row % CHUNK_SIDE) * CHUNK_SIDE + (col % CHUNK_SIDE);
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return cols;
+    }
+
+    @Override
+    public int getCell(int row, int col) {
+        int bit = bitIndex(row, col);
+        byte b = chunk(row / CHUNK_SIDE, col / CHUNK_SIDE).get(bit >>> 3);
+        return (b & (1 << (bit & 7))) != 0 ? 0 : 1;
+    }
+
+    /**
+     * Sets a single cell. Only one thread may write at a time.
+     *
+     * @param value 0 for free, 1 for wall
+     */
+    public void setCell(int row, int col, int value) {
+        int bit = bitIndex(row, col);
+        MappedByteBuffer buffer = chunk(row / CHUNK_SIDE, col / CHUNK_SIDE);
+        int index = bit >>> 3;
+        byte b = buffer.get(index);
+        int mask = 1 << (bit & 7);
+        buffer.put(index, (byte) (value == 0 ? (b | mask) : (b & ~mask)));
+    }
+
+    /**
+     * Maps all chunks overlapping the given region ahead of time,
+     * e.g. the area around the player's viewport.
+     */
+    public void pageIn(int fromRow, int fromCol, int rowCount, int colCount) {
+        int startRow = Math.max(0, fromRow);
+        int startCol = Math.max(0, fromCol);
+        int endRow = Math.min(rows, fromRow + rowCount);
+        int endCol = Math.min(cols, fromCol + colCount);
+        if (endRow <= startRow || endCol <= startCol) return;
+
+        int firstChunkRow = startRow / CHUNK_SIDE;
+        int firstChunkCol = startCol / CHUNK_SIDE;
+        int lastChunkRow = (endRow - 1) / CHUNK_SIDE;
+        int lastChunkCol = (endCol - 1) / CHUNK_SIDE;
+        for (int r = firstChunkRow; r <= lastChunkRow; r++) {
+            for (int c = firstChunkCol; c <= lastChunkCol; c++) {
+                chunk(r, c).load();
+            }
+        }
+    }
+
+    /**
+     * @return bytes of the file currently mapped into memory (off-heap)
+     */
+    public long getResidentBytes() {
+        return (long) getResidentChunkCount() * CHUNK_BYTES;
+    }
+
+    /**
+     * @return number of chunks currently mapped
+     */
+    public synchronized int getResidentChunkCount() {
+        return residentChunks.size();
+    }
+
+    /**
+     * @return the backing file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    public Position getStartPosition() {
+        return startPosition;
+    }
+
+    public Position getGoalPosition() {
+        return goalPosition;
+    }
+
+    /**
+     * Updates the start and goal positions stored in the file header.
+     */
+    public void setEndpoints(Position start, Position goal) throws IOException {
+        this.startPosition = start;
+        this.goalPosition = goal;
+        writeHeader();
+    }
+
+    /**
+     * Writes all modified chunks back to the file.
+     */
+    public synchronized void force() {
+        if (!writable) return;
+        for (MappedByteBuffer buffer : residentChunks.values()) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized boolean acquire() {
+        if (closing) return false;
+        readers++;
+        return true;
+    }
+
+    @Override
+    public synchronized void release() {
+        if (--readers == 0 && closing) {
+            try {
+                closeFile();
+            } catch (IOException ignored) {
+                // the owner has dropped the grid already
+            }
+        }
+    }
+
+    /**
+     * Writes the modified chunks back and closes the file, or - while readers have
+     * the grid pinned - makes the last of them do it on {@link #release()}.
+     * New pins are refused from now on.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        closing = true;
+        if (readers == 0) {
+            closeFile();
+        }
+    }
+
+    private void closeFile() throws IOException {
+        force();
+        residentChunks.clear();
+        file.close();
+    }
+}
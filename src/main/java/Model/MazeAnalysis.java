@@ -0,0 +1,194 @@
+package Model;
+
+/**
+ * Structure metrics of one maze, computed by {@link MazeAnalyzer}.
+ * Cells are connected through their four side neighbours. Diagonal moves need a
+ * free side cell anyway, so they never connect anything the sides do not.
+ * <ul>
+ *     <li>Dead end: free cell with one free neighbour</li>
+ *     <li>Junction: free cell with three or four free neighbours</li>
+ *     <li>Corridor: connected run of free cells with exactly two free neighbours each</li>
+ * </ul>
+ */
+public final class MazeAnalysis {
+
+    private final int rows;
+    private final int cols;
+    private final long openCells;
+    private final long reachableCells;
+    private final boolean goalReachable;
+    private final long deadEnds;
+    private final long junctions;
+    private final long junctionExits;
+    private final long corridors;
+    private final long corridorCells;
+    private final int longestCorridor;
+    private final long[] corridorHistogram;
+    private final int straightDistance;
+    private final int solutionLength;
+    private final long analysisNanos;
+
+    MazeAnalysis(int rows, int cols, long openCells, long reachableCells, boolean goalReachable,
+                 long deadEnds, long junctions, long junctionExits, long corridors, long corridorCells,
+                 int longestCorridor, long[] corridorHistogram, int straightDistance, int solutionLength,
+                 long analysisNanos) {
+        this.rows = rows;
+        this.cols = cols;
+        this.openCells = openCells;
+        this.reachableCells = reachableCells;
+        this.goalReachable = goalReachable;
+        this.deadEnds = deadEnds;
+        this.junctions = junctions;
+        this.junctionExits = junctionExits;
+        this.corridors = corridors;
+        this.corridorCells = corridorCells;
+        this.longestCorridor = longestCorridor;
+        this.corridorHistogram = corridorHistogram;
+        this.straightDistance = straightDistance;
+        this.solutionLength = solutionLength;
+        this.analysisNanos = analysisNanos;
+    }
+
+    /**
+     * Returns a copy that knows the length of the maze's solution, for {@link #getSolutionRatio()}.
+     *
+     * @param length steps of the solution path
+     */
+    public MazeAnalysis withSolutionLength(int length) {
+        return new MazeAnalysis(rows, cols, openCells, reachableCells, goalReachable, deadEnds, junctions,
+                junctionExits, corridors, corridorCells, longestCorridor, corridorHistogram, straightDistance,
+                length, analysisNanos);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return cols;
+    }
+
+    /**
+     * @return number of free cells
+     */
+    public long getOpenCells() {
+        return openCells;
+    }
+
+    /**
+     * @return free cells connected to the start (0 if the start is a wall)
+     */
+    public long getReachableCells() {
+        return reachableCells;
+    }
+
+    /**
+     * @return share of the free cells that can be reached from the start, 0..1
+     */
+    public double getReachability() {
+        return openCells > 0 ? (double) reachableCells / openCells : 0;
+    }
+
+    /**
+     * @return true if the goal is connected to the start
+     */
+    public boolean isGoalReachable() {
+        return goalReachable;
+    }
+
+    public long getDeadEnds() {
+        return deadEnds;
+    }
+
+    public long getJunctions() {
+        return junctions;
+    }
+
+    /**
+     * @return mean number of ways on at a junction (its free neighbours minus the way in), 0 without junctions
+     */
+    public double getBranchingFactor() {
+        return junctions > 0 ? (double) junctionExits / junctions : 0;
+    }
+
+    /**
+     * @return number of corridors
+     */
+    public long getCorridors() {
+        return corridors;
+    }
+
+    /**
+     * @return mean corridor length in cells, 0 without corridors
+     */
+    public double getMeanCorridorLength() {
+        return corridors > 0 ? (double) corridorCells / corridors : 0;
+    }
+
+    /**
+     * @return length of the longest corridor in cells
+     */
+    public int getLongestCorridor() {
+        return longestCorridor;
+    }
+
+    /**
+     * Corridor lengths in powers of two: entry {@code k} counts the corridors
+     * of {@code 2^k} to {@code 2^(k+1) - 1} cells.
+     *
+     * @return a copy of the histogram
+     */
+    public long[] getCorridorHistogram() {
+        return corridorHistogram.clone();
+    }
+
+    /**
+     * @return moves from start to goal on an empty grid (diagonals allowed)
+     */
+    public int getStraightDistance() {
+        return straightDistance;
+    }
+
+    /**
+     * @return steps of the solution, or -1 if it was not known when the maze was analysed
+     */
+    public int getSolutionLength() {
+        return solutionLength;
+    }
+
+    /**
+     * How much the solution winds: its length over the straight distance (1 = straight line).
+     *
+     * @return the ratio, or NaN if the solution length is not known
+     */
+    public double getSolutionRatio() {
+        return solutionLength >= 0 ? (double) solutionLength / Math.max(1, straightDistance) : Double.NaN;
+    }
+
+    /**
+     * Difficulty score for ranking mazes against each other, not an absolute measure:
+     * decision points (dead ends and junctions) per 100 reachable cells, times the
+     * solution ratio when it is known. Higher is harder.
+     */
+    public double getDifficulty() {
+        if (reachableCells == 0) return 0;
+        double decisions = 100.0 * (deadEnds + junctions) / reachableCells;
+        double ratio = getSolutionRatio();
+        return Double.isNaN(ratio) ? decisions : decisions * Math.max(1, ratio);
+    }
+
+    /**
+     * @return time the analysis took, in nanoseconds
+     */
+    public long getAnalysisNanos() {
+        return analysisNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dx%d maze: %d dead ends, %d junctions (branching %.2f), %d corridors "
+                        + "(mean %.1f, longest %d), %.1f%% reachable, solution ratio %.2f, difficulty %.1f",
+                rows, cols, deadEnds, junctions, getBranchingFactor(), corridors, getMeanCorridorLength(),
+                longestCorridor, getReachability() * 100, getSolutionRatio(), getDifficulty());
+    }
+}
@@ -0,0 +1,277 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes a {@link MazeAnalysis} in one pass over the grid.
+ *
+ * The grid is cut into bands of whole rows, analysed in parallel on a
+ * {@link ForkJoinPool}. Each band reads its rows plus one row above and below (for
+ * the neighbour counts), counts dead ends and junctions, and joins free cells and
+ * corridor cells into components with two union-find forests, linking each cell
+ * to its left and upper neighbour inside the band. The forests are plain
+ * {@code int[]}s indexed by cell number, and bands only write their own cells, so
+ * they need no locking. Afterwards the rows where bands meet are joined on the
+ * calling thread; the component of the start then gives the reachability, and the
+ * corridor roots give the corridor lengths.
+ *
+ * Grids of up to {@value #BAND_CELLS} cells (e.g. 100 x 100) are one band and run on
+ * the calling thread, so scoring many small mazes is best parallelised across mazes.
+ * The forests take 8 bytes per cell on the heap while the analysis runs.
+ *
+ * Thread-safe: one analyzer can serve any number of threads.
+ */
+public class MazeAnalyzer {
+
+    // Cells per band: large enough that a task outweighs its scheduling, small enough to balance
+    private static final int BAND_CELLS = 1 << 16;
+    private static final int CORRIDOR = 2;
+    private static final int WALL = -1;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Analyses on the common pool.
+     */
+    public MazeAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool for the row bands of large grids
+     */
+    public MazeAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Analyses a maze. The solution length is not known here; add it with
+     * {@link MazeAnalysis#withSolutionLength(int)} once the maze is solved.
+     *
+     * @param grid the maze cells (0 = free)
+     * @param start start position
+     * @param goal goal position
+     * @return the metrics of the maze
+     * @throws IllegalArgumentException if the grid has more cells than an array can index
+     */
+    public MazeAnalysis analyze(IMazeGrid grid, Position start, Position goal) {
+        long begin = System.nanoTime();
+        int rows = grid.getRows();
+        int cols = grid.getColumns();
+        long cells = (long) rows * cols;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Maze too large to analyse: " + rows + "x" + cols);
+        }
+        int[] open = new int[(int) cells];
+        int[] corridor = new int[(int) cells];
+
+        int bandRows = Math.max(1, BAND_CELLS / Math.max(1, cols));
+        int bandCount = Math.max(1, (rows + bandRows - 1) / bandRows);
+        Band[] bands = new Band[bandCount];
+        if (bandCount == 1) {
+            bands[0] = analyzeBand(grid, 0, rows, open, corridor);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(bandCount);
+            for (int b = 0; b < bandCount; b++) {
+                int band = b;
+                int fromRow = b * bandRows;
+                int toRow = Math.min(rows, fromRow + bandRows);
+                tasks.add(ForkJoinTask.adapt(() -> bands[band] = analyzeBand(grid, fromRow, toRow, open, corridor)));
+            }
+            runAll(tasks);
+        }
+
+        // Join the components across the rows where bands meet
+        for (int b = 0; b + 1 < bandCount; b++) {
+            int[] above = bands[b].lastDegrees;
+            int[] below = bands[b + 1].firstDegrees;
+            int offset = (bands[b].toRow - 1) * cols;
+            for (int c = 0; c < cols; c++) {
+                if (above[c] == WALL || below[c] == WALL) continue;
+                union(open, offset + c + cols, offset + c);
+                if (above[c] == CORRIDOR && below[c] == CORRIDOR) {
+                    union(corridor, offset + c + cols, offset + c);
+                }
+            }
+        }
+
+        long openCells = 0, deadEnds = 0, junctions = 0, junctionExits = 0;
+        long corridors = 0, corridorCells = 0;
+        int longest = 0;
+        long[] histogram = new long[Integer.SIZE];
+        for (Band band : bands) {
+            openCells += band.openCells;
+            deadEnds += band.deadEnds;
+            junctions += band.junctions;
+            junctionExits += band.junctionExits;
+            corridorCells += band.corridorCells;
+            // Every root started as a new component in some band; the others were joined away
+            for (int i = 0; i < band.newComponents; i++) {
+                int size = -corridor[band.componentStarts[i]];
+                if (size <= 0) continue;
+                corridors++;
+                longest = Math.max(longest, size);
+                histogram[31 - Integer.numberOfLeadingZeros(size)]++;
+            }
+        }
+        int buckets = histogram.length;
+        while (buckets > 0 && histogram[buckets - 1] == 0) buckets--;
+
+        long reachable = 0;
+        boolean goalReachable = false;
+        int startCell = start.getRowIndex() * cols + start.getColumnIndex();
+        if (grid.isFree(start.getRowIndex(), start.getColumnIndex())) {
+            int root = find(open, startCell);
+            reachable = -open[root];
+            goalReachable = grid.isFree(goal.getRowIndex(), goal.getColumnIndex())
+                    && find(open, goal.getRowIndex() * cols + goal.getColumnIndex()) == root;
+        }
+        int straight = Math.max(Math.abs(goal.getRowIndex() - start.getRowIndex()),
+                Math.abs(goal.getColumnIndex() - start.getColumnIndex()));
+        return new MazeAnalysis(rows, cols, openCells, reachable, goalReachable, deadEnds, junctions,
+                junctionExits, corridors, corridorCells, longest, Arrays.copyOf(histogram, buckets), straight, -1,
+                System.nanoTime() - begin);
+    }
+
+    // ---- Bands ----
+
+    // Counts and component starts of rows [fromRow, toRow), plus the degrees of its edge rows for the join
+    private static final class Band {
+        final int toRow;
+        int[] firstDegrees;
+        int[] lastDegrees;
+        long openCells;
+        long deadEnds;
+        long junctions;
+        long junctionExits;
+        long corridorCells;
+        int[] componentStarts = new int[16];
+        int newComponents;
+
+        Band(int toRow) {
+            this.toRow = toRow;
+        }
+
+        void addComponentStart(int cell) {
+            if (newComponents == componentStarts.length) {
+                componentStarts = Arrays.copyOf(componentStarts, newComponents * 2);
+            }
+            componentStarts[newComponents++] = cell;
+        }
+    }
+
+    private static Band analyzeBand(IMazeGrid grid, int fromRow, int toRow, int[] open, int[] corridor) {
+        int rows = grid.getRows();
+        int cols = grid.getColumns();
+        // Row r is view[r - base]; array grids are read in place, others copy the band and its halo rows
+        int[][] view;
+        int base;
+        if (grid instanceof ArrayMazeGrid array) {
+            view = array.getCells();
+            base = 0;
+        } else {
+            base = Math.max(0, fromRow - 1);
+            view = grid.getRegion(base, 0, Math.min(rows, toRow + 1) - base, cols);
+        }
+
+        Band band = new Band(toRow);
+        // Free neighbours per cell of the previous and the current row, WALL for walls
+        int[] previous = new int[cols];
+        int[] degrees = new int[cols];
+        for (int r = fromRow; r < toRow; r++) {
+            int[] above = r > 0 ? view[r - 1 - base] : null;
+            int[] row = view[r - base];
+            int[] below = r + 1 < rows ? view[r + 1 - base] : null;
+            boolean inBand = r > fromRow; // links upwards stay inside the band
+            int cell = r * cols;
+            for (int c = 0; c < cols; c++, cell++) {
+                if (row[c] != 0) {
+                    degrees[c] = WALL;
+                    continue;
+                }
+                boolean left = c > 0 && row[c - 1] == 0;
+                boolean up = above != null && above[c] == 0;
+                int degree = (left ? 1 : 0) + (up ? 1 : 0)
+                        + (c + 1 < cols && row[c + 1] == 0 ? 1 : 0)
+                        + (below != null && below[c] == 0 ? 1 : 0);
+                degrees[c] = degree;
+                band.openCells++;
+
+                open[cell] = -1;
+                if (left) union(open, cell, cell - 1);
+                if (up && inBand) union(open, cell, cell - cols);
+
+                if (degree == 1) {
+                    band.deadEnds++;
+                } else if (degree > CORRIDOR) {
+                    band.junctions++;
+                    band.junctionExits += degree - 1;
+                } else if (degree == CORRIDOR) {
+                    band.corridorCells++;
+                    corridor[cell] = -1;
+                    boolean joined = false;
+                    if (left && degrees[c - 1] == CORRIDOR) {
+                        union(corridor, cell, cell - 1);
+                        joined = true;
+                    }
+                    if (up && inBand && previous[c] == CORRIDOR) {
+                        union(corridor, cell, cell - cols);
+                        joined = true;
+                    }
+                    if (!joined) band.addComponentStart(cell);
+                }
+            }
+            if (r == fromRow) band.firstDegrees = degrees.clone();
+            int[] swap = previous;
+            previous = degrees;
+            degrees = swap;
+        }
+        band.lastDegrees = previous;
+        return band;
+    }
+
+    // ---- Union-find: a root holds minus its component size, other cells their parent ----
+
+    private static int find(int[] parent, int cell) {
+        while (parent[cell] >= 0) {
+            int next = parent[cell];
+            if (parent[next] >= 0) {
+                parent[cell] = parent[next]; // path halving
+            }
+            cell = next;
+        }
+        return cell;
+    }
+
+    // Union by size; on a tie the root of b survives, so a newly added cell never becomes a root
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) return;
+        if (parent[rootA] < parent[rootB]) {
+            parent[rootA] += parent[rootB];
+            parent[rootB] = rootA;
+        } else {
+            parent[rootB] += parent[rootA];
+            parent[rootA] = rootB;
+        }
+    }
+
+    // ---- Helpers ----
+
+    private void runAll(List<ForkJoinTask<?>> tasks) {
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+}
@@ -0,0 +1,329 @@
+package Model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+
+/**
+ * Local content-addressed store of mazes. Every grid is kept once, under the
+ * SHA-256 of its {@code Maze.toByteArray()} form, however many times it is
+ * saved or loaded. A validated solution can be cached next to it, and a small
+ * properties index keeps the metadata (dimensions, generator seed, best time).
+ *
+ * Layout under the root directory:
+ * <pre>
+ *     objects/ab/cdef...maze   maze bytes
+ *     objects/ab/cdef...sol    run-length encoded {@link CompactSolution}
+ *     index.properties         &lt;hash&gt;.rows, .cols, .seed, .bestMillis, .lastUsed
+ * </pre>
+ * All files are replaced atomically, so a crash never leaves a half-written object.
+ *
+ * On request, a maze can be saved as a reference instead of a copy: a short text
+ * file that names the stored maze by its hash (see {@link #writeReference}).
+ */
+public class MazeStore {
+
+    private static final Logger LOG = LogManager.getLogger(MazeStore.class);
+
+    private static final String INDEX_FILE = "index.properties";
+    private static final String MAZE_SUFFIX = ".maze";
+    private static final String SOLUTION_SUFFIX = ".sol";
+    private static final String REFERENCE_MAGIC = "MAZEREF 1\n";
+    // Magic line plus a hex SHA-256 and a newline
+    private static final int REFERENCE_BYTES = REFERENCE_MAGIC.length() + 65;
+
+    private static MazeStore defaultStore;
+
+    private final Path root;
+    private final Path objects;
+    private final Properties index = new Properties();
+
+    /**
+     * A stored maze with its cached solution and metadata.
+     */
+    public static class Entry {
+        private final String hash;
+        private final byte[] mazeBytes;
+        private final CompactSolution solution;
+        private final int rows;
+        private final int cols;
+        private final Long seed;
+        private final long bestMillis;
+
+        Entry(String hash, byte[] mazeBytes, CompactSolution solution, int rows, int cols, Long seed, long bestMillis) {
+            this.hash = hash;
+            this.mazeBytes = mazeBytes;
+            this.solution = solution;
+            this.rows = rows;
+            this.cols = cols;
+            this.seed = seed;
+            this.bestMillis = bestMillis;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the maze bytes, or null if the entry was looked up without them
+         */
+        public byte[] getMazeBytes() {
+            return mazeBytes;
+        }
+
+        /**
+         * @return the cached solution, or null if the maze was never solved
+         */
+        public CompactSolution getSolution() {
+            return solution;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getColumns() {
+            return cols;
+        }
+
+        /**
+         * @return the generator seed, or null if unknown
+         */
+        public Long getSeed() {
+            return seed;
+        }
+
+        /**
+         * @return fastest recorded win in milliseconds, or -1 if none
+         */
+        public long getBestMillis() {
+            return bestMillis;
+        }
+    }
+
+    /**
+     * Opens (or creates) a store in the given directory.
+     *
+     * @throws IOException if the directory or the index cannot be read
+     */
+    public MazeStore(Path root) throws IOException {
+        this.root = root;
+        this.objects = root.resolve("objects");
+        Files.createDirectories(objects);
+        Path indexFile = root.resolve(INDEX_FILE);
+        if (Files.exists(indexFile)) {
+            try (InputStream in = Files.newInputStream(indexFile)) {
+                index.load(in);
+            }
+        }
+    }
+
+    /**
+     * Returns the store shared by the game, in {@code maze.store.dir} or
+     * {@code ~/.maze-game/store}.
+     *
+     * @return the store, or null if it cannot be opened (the game works without it)
+     */
+    public static synchronized MazeStore getDefault() {
+        if (defaultStore == null) {
+            String dir = System.getProperty("maze.store.dir",
+                    Path.of(System.getProperty("user.home"), ".maze-game", "store").toString());
+            try {
+                defaultStore = new MazeStore(Path.of(dir));
+            } catch (IOException e) {
+                LOG.warn("Maze store at {} is not available: {}", dir, e.getMessage());
+                return null;
+            }
+        }
+        return defaultStore;
+    }
+
+    /**
+     * @return hex SHA-256 of the maze bytes, the key of the maze in the store
+     */
+    public static String hash(byte[] mazeBytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(mazeBytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Adds a maze, unless an identical one is already stored.
+     *
+     * @param mazeBytes maze in {@code Maze.toByteArray()} form
+     * @param seed generator seed, or null if unknown
+     * @return the maze's hash
+     * @throws IOException if the maze cannot be written
+     */
+    public synchronized String put(byte[] mazeBytes, int rows, int cols, Long seed) throws IOException {
+        String hash = hash(mazeBytes);
+        Path file = objectPath(hash, MAZE_SUFFIX);
+        if (!Files.exists(file)) {
+            writeAtomically(file, mazeBytes);
+            LOG.debug("Stored new maze {} ({}x{})", hash, rows, cols);
+        }
+        index.setProperty(hash + ".rows", Integer.toString(rows));
+        index.setProperty(hash + ".cols", Integer.toString(cols));
+        if (seed != null) {
+            index.setProperty(hash + ".seed", Long.toString(seed));
+        }
+        touch(hash);
+        saveIndex();
+        return hash;
+    }
+
+    /**
+     * Caches a validated solution of a stored maze, replacing any previous one.
+     */
+    public synchronized void putSolution(String hash, CompactSolution solution) throws IOException {
+        if (!contains(hash)) return;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            solution.write(out);
+        }
+        writeAtomically(objectPath(hash, SOLUTION_SUFFIX), bytes.toByteArray());
+    }
+
+    /**
+     * Records a win time, keeping the fastest one.
+     */
+    public synchronized void recordTime(String hash, long millis) throws IOException {
+        if (!contains(hash)) return;
+        long best = Long.parseLong(index.getProperty(hash + ".bestMillis", "-1"));
+        if (best < 0 || millis < best) {
+            index.setProperty(hash + ".bestMillis", Long.toString(millis));
+            saveIndex();
+        }
+    }
+
+    /**
+     * @return true if a maze with this hash is stored
+     */
+    public synchronized boolean contains(String hash) {
+        return index.containsKey(hash + ".rows");
+    }
+
+    /**
+     * Looks up a maze with its cached solution and metadata.
+     *
+     * @return the entry, or null if the maze is not stored
+     * @throws IOException if the stored files cannot be read
+     */
+    public Entry get(String hash) throws IOException {
+        return get(hash, true);
+    }
+
+    /**
+     * Looks up a maze's cached solution and metadata, and its bytes only if asked -
+     * a caller that already holds the maze does not need them read from disk.
+     *
+     * @param withMaze false to leave {@link Entry#getMazeBytes()} null
+     * @return the entry, or null if the maze is not stored
+     * @throws IOException if the stored files cannot be read
+     */
+    public synchronized Entry get(String hash, boolean withMaze) throws IOException {
+        if (!contains(hash)) return null;
+        Path mazeFile = objectPath(hash, MAZE_SUFFIX);
+        if (!Files.exists(mazeFile)) {
+            LOG.warn("Maze {} is indexed but its object is missing", hash);
+            return null;
+        }
+        byte[] mazeBytes = withMaze ? Files.readAllBytes(mazeFile) : null;
+
+        CompactSolution solution = null;
+        Path solutionFile = objectPath(hash, SOLUTION_SUFFIX);
+        if (Files.exists(solutionFile)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(solutionFile))) {
+                solution = CompactSolution.read(in);
+            }
+        }
+
+        String seed = index.getProperty(hash + ".seed");
+        touch(hash);
+        return new Entry(hash, mazeBytes, solution,
+                Integer.parseInt(index.getProperty(hash + ".rows")),
+                Integer.parseInt(index.getProperty(hash + ".cols")),
+                seed != null ? Long.valueOf(seed) : null,
+                Long.parseLong(index.getProperty(hash + ".bestMillis", "-1")));
+    }
+
+    /**
+     * @return number of distinct mazes in the store
+     */
+    public synchronized int size() {
+        return (int) index.stringPropertyNames().stream().filter(key -> key.endsWith(".rows")).count();
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Writes a reference file: a few bytes that name a stored maze instead of holding it.
+     * It only loads where the maze is in the store.
+     */
+    public static void writeReference(Path file, String hash) throws IOException {
+        Files.writeString(file, REFERENCE_MAGIC + hash + "\n", StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return the hash named by a reference file, or null if the file is not a reference
+     * @throws IOException if the file cannot be read
+     */
+    public static String readReference(Path file) throws IOException {
+        if (Files.size(file) != REFERENCE_BYTES) return null;
+        String text = Files.readString(file, StandardCharsets.US_ASCII);
+        if (!text.startsWith(REFERENCE_MAGIC)) return null;
+        String hash = text.substring(REFERENCE_MAGIC.length()).trim();
+        return hash.length() == 64 && hash.chars().allMatch(HexFormat::isHexDigit) ? hash : null;
+    }
+
+    private void touch(String hash) {
+        index.setProperty(hash + ".lastUsed", Long.toString(System.currentTimeMillis()));
+    }
+
+    // Objects are spread over 256 directories by the first two hex digits
+    private Path objectPath(String hash, String suffix) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash.substring(2) + suffix);
+    }
+
+    private void saveIndex() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.store(bytes, "Maze store index");
+        writeAtomically(root.resolve(INDEX_FILE), bytes.toByteArray());
+    }
+
+    private static void writeAtomically(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(data);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
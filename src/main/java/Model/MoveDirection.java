@@ -0,0 +1,105 @@
+package Model;
+
+/**
+ * The eight directions the player can move in, with a compact 3-bit code
+ * used by the move journal.
+ */
+public enum MoveDirection {
+    UP("UP", -1, 0),
+    DOWN("DOWN", 1, 0),
+    LEFT("LEFT", 0, -1),
+    RIGHT("RIGHT", 0, 1),
+    UP_LEFT("UP-LEFT", -1, -1),
+    UP_RIGHT("UP-RIGHT", -1, 1),
+    DOWN_LEFT("DOWN-LEFT", 1, -1),
+    DOWN_RIGHT("DOWN-RIGHT", 1, 1);
+
+    private static final MoveDirection[] BY_CODE = values();
+
+    private final String label;
+    private final int rowDelta;
+    private final int colDelta;
+
+    MoveDirection(String label, int rowDelta, int colDelta) {
+        this.label = label;
+        this.rowDelta = rowDelta;
+        this.colDelta = colDelta;
+    }
+
+    /**
+     * Parses a direction as used by the view ("UP", "DOWN-LEFT", ...), case-insensitive.
+     *
+     * @return the direction, or null if the string is not a known direction
+     */
+    public static MoveDirection fromLabel(String label) {
+        if (label == null) return null;
+        for (MoveDirection direction : BY_CODE) {
+            if (direction.label.equalsIgnoreCase(label)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the direction of a single step.
+     *
+     * @return the direction, or null if the delta is not a move to a neighbouring cell
+     */
+    public static MoveDirection fromDelta(int rowDelta, int colDelta) {
+        for (MoveDirection direction : BY_CODE) {
+            if (direction.rowDelta == rowDelta && direction.colDelta == colDelta) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param code 3-bit code from {@link #getCode()}
+     */
+    public static MoveDirection fromCode(int code) {
+        return BY_CODE[code & 0b111];
+    }
+
+    /**
+     * @return the 3-bit code of this direction (0-7)
+     */
+    public int getCode() {
+        return ordinal();
+    }
+
+    /**
+     * @return the direction string used by the view and the model ("UP-LEFT", ...)
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    public int getRowDelta() {
+        return rowDelta;
+    }
+
+    public int getColDelta() {
+        return colDelta;
+    }
+
+    /**
+     * @return true for the four diagonal directions
+     */
+    public boolean isDiagonal() {
+        return rowDelta != 0 && colDelta != 0;
+    }
+
+    /**
+     * Checks if a move from (row, col) in this direction is legal on the grid.
+     * Diagonal moves need a clear L-shaped path through one of the two side cells.
+     */
+    public boolean canMove(IMazeGrid grid, int row, int col) {
+        int newRow = row + rowDelta;
+        int newCol = col + colDelta;
+        if (!grid.isFree(newRow, newCol)) return false;
+        if (!isDiagonal()) return true;
+        return grid.isFree(row + rowDelta, col) || grid.isFree(row, col + colDelta);
+    }
+}
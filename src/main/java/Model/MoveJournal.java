@@ -0,0 +1,109 @@
+package Model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Compact, append-only journal of player moves.
+ * Each move is stored as its 3-bit {@link MoveDirection} code, 21 moves per
+ * {@code long}, so a million moves take about 380 KB.
+ */
+public class MoveJournal {
+
+    private static final int BITS_PER_MOVE = 3;
+    private static final int MOVES_PER_WORD = Long.SIZE / BITS_PER_MOVE; // 21
+    private static final long MOVE_MASK = (1L << BITS_PER_MOVE) - 1;
+
+    private long[] words;
+    private int size;
+
+    public MoveJournal() {
+        this.words = new long[16];
+    }
+
+    private MoveJournal(long[] words, int size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    /**
+     * Appends one move to the journal.
+     */
+    public void append(MoveDirection direction) {
+        int word = size / MOVES_PER_WORD;
+        if (word == words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        int shift = (size % MOVES_PER_WORD) * BITS_PER_MOVE;
+        words[word] |= ((long) direction.getCode()) << shift;
+        size++;
+    }
+
+    /**
+     * @param index move number, starting at 0
+     * @return the move at that index
+     */
+    public MoveDirection get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Move " + index + " of " + size);
+        }
+        int shift = (index % MOVES_PER_WORD) * BITS_PER_MOVE;
+        return MoveDirection.fromCode((int) ((words[index / MOVES_PER_WORD] >>> shift) & MOVE_MASK));
+    }
+
+    /**
+     * @return number of recorded moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return approximate heap size of the journal in bytes
+     */
+    public long estimateBytes() {
+        return 16L + words.length * 8L;
+    }
+
+    /**
+     * @return an independent copy of the journal
+     */
+    public MoveJournal copy() {
+        return new MoveJournal(Arrays.copyOf(words, words.length), size);
+    }
+
+    /**
+     * Removes all moves.
+     */
+    public void clear() {
+        Arrays.fill(words, 0, (size + MOVES_PER_WORD - 1) / MOVES_PER_WORD, 0L);
+        size = 0;
+    }
+
+    /**
+     * Writes the journal as its move count followed by the packed words.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        int usedWords = (size + MOVES_PER_WORD - 1) / MOVES_PER_WORD;
+        for (int i = 0; i < usedWords; i++) {
+            out.writeLong(words[i]);
+        }
+    }
+
+    /**
+     * Reads a journal written by {@link #write(DataOutput)}.
+     */
+    public static MoveJournal read(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) throw new IOException("Corrupt move journal (negative size)");
+        int usedWords = (size + MOVES_PER_WORD - 1) / MOVES_PER_WORD;
+        long[] words = new long[Math.max(16, usedWords)];
+        for (int i = 0; i < usedWords; i++) {
+            words[i] = in.readLong();
+        }
+        return new MoveJournal(words, size);
+    }
+}
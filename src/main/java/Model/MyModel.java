@@ -1,11 +1,20 @@
 package Model;
 
+import Metrics.GameEventLog;
+import Metrics.GameMetrics;
+import Metrics.GameMetrics.Operation;
 import algorithms.mazeGenerators.Maze;
 import algorithms.search.*;
 import algorithms.mazeGenerators.Position;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Implementation of the Model layer (in MVVM) for handling maze logic.
@@ -13,9 +22,34 @@ import java.util.List;
  */
 public class MyModel implements IModel {
 
+    private static final Logger LOG = LogManager.getLogger(MyModel.class);
+
+    // In-flight searches, keyed by maze hash and algorithm, shared by all models in this JVM
+    private static final SingleFlight<String, SharedSolve> SOLVES = new SingleFlight<>();
+
+    // Mazes with at least this many cells keep their cells off the heap (-Dmaze.offHeapCells=N to change)
+    private static final long OFF_HEAP_CELLS = Long.getLong("maze.offHeapCells", 4_000_000L);
+
+    private static final MazeAnalyzer ANALYZER = new MazeAnalyzer();
+
     private Maze maze;
+    private IMazeGrid grid;
+    private MappedMazeGrid mappedGrid; // set only for chunked mazes, which have no in-memory Maze
+    private OffHeapMazeGrid offHeapGrid; // set only for huge in-memory mazes, which keep no int[][] either
     private MazeState characterPosition;
-    private Solution solution;
+    private CompactSolution solution; // validated path only - the search graph is not kept
+    private int nodesEvaluated;
+    private CompactSolution partialSolution; // best effort of a budgeted solve that stopped early
+    private SolveStatus solveStatus;
+    private final MoveJournal journal = new MoveJournal();
+    private Long mazeSeed; // generator seed, known only for chunked mazes
+    private long gameStartMillis;
+    private String mazeHash; // content hash, the key in the MazeStore; computed on first use, see contentHash()
+    private CompactSolution storedSolution; // solution as it came from the MazeStore, so solveMaze() can keep it
+    private volatile GameCheckpointer checkpointer; // autosave, off unless enabled; read on exit by closeCheckpoints()
+    private CompletableFuture<MazeAnalysis> analysis; // analysis of the current maze, null until started
+    private volatile boolean backgroundAnalysis = true; // analyse each generated or loaded maze right away
+    private volatile boolean sharedSolves; // set by the session manager while several sessions are open
 
     /**
      * Generates a new maze with the given dimensions using a generator.
@@ -27,78 +61,663 @@ public class MyModel implements IModel {
     @Override
     public void generateMaze(int rows, int cols) {
         // You can replace MyMazeGenerator with a different generator from your JAR if needed
+        long start = System.nanoTime();
         algorithms.mazeGenerators.MyMazeGenerator generator = new algorithms.mazeGenerators.MyMazeGenerator();
-        maze = generator.generate(rows, cols);
-        characterPosition = new MazeState(maze.getStartPosition());
+        setMaze(generator.generate(rows, cols));
+        checkpointNewGame();
+        GameMetrics.record(Operation.GENERATE, start);
+        GameEventLog.generated(rows, cols, System.nanoTime() - start);
+        startBackgroundAnalysis();
+    }
+
+    /**
+     * Generates a maze straight into a memory-mapped chunked file, for grids
+     * too large to keep on the heap. Only the chunks being used stay mapped.
+     *
+     * @param rows number of maze rows
+     * @param cols number of maze columns
+     * @param backingFile file that stores the chunked grid
+     * @throws IOException if the backing file cannot be written
+     */
+    @Override
+    public void generateLargeMaze(int rows, int cols, File backingFile) throws IOException {
+        long start = System.nanoTime();
+        long seed = ThreadLocalRandom.current().nextLong();
+        StreamingMazeGenerator generator = new StreamingMazeGenerator(seed);
+        setMappedGrid(generator.generate(backingFile.toPath(), rows, cols));
+        mazeSeed = seed;
+        checkpointNewGame();
+        GameMetrics.record(Operation.GENERATE, start);
+        GameEventLog.generated(rows, cols, System.nanoTime() - start);
+    }
+
+    // Replace the current maze with an in-memory one; huge mazes are moved off the heap
+    private void setMaze(Maze newMaze) {
+        closeGrids();
+        int[][] cells = newMaze.getMaze();
+        if ((long) cells.length * (cells.length > 0 ? cells[0].length : 0) >= OFF_HEAP_CELLS) {
+            maze = null;
+            offHeapGrid = OffHeapMazeGrid.copyOf(newMaze);
+            grid = offHeapGrid;
+        } else {
+            maze = newMaze;
+            grid = new ArrayMazeGrid(cells);
+        }
+        dropAnalysis();
+        mazeSeed = null;
+        characterPosition = new MazeState(newMaze.getStartPosition());
+        mazeHash = null;
+        storedSolution = null;
         solution = null; // reset previous solution
+        partialSolution = null;
+        solveStatus = null;
+        nodesEvaluated = 0;
+        resetGameStats();
+    }
+
+    // Replace the current maze with a chunked one
+    private void setMappedGrid(MappedMazeGrid newGrid) {
+        closeGrids();
+        maze = null;
+        mazeSeed = null;
+        mappedGrid = newGrid;
+        grid = newGrid;
+        dropAnalysis();
+        characterPosition = new MazeState(newGrid.getStartPosition());
+        mazeHash = null;
+        storedSolution = null;
+        solution = null;
+        partialSolution = null;
+        solveStatus = null;
+        nodesEvaluated = 0;
+        resetGameStats();
+    }
+
+    /**
+     * Drops the current maze and frees its off-heap or mapped storage right away,
+     * rather than when the next maze replaces it. The model is empty afterwards.
+     */
+    @Override
+    public void releaseMaze() {
+        closeGrids();
+        dropAnalysis();
+        maze = null;
+        grid = null;
+        mazeSeed = null;
+        characterPosition = null;
+        mazeHash = null;
+        storedSolution = null;
+        solution = null;
+        partialSolution = null;
+        solveStatus = null;
+        nodesEvaluated = 0;
+        journal.clear();
+    }
+
+    // Starts analysing a new maze so the result is ready when the game shows it
+    private void startBackgroundAnalysis() {
+        if (backgroundAnalysis) getMazeAnalysis();
+    }
+
+    // Forgets the analysis of the maze being replaced, stopping it if it has not started yet
+    private void dropAnalysis() {
+        if (analysis != null) {
+            analysis.cancel(false);
+            analysis = null;
+        }
+    }
+
+    private void resetGameStats() {
+        journal.clear();
+        gameStartMillis = System.currentTimeMillis();
+    }
+
+    // Releases the storage of the maze being replaced
+    private void closeGrids() {
+        if (offHeapGrid != null) {
+            offHeapGrid.close();
+            offHeapGrid = null;
+        }
+        if (mappedGrid == null) return;
+        try {
+            mappedGrid.close();
+        } catch (IOException ignored) {
+            // the grid is being replaced anyway
+        }
+        mappedGrid = null;
+    }
+
+    // The maze as the JAR's Maze; off-heap mazes are copied back to the heap for the caller
+    private Maze inMemoryMaze() {
+        if (maze != null) return maze;
+        return offHeapGrid != null ? offHeapGrid.toMaze() : null;
+    }
+
+    // Maze.toByteArray() of the current maze, or null for chunked mazes
+    private byte[] mazeBytes() {
+        if (maze != null) return maze.toByteArray();
+        return offHeapGrid != null ? offHeapGrid.toByteArray() : null;
+    }
+
+    // Hash of the current in-memory maze, computed once per maze; null for chunked mazes
+    private String contentHash() {
+        if (mazeHash == null) {
+            byte[] bytes = mazeBytes();
+            if (bytes != null) mazeHash = MazeStore.hash(bytes);
+        }
+        return mazeHash;
     }
 
     /**
      * Solves the current maze using a search algorithm (BestFirstSearch by default).
-     * Stores the resulting solution path.
+     * The path is converted to a {@link CompactSolution} and validated against the grid;
+     * the solver's states (and the search graph behind their back-pointers) are dropped.
+     * Chunked mazes are solved with {@link SolverAlgorithm#PARALLEL_BREADTH_FIRST}, which
+     * takes grids of up to 2^31 - 1 cells.
      */
     @Override
     public void solveMaze() {
-        if (maze == null) return;
-        ISearchable searchableMaze = new SearchableMaze(maze);
-        ISearchingAlgorithm algorithm = new BestFirstSearch(); // or use BFS / DFS
-        solution = algorithm.solve(searchableMaze);
+        if (solution != null && solution == storedSolution) {
+            return; // cached solution from the maze store
+        }
+        solveMaze(mappedGrid != null ? SolverAlgorithm.PARALLEL_BREADTH_FIRST : SolverAlgorithm.BEST_FIRST, null);
+        if (solution != null && mazeHash != null) {
+            MazeStore store = MazeStore.getDefault();
+            if (store != null) {
+                try {
+                    store.putSolution(mazeHash, solution);
+                } catch (IOException e) {
+                    LOG.warn("Could not cache the solution in the maze store: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves the current maze with the given algorithm. If an event stream is
+     * given, every expanded cell is reported to it while the search runs, and
+     * the stream is finished when the search ends.
+     *
+     * @param algorithm search algorithm to use
+     * @param events stream for expansion events, or null
+     */
+    @Override
+    public void solveMaze(SolverAlgorithm algorithm, SearchEventStream events) {
+        if (algorithm.isGridSolver()) {
+            solveOnGrid(events);
+            return;
+        }
+        Maze solving = inMemoryMaze();
+        if (solving == null) {
+            if (events != null) events.finish();
+            return;
+        }
+        long start = System.nanoTime();
+        if (events == null && sharedSolves) {
+            // Sessions playing the same maze share one search instead of each running their own
+            String key = contentHash() + "/" + algorithm;
+            SharedSolve result = SOLVES.run(key, () -> search(solving, algorithm, null));
+            nodesEvaluated = result.nodesEvaluated;
+            solution = result.solution;
+        } else {
+            SharedSolve result = search(solving, algorithm, events);
+            nodesEvaluated = result.nodesEvaluated;
+            solution = result.solution;
+        }
+        finishSolve();
+        GameMetrics.record(Operation.SOLVE, start);
+        GameEventLog.solved(solution != null ? solution.size() : 0, System.nanoTime() - start);
+    }
+
+    /**
+     * Lets identical solves share one search with other models' (see {@link SingleFlight}).
+     * Sharing keys each maze by its hash, computed once per maze; a model used on its
+     * own leaves it off and never pays for the hash.
+     */
+    @Override
+    public void setSharedSolves(boolean shared) {
+        sharedSolves = shared;
+    }
+
+    /**
+     * Turns off analysing each generated or loaded maze in the background, for callers
+     * that time the model and do not want the analysis competing with them. Turned
+     * off, a maze is analysed by the first {@link #getMazeAnalysis()} call.
+     */
+    @Override
+    public void setBackgroundAnalysis(boolean enabled) {
+        backgroundAnalysis = enabled;
+    }
+
+    private SharedSolve search(Maze target, SolverAlgorithm algorithm, SearchEventStream events) {
+        ISearchable searchableMaze = new SearchableMaze(target);
+        if (events != null) {
+            searchableMaze = new ObservedSearchable(searchableMaze, events);
+        }
+        ISearchingAlgorithm searcher = algorithm.create();
+        Solution rawSolution;
+        try {
+            rawSolution = searcher.solve(searchableMaze);
+        } finally {
+            if (events != null) events.finish();
+        }
+        return new SharedSolve(compact(rawSolution), searcher.getNumberOfNodesEvaluated());
+    }
+
+    // Result of one search, handed to every session that asked for it while it ran
+    private static final class SharedSolve {
+        private final CompactSolution solution;
+        private final int nodesEvaluated;
+
+        private SharedSolve(CompactSolution solution, int nodesEvaluated) {
+            this.solution = solution;
+            this.nodesEvaluated = nodesEvaluated;
+        }
+    }
+
+    // Parallel BFS straight on the grid; also works for chunked mazes
+    private void solveOnGrid(SearchEventStream events) {
+        if (grid == null) {
+            if (events != null) events.finish();
+            return;
+        }
+        long start = System.nanoTime();
+        ParallelBreadthFirstSearch searcher = new ParallelBreadthFirstSearch();
+        CompactSolution found;
+        try {
+            found = searcher.solve(grid, getStartPosition(), getGoalPosition(), events);
+        } finally {
+            if (events != null) events.finish();
+        }
+        nodesEvaluated = searcher.getNodesEvaluated();
+        if (found != null && !found.validate(grid, getStartPosition(), getGoalPosition())) {
+            LOG.error("Parallel solver returned a path that is not a valid solution - discarding it");
+            found = null;
+        }
+        solution = found;
+        finishSolve();
+        LOG.debug("Parallel BFS: {} top-down and {} bottom-up levels, {} ms copying the grid, {} ms searching",
+                searcher.getTopDownLevels(), searcher.getBottomUpLevels(),
+                searcher.getPrepareNanos() / 1_000_000, searcher.getSearchNanos() / 1_000_000);
+        GameMetrics.record(Operation.SOLVE, start);
+        GameEventLog.solved(solution != null ? solution.size() : 0, System.nanoTime() - start);
+    }
+
+    // Status of an unbudgeted solve; the solution is checkpointed
+    private void finishSolve() {
+        partialSolution = null;
+        solveStatus = solution != null ? SolveStatus.SOLVED : SolveStatus.NO_SOLUTION;
+        checkpointSolution();
+    }
+
+    /**
+     * Solves the current maze within a budget. If a limit is reached first, or the
+     * goal cannot be reached, there is no solution afterwards; instead the path to
+     * the explored cell closest to the goal is kept as {@link #getPartialSolution()}.
+     * The JAR's algorithms need an in-memory maze; the parallel solver works on any grid.
+     *
+     * @param algorithm search algorithm to use
+     * @param budget limits of the search
+     * @return how the solve ended, or null if there is no maze to solve
+     */
+    @Override
+    public SolveStatus solveMazeWithin(SolverAlgorithm algorithm, SolveBudget budget) {
+        Maze solving = algorithm.isGridSolver() ? null : inMemoryMaze();
+        if (algorithm.isGridSolver() ? grid == null : solving == null) return null;
+        long start = System.nanoTime();
+        SolveResult result;
+        try {
+            result = algorithm.isGridSolver()
+                    ? solveOnGrid(budget)
+                    : BudgetedSearch.solve(algorithm.create(), new SearchableMaze(solving), budget);
+        } catch (IllegalArgumentException e) {
+            LOG.error("Solver returned a malformed path - discarding it", e);
+            result = new SolveResult(null, SolveStatus.NO_SOLUTION, 0);
+        }
+
+        CompactSolution path = result.getPath();
+        Position end = result.isComplete() ? getGoalPosition() : path != null ? path.getEndPosition() : null;
+        if (path != null && !path.validate(grid, getStartPosition(), end)) {
+            LOG.error("Solver returned a path that is not valid on this maze - discarding it");
+            path = null;
+        }
+        solution = result.isComplete() ? path : null;
+        partialSolution = result.isComplete() ? null : path;
+        solveStatus = result.isComplete() && path == null ? SolveStatus.NO_SOLUTION : result.getStatus();
+        nodesEvaluated = (int) Math.min(Integer.MAX_VALUE, result.getNodesEvaluated());
+        checkpointSolution();
+        if (solveStatus.isBudgetExceeded()) {
+            LOG.info("Solve stopped by its budget ({}) after {} expansions; best effort is {} cells long",
+                    solveStatus, nodesEvaluated, partialSolution != null ? partialSolution.size() : 0);
+        }
+        GameMetrics.record(Operation.SOLVE, start);
+        GameEventLog.solved(solution != null ? solution.size() : 0, System.nanoTime() - start);
+        return solveStatus;
+    }
+
+    private SolveResult solveOnGrid(SolveBudget budget) {
+        ParallelBreadthFirstSearch searcher = new ParallelBreadthFirstSearch();
+        searcher.setBudget(budget);
+        try {
+            CompactSolution found = searcher.solve(grid, getStartPosition(), getGoalPosition(), null);
+            return new SolveResult(found, found != null ? SolveStatus.SOLVED : SolveStatus.NO_SOLUTION,
+                    searcher.getNodesEvaluated());
+        } catch (BudgetExceededException e) {
+            return new SolveResult(searcher.getPartialSolution(), e.getStatus(), searcher.getNodesEvaluated());
+        }
+    }
+
+    // Convert and validate a solver result; an invalid path is logged and discarded
+    private CompactSolution compact(Solution rawSolution) {
+        if (rawSolution == null) return null;
+        try {
+            CompactSolution compact = CompactSolution.fromPath(rawSolution.getSolutionPath());
+            if (compact != null && !compact.validate(grid, getStartPosition(), getGoalPosition())) {
+                LOG.error("Solver returned a path that is not a valid solution - discarding it");
+                return null;
+            }
+            return compact;
+        } catch (IllegalArgumentException e) {
+            LOG.error("Solver returned a malformed path - discarding it", e);
+            return null;
+        }
     }
 
     /**
      * Attempts to move the character one step in the given direction.
-     * Updates the character's position if the move is valid (within maze bounds and not a wall).
+     * Updates the character's position if the move is valid (within maze bounds and not a wall;
+     * diagonal moves also need a clear L-shaped path). Accepted moves are recorded in the journal.
      *
-     * @param direction "UP", "DOWN", "LEFT", or "RIGHT"
+     * @param direction "UP", "DOWN", "LEFT", "RIGHT" or a diagonal such as "UP-LEFT"
      */
     @Override
     public void moveCharacter(String direction) {
-        if (maze == null || characterPosition == null) return;
+        if (grid == null || characterPosition == null) return;
+        MoveDirection move = MoveDirection.fromLabel(direction);
+        if (move == null) return;
+        long start = System.nanoTime();
 
         int row = characterPosition.getPosition().getRowIndex();
         int col = characterPosition.getPosition().getColumnIndex();
+        int newRow = row + move.getRowDelta();
+        int newCol = col + move.getColDelta();
 
-        int newRow = row;
-        int newCol = col;
+        // Move if the target cell is valid
+        boolean accepted = move.canMove(grid, row, col);
+        if (accepted) {
+            characterPosition = new MazeState(new Position(newRow, newCol));
+            journal.append(move);
+            if (checkpointer != null) {
+                checkpointer.moved(move, newRow, newCol);
+            }
+        }
+        GameMetrics.record(Operation.MOVE, start);
+        GameEventLog.moved(move.getLabel(), accepted ? newRow : row, accepted ? newCol : col, accepted);
 
-        // Update position based on direction
-        switch (direction.toUpperCase()) {
-            case "UP": newRow--; break;
-            case "DOWN": newRow++; break;
-            case "LEFT": newCol--; break;
-            case "RIGHT": newCol++; break;
+        Position goal = getGoalPosition();
+        if (accepted && goal != null && newRow == goal.getRowIndex() && newCol == goal.getColumnIndex()) {
+            long elapsed = System.currentTimeMillis() - gameStartMillis;
+            GameEventLog.won(journal.size(), elapsed);
+            MazeStore store = MazeStore.getDefault();
+            if (mazeHash != null && store != null) {
+                try {
+                    store.recordTime(mazeHash, elapsed);
+                } catch (IOException e) {
+                    LOG.warn("Could not record the best time: {}", e.getMessage());
+                }
+            }
         }
+    }
 
-        // Move if the target cell is valid
-        if (isValidMove(newRow, newCol)) {
-            characterPosition = new MazeState(new Position(newRow, newCol));
+    /**
+     * Saves the current session (maze and every accepted move) for later replay.
+     *
+     * @param file target file
+     * @throws IOException if saving fails
+     */
+    @Override
+    public void saveReplay(File file) throws IOException {
+        if (grid == null) throw new IllegalStateException("No maze to record");
+        SessionRecording recording;
+        byte[] bytes = mazeBytes();
+        if (bytes != null) {
+            recording = new SessionRecording(bytes, grid.getRows(), grid.getColumns(),
+                    getStartPosition(), journal);
+        } else if (mazeSeed != null) {
+            recording = new SessionRecording(mazeSeed, grid.getRows(), grid.getColumns(),
+                    mappedGrid.getStartPosition(), journal);
+        } else {
+            throw new IOException("This maze was loaded from a file and cannot be recorded");
+        }
+        recording.save(file);
+    }
+
+    /**
+     * Loads a recorded session: the recorded maze becomes the current maze, with the
+     * character at its start, and the returned player replays the moves on it.
+     * Seeded (chunked) mazes are regenerated into a temporary file.
+     *
+     * @param file recording written by {@link #saveReplay}
+     * @return a player positioned before the first move
+     * @throws IOException if the recording cannot be read
+     */
+    @Override
+    public ReplayPlayer loadReplay(File file) throws IOException {
+        SessionRecording recording = SessionRecording.load(file);
+        setRecordedMaze(recording);
+        checkpointNewGame();
+        return new ReplayPlayer(grid, recording.getStart(), recording.getJournal());
+    }
+
+    /**
+     * Takes over where a replay of the current maze stopped: the character moves there
+     * and the moves played become this game's moves, so saving, autosave and further
+     * play carry on from the replay. A player of an earlier maze is ignored.
+     *
+     * @param player player returned by {@link #loadReplay} for the current maze
+     */
+    @Override
+    public void followReplay(ReplayPlayer player) {
+        if (grid == null || player.getGrid() != grid) return;
+        MoveJournal played = player.getPlayedMoves();
+        Position start = getStartPosition();
+        int row = start.getRowIndex();
+        int col = start.getColumnIndex();
+        journal.clear();
+        for (int i = 0; i < played.size(); i++) {
+            MoveDirection move = played.get(i);
+            row += move.getRowDelta();
+            col += move.getColDelta();
+            journal.append(move);
+            if (checkpointer != null) {
+                checkpointer.moved(move, row, col);
+            }
+        }
+        characterPosition = new MazeState(new Position(row, col));
+    }
+
+    // Make the maze of a recording current; seeded mazes are regenerated into a temporary file
+    private void setRecordedMaze(SessionRecording recording) throws IOException {
+        if (recording.isSeeded()) {
+            File backingFile = File.createTempFile("replay-maze", ".chunks");
+            backingFile.deleteOnExit();
+            StreamingMazeGenerator generator = new StreamingMazeGenerator(recording.getSeed());
+            setMappedGrid(generator.generate(backingFile.toPath(), recording.getRows(), recording.getColumns()));
+            mazeSeed = recording.getSeed();
+        } else {
+            setMaze(new Maze(recording.getMazeBytes()));
         }
     }
 
     /**
-     * Checks if a given row and column represent a valid move (in bounds and not a wall).
+     * Autosaves the game from now on: each new maze is written once to the
+     * directory and every accepted move is appended to a journal in the background
+     * (see {@link GameCheckpointer}). An existing checkpoint there is left alone
+     * until the next maze is generated or loaded, so it can still be resumed.
+     *
+     * @param directory checkpoint directory
+     * @throws IOException if the directory cannot be created
      */
-    private boolean isValidMove(int row, int col) {
-        return row >= 0 && row < maze.getMaze().length &&
-                col >= 0 && col < maze.getMaze()[0].length &&
-                maze.getMaze()[row][col] == 0;
+    @Override
+    public void enableCheckpoints(File directory) throws IOException {
+        disableCheckpoints();
+        checkpointer = new GameCheckpointer(directory.toPath());
+        if (grid != null) {
+            checkpointNewGame();
+        }
+    }
+
+    /**
+     * Stops autosaving, after writing everything queued to disk.
+     */
+    @Override
+    public void disableCheckpoints() {
+        if (checkpointer == null) return;
+        checkpointer.close();
+        checkpointer = null;
+    }
+
+    /**
+     * Stops autosaving on exit, without waiting for the model's own thread or the disk:
+     * the checkpointer's writer flushes on its own thread. Moves made afterwards are
+     * not saved. Unlike the other methods, this one may be called from any thread.
+     *
+     * @return future completed once the checkpoint is on disk
+     */
+    @Override
+    public CompletableFuture<Void> closeCheckpoints() {
+        GameCheckpointer closing = checkpointer;
+        return closing != null ? closing.closeAsync() : CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Restores the game checkpointed in a directory: the maze, every move that
+     * reached the disk (so the character is where it was) and the last solution.
+     *
+     * @param directory checkpoint directory
+     * @return false if the directory holds no checkpoint
+     * @throws IOException if the checkpoint cannot be read
+     */
+    @Override
+    public boolean resumeFromCheckpoint(File directory) throws IOException {
+        long start = System.nanoTime();
+        GameCheckpointer.Checkpoint checkpoint = GameCheckpointer.recover(directory.toPath());
+        if (checkpoint == null) return false;
+        SessionRecording recording = checkpoint.getRecording();
+        setRecordedMaze(recording);
+
+        ReplayPlayer player = new ReplayPlayer(grid, recording.getStart(), recording.getJournal());
+        player.replayAll();
+        MoveJournal moves = recording.getJournal();
+        for (int i = 0; i < moves.size(); i++) {
+            journal.append(moves.get(i));
+        }
+        int row = player.getRow();
+        int col = player.getCol();
+        int[] recorded = checkpoint.getPosition();
+        if (player.getRejectedMoves() > 0 || (recorded != null && (recorded[0] != row || recorded[1] != col))) {
+            LOG.warn("Checkpointed moves do not replay cleanly ({} rejected); the character may be misplaced",
+                    player.getRejectedMoves());
+        }
+        characterPosition = new MazeState(new Position(row, col));
+
+        CompactSolution saved = checkpoint.getSolution();
+        if (saved != null && saved.validate(grid, getStartPosition(), getGoalPosition())) {
+            solution = saved;
+        }
+        restoreFromStore();
+        checkpointNewGame();
+        LOG.info("Resumed a {}x{} game after {} moves in {} ms", recording.getRows(), recording.getColumns(),
+                journal.size(), (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    // Writes the current maze, moves and solution as the start of a new checkpointed game
+    private void checkpointNewGame() {
+        if (checkpointer == null) return;
+        Position start = getStartPosition();
+        byte[] bytes = mazeBytes();
+        if (bytes != null) {
+            checkpointer.startGame(new SessionRecording(bytes, grid.getRows(), grid.getColumns(),
+                    start, journal.copy()), solution);
+        } else if (mazeSeed != null) {
+            checkpointer.startGame(new SessionRecording(mazeSeed, grid.getRows(), grid.getColumns(),
+                    start, journal.copy()), solution);
+        } else {
+            // A chunked maze loaded from a file has no seed to rebuild it from
+            LOG.info("This maze cannot be checkpointed; autosave is paused until the next maze");
+            checkpointer.clear();
+        }
+    }
+
+    private void checkpointSolution() {
+        if (checkpointer != null && solution != null) {
+            checkpointer.solved(solution);
+        }
     }
 
     /**
      * Saves the current maze to a file using Java object serialization.
+     * Chunked mazes are saved as a copy of their backing file.
+     * In-memory mazes are also added to the {@link MazeStore}, once per distinct
+     * grid, together with the solution if there is one. The file itself is always
+     * self-contained; see {@link #saveMazeReference} for a reference to the store.
      *
      * @param file target file to save to
      * @throws IOException if saving fails
      */
     @Override
     public void saveMaze(File file) throws IOException {
-        try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
-            out.writeObject(maze);
+        long start = System.nanoTime();
+        if (mappedGrid != null) {
+            mappedGrid.force();
+            Files.copy(mappedGrid.getPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+                out.writeObject(inMemoryMaze());
+            }
+            addToStore(MazeStore.getDefault());
         }
+        GameMetrics.record(Operation.SAVE, start);
+        GameEventLog.file("save", file.getPath());
+    }
+
+    /**
+     * Saves the current maze as a small reference to its {@link MazeStore} entry,
+     * adding it to the store first. The file only loads where that store is, with
+     * the maze still in it.
+     *
+     * @param file target file to save to
+     * @throws IOException if the store is not available, the maze is chunked, or saving fails
+     */
+    @Override
+    public void saveMazeReference(File file) throws IOException {
+        long start = System.nanoTime();
+        if (mappedGrid != null) {
+            throw new IOException("Chunked mazes are not kept in the maze store");
+        }
+        if (contentHash() == null) {
+            throw new IOException("There is no maze to save");
+        }
+        MazeStore store = MazeStore.getDefault();
+        if (store == null) {
+            throw new IOException("The maze store is not available");
+        }
+        addToStore(store);
+        if (!store.contains(mazeHash)) {
+            throw new IOException("The maze could not be added to the maze store at " + store.getRoot());
+        }
+        MazeStore.writeReference(file.toPath(), mazeHash);
+        GameMetrics.record(Operation.SAVE, start);
+        GameEventLog.file("save", file.getPath());
     }
 
     /**
      * Loads a maze from a file and resets the character's position and solution.
+     * Chunked maze files are mapped read-only instead of being read into memory.
+     * Reference files are resolved in the {@link MazeStore}; for other files a
+     * maze seen before gets its cached solution from the store. Loading never adds
+     * to the store.
      *
      * @param file file to load maze from
      * @throws IOException if loading fails
@@ -106,21 +725,144 @@ public class MyModel implements IModel {
      */
     @Override
     public void loadMaze(File file) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
-            maze = (Maze) in.readObject();
-            characterPosition = new MazeState(maze.getStartPosition());
-            solution = null;
+        long start = System.nanoTime();
+        String reference;
+        if (MappedMazeGrid.isMappedMazeFile(file.toPath())) {
+            setMappedGrid(MappedMazeGrid.open(file.toPath(), false));
+        } else if ((reference = MazeStore.readReference(file.toPath())) != null) {
+            loadFromStore(reference);
+        } else {
+            try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+                setMaze((Maze) in.readObject());
+            }
+            restoreFromStore();
+        }
+        checkpointNewGame();
+        GameMetrics.record(Operation.LOAD, start);
+        GameEventLog.file("load", file.getPath());
+        startBackgroundAnalysis();
+    }
+
+    // Adds the current in-memory maze (and its solution) to the store; the cells are written only if new
+    private void addToStore(MazeStore store) {
+        if (store == null || contentHash() == null) return;
+        try {
+            if (!store.contains(mazeHash)) {
+                store.put(mazeBytes(), grid.getRows(), grid.getColumns(), mazeSeed);
+            }
+            if (solution != null && solution != storedSolution) {
+                store.putSolution(mazeHash, solution);
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not add the maze to the maze store: {}", e.getMessage());
+        }
+    }
+
+    // Loads the maze a reference file names, with its cached solution, in one store lookup
+    private void loadFromStore(String hash) throws IOException {
+        MazeStore store = MazeStore.getDefault();
+        if (store == null) {
+            throw new IOException("This file refers to the maze store, which is not available");
+        }
+        MazeStore.Entry entry = store.get(hash);
+        if (entry == null) {
+            throw new IOException("Maze " + hash.substring(0, 12) + " is not in the maze store at " + store.getRoot());
         }
+        setMaze(new Maze(entry.getMazeBytes()));
+        mazeHash = hash;
+        applyStored(entry);
+    }
+
+    // Looks up the solution and metadata of the current maze; its cells are not read back
+    private void restoreFromStore() {
+        MazeStore store = MazeStore.getDefault();
+        if (store == null || contentHash() == null) return;
+        try {
+            MazeStore.Entry entry = store.get(mazeHash, false);
+            if (entry != null) {
+                applyStored(entry);
+            }
+        } catch (IOException e) {
+            LOG.warn("Maze store lookup failed: {}", e.getMessage());
+        }
+    }
+
+    private void applyStored(MazeStore.Entry entry) {
+        CompactSolution cached = entry.getSolution();
+        if (cached != null && cached.validate(grid, getStartPosition(), getGoalPosition())) {
+            solution = cached;
+            storedSolution = cached;
+        }
+        LOG.info("Maze {} found in the store (cached solution: {}, best time: {} ms)",
+                entry.getHash().substring(0, 12), storedSolution != null, entry.getBestMillis());
     }
 
     /**
      * Returns the maze as a 2D array of integers (0 = free, 1 = wall).
+     * Returns null for chunked and off-heap mazes - use {@link #getMazeGrid} or
+     * {@link #getMazeRegion} instead.
      */
     @Override
     public int[][] getMaze() {
         return maze != null ? maze.getMaze() : null;
     }
 
+    /**
+     * Returns read access to the maze, wherever its cells are stored. Chunked mazes
+     * are too large to read whole; read the part in use with {@link IMazeGrid#getRegion}.
+     * Off-heap and chunked grids are closed, and can no longer be read, once the maze
+     * is replaced - readers on other threads pin them with {@link IMazeGrid#acquire()}.
+     */
+    @Override
+    public IMazeGrid getMazeGrid() {
+        return grid;
+    }
+
+    /**
+     * Returns the analysis of the current maze. It runs in the background, started
+     * when the maze is generated or loaded, or by the first call for each maze if
+     * background analysis is off.
+     * If the maze has been solved, the analysis includes the solution length.
+     * Completes with null for chunked and off-heap mazes, which are not analysed
+     * (the analysis needs 8 bytes per cell on the heap), and when there is no maze.
+     */
+    @Override
+    public CompletableFuture<MazeAnalysis> getMazeAnalysis() {
+        if (maze == null) return CompletableFuture.completedFuture(null);
+        if (analysis == null) {
+            IMazeGrid cells = grid;
+            Position start = maze.getStartPosition();
+            Position goal = maze.getGoalPosition();
+            analysis = CompletableFuture.supplyAsync(() -> ANALYZER.analyze(cells, start, goal));
+            analysis.thenAccept(result -> LOG.debug("Analysed maze in {} us: {}",
+                    result.getAnalysisNanos() / 1000, result));
+        }
+        CompactSolution current = solution;
+        return analysis.thenApply(result ->
+                current != null ? result.withSolutionLength(current.size() - 1) : result);
+    }
+
+    /**
+     * Returns a rectangular part of the maze, clipped to its bounds.
+     * For chunked mazes only the chunks covering the region are paged in.
+     */
+    @Override
+    public int[][] getMazeRegion(int fromRow, int fromCol, int rows, int cols) {
+        if (grid == null) return null;
+        if (mappedGrid != null) {
+            mappedGrid.pageIn(fromRow, fromCol, rows, cols);
+        }
+        return grid.getRegion(fromRow, fromCol, rows, cols);
+    }
+
+    /**
+     * Returns the dimensions of the current maze as [rows, cols], or null if there is none.
+     */
+    @Override
+    public int[] getMazeSize() {
+        return grid != null ? new int[]{grid.getRows(), grid.getColumns()} : null;
+    }
+
     /**
      * Returns the character's current row and column in the maze.
      */
@@ -135,13 +877,83 @@ public class MyModel implements IModel {
 
     /**
      * Returns the solution path as a list of AStates, or null if not solved.
+     * The states are rebuilt from the compact path on each call and have no back-pointers.
      */
     @Override
     public List<AState> getSolution() {
-        return solution != null ? solution.getSolutionPath() : null;
+        return solution != null ? solution.toStates() : null;
     }
+
+    /**
+     * Returns the validated solution in compact form, or null if not solved.
+     */
+    @Override
+    public CompactSolution getCompactSolution() {
+        return solution;
+    }
+    /**
+     * Returns the best-effort path of a budgeted solve that stopped before the goal, or null.
+     */
+    @Override
+    public CompactSolution getPartialSolution() {
+        return partialSolution;
+    }
+
+    /**
+     * Returns how the last solve ended; a solution restored from a checkpoint or
+     * the maze store counts as solved. Null if the maze has not been solved.
+     */
+    @Override
+    public SolveStatus getSolveStatus() {
+        return solution != null ? SolveStatus.SOLVED : solveStatus;
+    }
+
+    /**
+     * Estimates the memory held by this model: the maze grid (mapped bytes for
+     * chunked mazes, native bytes for off-heap ones), the compact solution and the move journal.
+     */
+    @Override
+    public long estimateMemoryBytes() {
+        long bytes = journal.estimateBytes();
+        if (maze != null) {
+            int[][] cells = maze.getMaze();
+            // int[][] = outer array + one array header and 4 bytes per cell for each row
+            bytes += 16L + cells.length * (8L + 16L + (cells.length > 0 ? cells[0].length * 4L : 0));
+        }
+        if (mappedGrid != null) {
+            bytes += mappedGrid.getResidentBytes();
+        }
+        if (offHeapGrid != null) {
+            bytes += offHeapGrid.getByteSize();
+        }
+        if (solution != null) {
+            bytes += 32L + solution.size();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns how many nodes the last solve expanded (0 if not solved).
+     */
+    @Override
+    public int getNumberOfNodesEvaluated() {
+        return nodesEvaluated;
+    }
+
+    /**
+     * Returns the start position of the current maze, or null if there is none.
+     */
+    @Override
+    public Position getStartPosition() {
+        if (mappedGrid != null) return mappedGrid.getStartPosition();
+        if (offHeapGrid != null) return offHeapGrid.getStartPosition();
+        return maze != null ? maze.getStartPosition() : null;
+    }
+
     @Override
     public Position getGoalPosition() {
+        if (mappedGrid != null) return mappedGrid.getGoalPosition();
+        if (offHeapGrid != null) return offHeapGrid.getGoalPosition();
         return maze != null ? maze.getGoalPosition() : null;
     }
 }
\ No newline at end of file
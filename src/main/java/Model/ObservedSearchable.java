@@ -0,0 +1,43 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+import algorithms.search.AState;
+import algorithms.search.ISearchable;
+import algorithms.search.MazeState;
+
+import java.util.ArrayList;
+
+/**
+ * Decorates a maze searchable problem to report every expanded state to a
+ * {@link SearchEventStream}. The JAR's algorithms ask for the successors of a
+ * state exactly when they expand it, so that call is the expansion event.
+ */
+public class ObservedSearchable implements ISearchable {
+
+    private final ISearchable searchable;
+    private final SearchEventStream events;
+
+    public ObservedSearchable(ISearchable searchable, SearchEventStream events) {
+        this.searchable = searchable;
+        this.events = events;
+    }
+
+    @Override
+    public AState getStartState() {
+        return searchable.getStartState();
+    }
+
+    @Override
+    public AState getGoalState() {
+        return searchable.getGoalState();
+    }
+
+    @Override
+    public ArrayList<AState> getAllPossibleStates(AState state) {
+        if (state instanceof MazeState) {
+            Position position = ((MazeState) state).getPosition();
+            events.expanded(position.getRowIndex(), position.getColumnIndex());
+        }
+        return searchable.getAllPossibleStates(state);
+    }
+}
@@ -0,0 +1,222 @@
+package Model;
+
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Maze grid stored outside the Java heap, in a {@link MemorySegment} owned by a
+ * shared {@link Arena}. The garbage collector never copies or scans the cells, so
+ * keeping several huge mazes alive does not make GC pauses longer - on the heap
+ * there is only this small object.
+ *
+ * Cells are one byte each, row-major, with the encoding of {@code Maze.getMaze()}
+ * (0 = free, 1 = wall). That is also the cell part of {@code Maze.toByteArray()},
+ * so the grid converts to and from the JAR's byte format with bulk copies.
+ *
+ * The memory is released by {@link #close()}, not by the GC: the owner closes the
+ * grid when it replaces the maze. Reading a closed grid throws
+ * {@link IllegalStateException}. Until then any thread may read it, e.g. the
+ * workers of the parallel solver. Readers that do not know when the owner closes
+ * the grid (the view) pin it with {@link #acquire()}; closing then only frees the
+ * memory when the last of them calls {@link #release()}.
+ */
+public final class OffHeapMazeGrid implements IMazeGrid, AutoCloseable {
+
+    // Maze.toByteArray(): rows, columns, start row/column and goal row/column as 2-byte values, then the cells
+    private static final int MAZE_HEADER_BYTES = 12;
+
+    private final Arena arena;
+    private final MemorySegment cells;
+    private final int rows;
+    private final int cols;
+    private final Position startPosition;
+    private final Position goalPosition;
+    private int readers; // pinned by acquire(), guarded by this
+    private boolean closing;
+
+    private OffHeapMazeGrid(int rows, int cols, Position startPosition, Position goalPosition) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Maze dimensions must be positive");
+        }
+        this.arena = Arena.ofShared();
+        this.cells = arena.allocate((long) rows * cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.startPosition = startPosition;
+        this.goalPosition = goalPosition;
+    }
+
+    /**
+     * Copies an in-memory maze off the heap. Afterwards the maze itself can be dropped.
+     *
+     * @param maze the maze to copy
+     * @return a new grid; the caller must close it
+     */
+    public static OffHeapMazeGrid copyOf(Maze maze) {
+        int[][] matrix = maze.getMaze();
+        OffHeapMazeGrid grid = new OffHeapMazeGrid(matrix.length, matrix.length > 0 ? matrix[0].length : 0,
+                maze.getStartPosition(), maze.getGoalPosition());
+        // One row at a time, so the copy needs no second full-size buffer on the heap
+        byte[] row = new byte[grid.cols];
+        for (int r = 0; r < grid.rows; r++) {
+            for (int c = 0; c < grid.cols; c++) {
+                row[c] = (byte) matrix[r][c];
+            }
+            MemorySegment.copy(row, 0, grid.cells, ValueLayout.JAVA_BYTE, (long) r * grid.cols, grid.cols);
+        }
+        return grid;
+    }
+
+    /**
+     * Copies any grid off the heap, a row at a time (e.g. a chunked grid small enough
+     * to be played without paging).
+     *
+     * @param grid the grid to copy
+     * @param start start position of the maze
+     * @param goal goal position of the maze
+     * @return a new grid; the caller must close it
+     */
+    public static OffHeapMazeGrid copyOf(IMazeGrid grid, Position start, Position goal) {
+        OffHeapMazeGrid copy = new OffHeapMazeGrid(grid.getRows(), grid.getColumns(), start, goal);
+        byte[] row = new byte[copy.cols];
+        for (int r = 0; r < copy.rows; r++) {
+            int[] cells = grid.getRegion(r, 0, 1, copy.cols)[0];
+            for (int c = 0; c < copy.cols; c++) {
+                row[c] = (byte) cells[c];
+            }
+            MemorySegment.copy(row, 0, copy.cells, ValueLayout.JAVA_BYTE, (long) r * copy.cols, copy.cols);
+        }
+        return copy;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return cols;
+    }
+
+    @Override
+    public int getCell(int row, int col) {
+        return cells.get(ValueLayout.JAVA_BYTE, (long) row * cols + col);
+    }
+
+    // Bulk-copies each row out of the segment instead of reading cell by cell
+    @Override
+    public int[][] getRegion(int fromRow, int fromCol, int rows, int cols) {
+        int startRow = Math.max(0, fromRow);
+        int startCol = Math.max(0, fromCol);
+        int endRow = Math.min(this.rows, fromRow + rows);
+        int endCol = Math.min(this.cols, fromCol + cols);
+        int width = Math.max(0, endCol - startCol);
+        int[][] region = new int[Math.max(0, endRow - startRow)][width];
+        byte[] row = new byte[width];
+        for (int r = startRow; r < endRow; r++) {
+            MemorySegment.copy(cells, ValueLayout.JAVA_BYTE, (long) r * this.cols + startCol, row, 0, width);
+            int[] target = region[r - startRow];
+            for (int c = 0; c < width; c++) {
+                target[c] = row[c];
+            }
+        }
+        return region;
+    }
+
+    /**
+     * @return the maze's start position
+     */
+    public Position getStartPosition() {
+        return startPosition;
+    }
+
+    /**
+     * @return the maze's goal position
+     */
+    public Position getGoalPosition() {
+        return goalPosition;
+    }
+
+    /**
+     * Returns a read-only view of the cells, one byte per cell in row-major order,
+     * for code that scans the whole grid. Valid until the grid is closed.
+     */
+    public MemorySegment getCells() {
+        return cells.asReadOnly();
+    }
+
+    /**
+     * @return native memory held by the cells, in bytes
+     */
+    public long getByteSize() {
+        return cells.byteSize();
+    }
+
+    /**
+     * @return false once the grid has been closed
+     */
+    public synchronized boolean isOpen() {
+        return !closing;
+    }
+
+    /**
+     * Encodes the maze like {@code Maze.toByteArray()}, so store hashes and recordings
+     * match those of the in-memory maze. Only this array is allocated on the heap.
+     */
+    public byte[] toByteArray() {
+        long length = MAZE_HEADER_BYTES + cells.byteSize();
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Maze too large to encode: " + rows + "x" + cols);
+        }
+        byte[] bytes = new byte[(int) length];
+        int[] header = {rows, cols, startPosition.getRowIndex(), startPosition.getColumnIndex(),
+                goalPosition.getRowIndex(), goalPosition.getColumnIndex()};
+        for (int i = 0; i < header.length; i++) {
+            bytes[2 * i] = (byte) (header[i] >>> 8);
+            bytes[2 * i + 1] = (byte) header[i];
+        }
+        MemorySegment.copy(cells, ValueLayout.JAVA_BYTE, 0, bytes, MAZE_HEADER_BYTES, (int) cells.byteSize());
+        return bytes;
+    }
+
+    /**
+     * Rebuilds an in-memory maze, for code that only accepts the JAR's {@code Maze}
+     * (its search algorithms, object serialization). The copy lives on the heap
+     * and should be dropped as soon as it is no longer needed.
+     */
+    public Maze toMaze() {
+        return new Maze(toByteArray());
+    }
+
+    @Override
+    public synchronized boolean acquire() {
+        if (closing) return false;
+        readers++;
+        return true;
+    }
+
+    @Override
+    public synchronized void release() {
+        if (--readers == 0 && closing) {
+            arena.close();
+        }
+    }
+
+    /**
+     * Frees the cells, or - while readers have the grid pinned - makes the last of
+     * them free the cells on {@link #release()}. New pins are refused from now on.
+     * Closing twice has no effect.
+     */
+    @Override
+    public synchronized void close() {
+        closing = true;
+        if (readers == 0 && arena.scope().isAlive()) {
+            arena.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package Model;
+
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link IMazeGrid} over a bit-packed buffer: one bit per cell, row-major,
+ * least significant bit first (1 = wall). This is the body of a maze frame
+ * in the binary protocol, so a received maze is used as-is, without being
+ * expanded into an {@code int[][]}. At 1/32 of the size of {@code Maze.getMaze()},
+ * it also suits mazes that are too big for the heap in any other form.
+ */
+public class PackedMazeGrid implements IMazeGrid {
+
+    private final int rows;
+    private final int cols;
+    private final Position start;
+    private final Position goal;
+    private final ByteBuffer cells;
+
+    /**
+     * @param cells packed cells, {@link #packedBytes(int, int)} long from index 0 (not copied)
+     * @param start start position
+     * @param goal goal position
+     */
+    public PackedMazeGrid(int rows, int cols, Position start, Position goal, ByteBuffer cells) {
+        if (cells.capacity() < packedBytes(rows, cols)) {
+            throw new IllegalArgumentException("Buffer too small for a " + rows + "x" + cols + " maze");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.start = start;
+        this.goal = goal;
+        this.cells = cells;
+    }
+
+    /**
+     * @return bytes needed to pack a grid of the given size
+     */
+    public static long packedBytes(int rows, int cols) {
+        return ((long) rows * cols + 7) / 8;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getColumns() {
+        return cols;
+    }
+
+    @Override
+    public int getCell(int row, int col) {
+        long index = (long) row * cols + col;
+        return (cells.get((int) (index >>> 3)) >>> (index & 7)) & 1;
+    }
+
+    public Position getStartPosition() {
+        return start;
+    }
+
+    public Position getGoalPosition() {
+        return goal;
+    }
+
+    /**
+     * @return the packed cells (shared, not copied)
+     */
+    public ByteBuffer getBuffer() {
+        return cells;
+    }
+
+    /**
+     * Expands the grid into a {@link Maze}, for the JAR's searchers and serialization.
+     */
+    public Maze toMaze() {
+        int[][] matrix = new int[rows][cols];
+        long index = 0;
+        for (int r = 0; r < rows; r++) {
+            int[] row = matrix[r];
+            for (int c = 0; c < cols; c++, index++) {
+                row[c] = (cells.get((int) (index >>> 3)) >>> (index & 7)) & 1;
+            }
+        }
+        return new Maze(matrix, start, goal);
+    }
+}
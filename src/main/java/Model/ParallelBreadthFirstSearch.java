@@ -0,0 +1,478 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Level-synchronous parallel breadth-first search over an {@link IMazeGrid},
+ * for mazes too big for the JAR's single-threaded searches.
+ *
+ * Each level's frontier is split across a fork-join pool. Cells are claimed
+ * through an atomic visited bitset, and each cell remembers the 3-bit
+ * {@link MoveDirection} code that reached it, so the path is rebuilt without
+ * any state objects. The search is direction-optimizing: while the frontier is
+ * small it expands frontier cells (top-down); once the frontier is large
+ * compared to the unvisited cells, every unvisited cell instead looks for a
+ * frontier neighbour (bottom-up), which touches each cell at most once.
+ *
+ * Moves follow the game rules: eight directions, diagonals need a clear
+ * L-shaped path. Memory: about 1.25 bytes per cell; the grid may have up to
+ * 2^31 - 1 cells.
+ */
+public class ParallelBreadthFirstSearch {
+
+    // Switch to bottom-up when frontier > unvisited / ALPHA, back when frontier < free cells / BETA
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    // Frontier cells per top-down task; smaller frontiers are expanded on the calling thread
+    private static final int TOP_DOWN_CHUNK = 512;
+    // Bitset words (64 cells each) per bottom-up or packing task
+    private static final int WORD_CHUNK = 256;
+    private static final MoveDirection[] DIRECTIONS = MoveDirection.values();
+
+    private final ForkJoinPool pool;
+    private BooleanSupplier cancelled = () -> false;
+    private SolveBudget budget = SolveBudget.UNLIMITED;
+
+    // Statistics of the last solve
+    private int nodesEvaluated;
+    private int topDownLevels;
+    private int bottomUpLevels;
+    private long prepareNanos;
+    private long searchNanos;
+    private CompactSolution partialSolution;
+
+    // State of the running solve
+    private int rows;
+    private int cols;
+    private long[] free;
+    private AtomicLongArray visited;
+    private byte[] parents;
+
+    public ParallelBreadthFirstSearch() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool the levels are expanded on
+     */
+    public ParallelBreadthFirstSearch(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Lets a running solve be stopped: the flag is checked between levels, and once it is
+     * set the solve throws {@link SearchCancelledException}.
+     */
+    public void setCancellation(BooleanSupplier cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    /**
+     * Limits later solves. Time and expansions are checked between levels; the heap
+     * the solver needs (about 1.5 bytes per cell, see {@link #estimateHeapBytes}) is
+     * checked before it starts. When a limit is reached the solve throws
+     * {@link BudgetExceededException} and leaves the path to the cell closest to the
+     * goal in {@link #getPartialSolution()}.
+     */
+    public void setBudget(SolveBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return bytes the solver allocates for a grid with this many cells: the parent
+     *         moves (1 byte per cell), the free, visited and frontier bitsets and the frontier
+     */
+    public static long estimateHeapBytes(long cellCount) {
+        return cellCount + cellCount / 2;
+    }
+
+    /**
+     * Finds a shortest path (in moves) from start to goal.
+     *
+     * @param grid maze grid
+     * @param start start cell
+     * @param goal goal cell
+     * @param events stream for the cells reached at each level, or null
+     * @return the path, or null if the goal cannot be reached
+     * @throws IllegalArgumentException if the grid has too many cells
+     * @throws SearchCancelledException if the solve was cancelled
+     * @throws BudgetExceededException if a limit of the budget was reached
+     */
+    public CompactSolution solve(IMazeGrid grid, Position start, Position goal, SearchEventStream events) {
+        long deadline = budget.deadlineNanos(System.nanoTime());
+        long cellCount = (long) grid.getRows() * grid.getColumns();
+        if (cellCount >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large for the parallel solver: " + cellCount + " cells");
+        }
+        rows = grid.getRows();
+        cols = grid.getColumns();
+        nodesEvaluated = 0;
+        topDownLevels = 0;
+        bottomUpLevels = 0;
+        partialSolution = null;
+        if (budget.getMaxHeapBytes() > 0 && estimateHeapBytes(cellCount) > budget.getMaxHeapBytes()) {
+            throw new BudgetExceededException(SolveStatus.MEMORY_LIMIT);
+        }
+
+        try {
+            long prepareStart = System.nanoTime();
+            int words = (int) ((cellCount + 63) >>> 6);
+            free = new long[words];
+            visited = new AtomicLongArray(words);
+            parents = new byte[(int) cellCount];
+            long freeCells = packFreeCells(grid, (int) cellCount);
+            prepareNanos = System.nanoTime() - prepareStart;
+
+            long searchStart = System.nanoTime();
+            CompactSolution solution = search(index(start), index(goal), freeCells, events, deadline);
+            searchNanos = System.nanoTime() - searchStart;
+            return solution;
+        } finally {
+            free = null;
+            visited = null;
+            parents = null;
+        }
+    }
+
+    private CompactSolution search(int startIndex, int goalIndex, long freeCells, SearchEventStream events,
+                                   long deadline) {
+        if (!isFree(startIndex) || !isFree(goalIndex)) return null;
+
+        claim(startIndex);
+        long visitedCount = 1;
+        int[] frontier = {startIndex};
+        AtomicLongArray frontierBits = null;
+        boolean bottomUp = false;
+
+        while (frontier.length > 0 && !isVisited(goalIndex)) {
+            if (cancelled.getAsBoolean()) {
+                throw new SearchCancelledException();
+            }
+            SolveStatus exceeded = budget.getMaxExpansions() > 0 && nodesEvaluated >= budget.getMaxExpansions()
+                    ? SolveStatus.EXPANSION_LIMIT
+                    : System.nanoTime() >= deadline ? SolveStatus.TIME_LIMIT : null;
+            if (exceeded != null) {
+                partialSolution = backtrack(startIndex, closestToGoal(frontier, goalIndex));
+                throw new BudgetExceededException(exceeded);
+            }
+            long unvisited = freeCells - visitedCount;
+            if (!bottomUp && frontier.length > unvisited / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < freeCells / BETA) {
+                bottomUp = false;
+            }
+
+            nodesEvaluated += frontier.length;
+            if (bottomUp) {
+                if (frontierBits == null) {
+                    frontierBits = toBits(frontier);
+                }
+                AtomicLongArray nextBits = new AtomicLongArray(free.length);
+                frontier = bottomUpLevel(frontierBits, nextBits);
+                frontierBits = nextBits;
+                bottomUpLevels++;
+            } else {
+                frontier = topDownLevel(frontier);
+                frontierBits = null;
+                topDownLevels++;
+            }
+            visitedCount += frontier.length;
+
+            if (events != null) {
+                for (int cell : frontier) {
+                    events.expanded(cell / cols, cell % cols);
+                }
+            }
+        }
+        return isVisited(goalIndex) ? backtrack(startIndex, goalIndex) : null;
+    }
+
+    // ---- Top-down: frontier cells claim their unvisited neighbours ----
+
+    private int[] topDownLevel(int[] frontier) {
+        if (frontier.length <= TOP_DOWN_CHUNK) {
+            return expandTopDown(frontier, 0, frontier.length);
+        }
+        int chunks = (frontier.length + TOP_DOWN_CHUNK - 1) / TOP_DOWN_CHUNK;
+        int[][] parts = new int[chunks][];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int part = i;
+            int from = i * TOP_DOWN_CHUNK;
+            int to = Math.min(frontier.length, from + TOP_DOWN_CHUNK);
+            tasks.add(ForkJoinTask.adapt(() -> parts[part] = expandTopDown(frontier, from, to)));
+        }
+        runAll(tasks);
+        return concat(parts);
+    }
+
+    private int[] expandTopDown(int[] frontier, int from, int to) {
+        int[] next = new int[Math.max(16, (to - from) * 2)];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            int cell = frontier[i];
+            int row = cell / cols;
+            int col = cell % cols;
+            for (MoveDirection direction : DIRECTIONS) {
+                if (!canMove(row, col, direction)) continue;
+                int neighbour = cell + direction.getRowDelta() * cols + direction.getColDelta();
+                // Only the thread that sets the visited bit writes the parent
+                if (claim(neighbour)) {
+                    parents[neighbour] = (byte) direction.getCode();
+                    if (count == next.length) {
+                        next = Arrays.copyOf(next, count * 2);
+                    }
+                    next[count++] = neighbour;
+                }
+            }
+        }
+        return Arrays.copyOf(next, count);
+    }
+
+    // ---- Bottom-up: unvisited cells look for a neighbour in the frontier ----
+
+    private int[] bottomUpLevel(AtomicLongArray frontierBits, AtomicLongArray nextBits) {
+        int chunks = (free.length + WORD_CHUNK - 1) / WORD_CHUNK;
+        int[][] parts = new int[chunks][];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int part = i;
+            int fromWord = i * WORD_CHUNK;
+            int toWord = Math.min(free.length, fromWord + WORD_CHUNK);
+            tasks.add(ForkJoinTask.adapt(() ->
+                    parts[part] = expandBottomUp(frontierBits, nextBits, fromWord, toWord)));
+        }
+        runAll(tasks);
+        return concat(parts);
+    }
+
+    // Each task owns its words, so visited and next bits are never contended here
+    private int[] expandBottomUp(AtomicLongArray frontierBits, AtomicLongArray nextBits, int fromWord, int toWord) {
+        int[] found = new int[64];
+        int count = 0;
+        for (int word = fromWord; word < toWord; word++) {
+            long candidates = free[word] & ~visited.get(word);
+            long claimed = 0;
+            while (candidates != 0) {
+                long bit = Long.lowestOneBit(candidates);
+                candidates ^= bit;
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bit);
+                int row = cell / cols;
+                int col = cell % cols;
+                for (MoveDirection direction : DIRECTIONS) {
+                    // Moves are symmetric, so a legal move out of the cell is a legal move into it
+                    if (!canMove(row, col, direction)) continue;
+                    int neighbour = cell + direction.getRowDelta() * cols + direction.getColDelta();
+                    if (isSet(frontierBits, neighbour)) {
+                        parents[cell] = (byte) reverse(direction).getCode();
+                        claimed |= bit;
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = cell;
+                        break;
+                    }
+                }
+            }
+            if (claimed != 0) {
+                visited.set(word, visited.get(word) | claimed);
+                nextBits.set(word, claimed);
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private AtomicLongArray toBits(int[] cells) {
+        AtomicLongArray bits = new AtomicLongArray(free.length);
+        for (int cell : cells) {
+            setBit(bits, cell);
+        }
+        return bits;
+    }
+
+    // ---- Grid access ----
+
+    // Copies the grid into a bitset (bit set = free), in parallel word ranges
+    private long packFreeCells(IMazeGrid grid, int cellCount) {
+        GridKernels kernels = GridKernels.get();
+        int chunks = (free.length + WORD_CHUNK - 1) / WORD_CHUNK;
+        long[] counts = new long[chunks];
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            int part = i;
+            int fromWord = i * WORD_CHUNK;
+            int toWord = Math.min(free.length, fromWord + WORD_CHUNK);
+            tasks.add(ForkJoinTask.adapt(() -> {
+                long end = Math.min(cellCount, (long) toWord << 6);
+                counts[part] = kernels.packOpenCells(grid, (long) fromWord << 6, end, free);
+            }));
+        }
+        runAll(tasks);
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private boolean isFree(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols && isFree(row * cols + col);
+    }
+
+    private boolean isFree(int cell) {
+        return (free[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    // Same rule as MoveDirection.canMove, on the packed grid
+    private boolean canMove(int row, int col, MoveDirection direction) {
+        int newRow = row + direction.getRowDelta();
+        int newCol = col + direction.getColDelta();
+        if (!isFree(newRow, newCol)) return false;
+        if (!direction.isDiagonal()) return true;
+        return isFree(newRow, col) || isFree(row, newCol);
+    }
+
+    private boolean isVisited(int cell) {
+        return isSet(visited, cell);
+    }
+
+    private boolean claim(int cell) {
+        return setBit(visited, cell);
+    }
+
+    private static boolean isSet(AtomicLongArray bits, int cell) {
+        return (bits.get(cell >>> 6) & (1L << cell)) != 0;
+    }
+
+    // Sets the bit and returns true if this call changed it
+    private static boolean setBit(AtomicLongArray bits, int cell) {
+        int word = cell >>> 6;
+        long mask = 1L << cell;
+        long current = bits.get(word);
+        while ((current & mask) == 0) {
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+            current = bits.get(word);
+        }
+        return false;
+    }
+
+    private static MoveDirection reverse(MoveDirection direction) {
+        return MoveDirection.fromDelta(-direction.getRowDelta(), -direction.getColDelta());
+    }
+
+    // ---- Helpers ----
+
+    private void runAll(List<ForkJoinTask<?>> tasks) {
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private static int[] concat(int[][] parts) {
+        int length = 0;
+        for (int[] part : parts) {
+            length += part.length;
+        }
+        int[] result = new int[length];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        return result;
+    }
+
+    private int index(Position position) {
+        return position.getRowIndex() * cols + position.getColumnIndex();
+    }
+
+    // Frontier cell with the fewest moves (diagonals allowed) left to the goal
+    private int closestToGoal(int[] frontier, int goalIndex) {
+        int goalRow = goalIndex / cols;
+        int goalCol = goalIndex % cols;
+        int best = frontier[0];
+        int bestDistance = Integer.MAX_VALUE;
+        for (int cell : frontier) {
+            int distance = Math.max(Math.abs(cell / cols - goalRow), Math.abs(cell % cols - goalCol));
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    // Follows the parent directions from the goal back to the start
+    private CompactSolution backtrack(int startIndex, int goalIndex) {
+        byte[] moves = new byte[64];
+        int count = 0;
+        int cell = goalIndex;
+        while (cell != startIndex) {
+            MoveDirection direction = MoveDirection.fromCode(parents[cell]);
+            if (count == moves.length) {
+                moves = Arrays.copyOf(moves, count * 2);
+            }
+            moves[count++] = (byte) direction.getCode();
+            cell -= direction.getRowDelta() * cols + direction.getColDelta();
+        }
+        byte[] path = new byte[count];
+        for (int i = 0; i < count; i++) {
+            path[i] = moves[count - 1 - i];
+        }
+        return new CompactSolution(startIndex / cols, startIndex % cols, path);
+    }
+
+    /**
+     * @return path to the explored cell closest to the goal, if the last solve ran out of budget
+     */
+    public CompactSolution getPartialSolution() {
+        return partialSolution;
+    }
+
+    /**
+     * @return cells expanded by the last solve
+     */
+    public int getNodesEvaluated() {
+        return nodesEvaluated;
+    }
+
+    public int getTopDownLevels() {
+        return topDownLevels;
+    }
+
+    public int getBottomUpLevels() {
+        return bottomUpLevels;
+    }
+
+    /**
+     * @return time spent copying the grid into the bitset in the last solve
+     */
+    public long getPrepareNanos() {
+        return prepareNanos;
+    }
+
+    /**
+     * @return time spent searching in the last solve, without the grid copy
+     */
+    public long getSearchNanos() {
+        return searchNanos;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+}
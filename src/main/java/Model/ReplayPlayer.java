@@ -0,0 +1,111 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+
+/**
+ * Headless, fast-forward playback of a {@link MoveJournal} on a maze grid.
+ * Moves are applied without touching the view, so thousands of moves can be
+ * applied per frame; the caller decides how often to render (e.g. after
+ * every call to {@link #advance(int)}).
+ */
+public class ReplayPlayer {
+
+    private final IMazeGrid grid;
+    private final MoveJournal journal;
+    private final MoveJournal played = new MoveJournal(); // the moves that were legal, for MyModel#followReplay
+    private int row;
+    private int col;
+    private int nextMove;
+    private int rejectedMoves;
+
+    /**
+     * @param grid the maze to replay on
+     * @param start start position of the session
+     * @param journal recorded moves
+     */
+    public ReplayPlayer(IMazeGrid grid, Position start, MoveJournal journal) {
+        this.grid = grid;
+        this.journal = journal;
+        this.row = start.getRowIndex();
+        this.col = start.getColumnIndex();
+    }
+
+    /**
+     * Applies up to {@code maxMoves} recorded moves. If the model has meanwhile
+     * replaced the maze and freed its storage, the playback ends instead.
+     *
+     * @return number of moves applied
+     */
+    public int advance(int maxMoves) {
+        if (!grid.acquire()) {
+            nextMove = journal.size();
+            return 0;
+        }
+        try {
+            int end = (int) Math.min(journal.size(), (long) nextMove + maxMoves);
+            int applied = end - nextMove;
+            for (; nextMove < end; nextMove++) {
+                MoveDirection direction = journal.get(nextMove);
+                // Recordings only hold accepted moves - a blocked one means the session diverged
+                if (direction.canMove(grid, row, col)) {
+                    row += direction.getRowDelta();
+                    col += direction.getColDelta();
+                    played.append(direction);
+                } else {
+                    rejectedMoves++;
+                }
+            }
+            return applied;
+        } finally {
+            grid.release();
+        }
+    }
+
+    /**
+     * Applies all remaining moves.
+     */
+    public void replayAll() {
+        advance(journal.size() - nextMove);
+    }
+
+    /**
+     * @return true when every recorded move has been applied
+     */
+    public boolean isFinished() {
+        return nextMove >= journal.size();
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    /**
+     * @return number of moves applied so far
+     */
+    public int getMovesPlayed() {
+        return nextMove;
+    }
+
+    public int getTotalMoves() {
+        return journal.size();
+    }
+
+    /**
+     * @return number of recorded moves that were illegal on the grid (0 for a faithful replay)
+     */
+    public int getRejectedMoves() {
+        return rejectedMoves;
+    }
+
+    IMazeGrid getGrid() {
+        return grid;
+    }
+
+    MoveJournal getPlayedMoves() {
+        return played;
+    }
+}
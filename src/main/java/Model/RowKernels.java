@@ -0,0 +1,50 @@
+package Model;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Bulk operations on one run of maze cells, either part of an {@code int[]} row
+ * or bytes of an off-heap grid (one byte per cell). Implemented once with plain
+ * loops and once with the Vector API; {@link GridKernels} picks one.
+ */
+interface RowKernels {
+
+    /**
+     * @return short description for logs and benchmarks, e.g. "vector 256-bit"
+     */
+    String getName();
+
+    /**
+     * @return number of free (0) cells in {@code cells[from, to)}
+     */
+    int countOpen(int[] cells, int from, int to);
+
+    /**
+     * @return number of free (0) cells among the bytes {@code [from, to)} of the segment
+     */
+    long countOpen(MemorySegment cells, long from, long to);
+
+    /**
+     * Bit {@code i} of the result is set if {@code cells[from + i]} is free.
+     *
+     * @param length cells to look at, at most 64
+     */
+    long openBits(int[] cells, int from, int length);
+
+    /**
+     * Bit {@code i} of the result is set if byte {@code from + i} of the segment is free.
+     *
+     * @param length cells to look at, at most 64
+     */
+    long openBits(MemorySegment cells, long from, int length);
+
+    /**
+     * Writes one ARGB pixel per cell: {@code freeArgb} for free cells, {@code wallArgb} for the others.
+     */
+    void toArgb(int[] cells, int from, int[] argb, int offset, int length, int freeArgb, int wallArgb);
+
+    /**
+     * Same as {@link #toArgb(int[], int, int[], int, int, int, int)}, reading bytes of the segment.
+     */
+    void toArgb(MemorySegment cells, long from, int[] argb, int offset, int length, int freeArgb, int wallArgb);
+}
@@ -0,0 +1,65 @@
+package Model;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * {@link RowKernels} with plain loops; used when the Vector API module is not available.
+ */
+final class ScalarRowKernels implements RowKernels {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public int countOpen(int[] cells, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (cells[i] == 0) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long countOpen(MemorySegment cells, long from, long to) {
+        long count = 0;
+        for (long i = from; i < to; i++) {
+            if (cells.get(ValueLayout.JAVA_BYTE, i) == 0) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long openBits(int[] cells, int from, int length) {
+        long bits = 0;
+        for (int i = 0; i < length; i++) {
+            if (cells[from + i] == 0) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    @Override
+    public long openBits(MemorySegment cells, long from, int length) {
+        long bits = 0;
+        for (int i = 0; i < length; i++) {
+            if (cells.get(ValueLayout.JAVA_BYTE, from + i) == 0) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    @Override
+    public void toArgb(int[] cells, int from, int[] argb, int offset, int length, int freeArgb, int wallArgb) {
+        for (int i = 0; i < length; i++) {
+            argb[offset + i] = cells[from + i] == 0 ? freeArgb : wallArgb;
+        }
+    }
+
+    @Override
+    public void toArgb(MemorySegment cells, long from, int[] argb, int offset, int length, int freeArgb, int wallArgb) {
+        for (int i = 0; i < length; i++) {
+            argb[offset + i] = cells.get(ValueLayout.JAVA_BYTE, from + i) == 0 ? freeArgb : wallArgb;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package Model;
+
+/**
+ * Thrown out of a running search when it was asked to stop, e.g. by
+ * {@link CancellableSearchable}. The search left no result behind.
+ */
+public class SearchCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SearchCancelledException() {
+        super("Search cancelled");
+    }
+}
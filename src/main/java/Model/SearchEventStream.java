@@ -0,0 +1,118 @@
+package Model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded stream of search expansion events, from a solver thread to a
+ * consumer such as the view. Expanded cells are collected into batches of
+ * cell indices ({@code row * columns + col}). When the consumer falls behind
+ * and the queue is full, new batches are dropped rather than blocking, so
+ * observing a search never slows it down.
+ *
+ * One producer thread and one consumer thread.
+ */
+public class SearchEventStream {
+
+    /** Default number of cells per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    /** Default number of batches the queue can hold. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final int columns;
+    private final int batchSize;
+    private final BlockingQueue<int[]> queue;
+
+    // Producer side
+    private int[] batch;
+    private int batchCount;
+    private volatile long expandedCells;
+    private volatile long droppedCells;
+    private volatile boolean finished;
+
+    public SearchEventStream(int columns) {
+        this(columns, DEFAULT_BATCH_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param columns maze width, used to build cell indices
+     * @param batchSize cells per batch
+     * @param capacity batches the queue can hold before dropping
+     */
+    public SearchEventStream(int columns, int batchSize, int capacity) {
+        if (columns <= 0 || batchSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Stream sizes must be positive");
+        }
+        this.columns = columns;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batch = new int[batchSize];
+    }
+
+    /**
+     * Records an expanded cell. Called by the solver thread only.
+     */
+    public void expanded(int row, int col) {
+        batch[batchCount++] = row * columns + col;
+        expandedCells++;
+        if (batchCount == batchSize) {
+            publish(batch);
+            batch = new int[batchSize];
+            batchCount = 0;
+        }
+    }
+
+    /**
+     * Publishes the last partial batch and marks the stream as finished.
+     * Called by the solver thread when the search ends, even if it failed.
+     */
+    public void finish() {
+        if (finished) return;
+        if (batchCount > 0) {
+            int[] last = new int[batchCount];
+            System.arraycopy(batch, 0, last, 0, batchCount);
+            publish(last);
+            batchCount = 0;
+        }
+        finished = true;
+    }
+
+    // Never blocks: a full queue means the consumer is behind, so the batch is dropped
+    private void publish(int[] cells) {
+        if (!queue.offer(cells)) {
+            droppedCells += cells.length;
+        }
+    }
+
+    /**
+     * @return the next batch of cell indices, or null if none is waiting
+     */
+    public int[] poll() {
+        return queue.poll();
+    }
+
+    /**
+     * @return true once the search has ended and every published batch was taken
+     */
+    public boolean isDone() {
+        return finished && queue.isEmpty();
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return number of cells the search has expanded so far
+     */
+    public long getExpandedCells() {
+        return expandedCells;
+    }
+
+    /**
+     * @return number of expanded cells that were dropped because the consumer was behind
+     */
+    public long getDroppedCells() {
+        return droppedCells;
+    }
+}
@@ -0,0 +1,158 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+
+import java.io.*;
+
+/**
+ * A recorded play session: the maze, the start position and every accepted move.
+ * In-memory mazes are stored as {@code Maze.toByteArray()}; chunked mazes are far
+ * too big for that and are stored as their dimensions and generator seed instead.
+ */
+public class SessionRecording {
+
+    private static final int MAGIC = 0x4D5A5250; // "MZRP"
+    private static final int VERSION = 1;
+
+    private final byte[] mazeBytes;
+    private final long seed;
+    private final int rows;
+    private final int cols;
+    private final Position start;
+    private final MoveJournal journal;
+
+    /**
+     * Recording of a session played on an in-memory maze.
+     *
+     * @param mazeBytes the maze as returned by {@code Maze.toByteArray()}
+     */
+    public SessionRecording(byte[] mazeBytes, int rows, int cols, Position start, MoveJournal journal) {
+        this(mazeBytes, 0, rows, cols, start, journal);
+    }
+
+    /**
+     * Recording of a session played on a maze from {@link StreamingMazeGenerator}.
+     *
+     * @param seed the generator seed
+     */
+    public SessionRecording(long seed, int rows, int cols, Position start, MoveJournal journal) {
+        this(null, seed, rows, cols, start, journal);
+    }
+
+    private SessionRecording(byte[] mazeBytes, long seed, int rows, int cols, Position start, MoveJournal journal) {
+        this.mazeBytes = mazeBytes;
+        this.seed = seed;
+        this.rows = rows;
+        this.cols = cols;
+        this.start = start;
+        this.journal = journal;
+    }
+
+    /**
+     * @return the serialized maze, or null if the maze is rebuilt from its seed
+     */
+    public byte[] getMazeBytes() {
+        return mazeBytes;
+    }
+
+    /**
+     * @return true if the maze is rebuilt from {@link #getSeed()} rather than stored
+     */
+    public boolean isSeeded() {
+        return mazeBytes == null;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return cols;
+    }
+
+    public Position getStart() {
+        return start;
+    }
+
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Writes the recording to a file.
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Writes the recording to a stream, e.g. as part of a larger file.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeBoolean(isSeeded());
+        out.writeLong(seed);
+        out.writeInt(rows);
+        out.writeInt(cols);
+        out.writeInt(start.getRowIndex());
+        out.writeInt(start.getColumnIndex());
+        if (!isSeeded()) {
+            out.writeInt(mazeBytes.length);
+            out.write(mazeBytes);
+        }
+        journal.write(out);
+    }
+
+    /**
+     * Reads a recording written by {@link #save(File)}.
+     *
+     * @throws IOException if the file is not a valid recording
+     */
+    public static SessionRecording load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Reads a recording written by {@link #write(DataOutput)}.
+     *
+     * @throws IOException if the stream does not hold a valid recording
+     */
+    public static SessionRecording read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a session recording");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported recording version: " + version);
+        }
+        boolean seeded = in.readBoolean();
+        long seed = in.readLong();
+        int rows = in.readInt();
+        int cols = in.readInt();
+        Position start = new Position(in.readInt(), in.readInt());
+        if (rows <= 0 || cols <= 0) {
+            throw new IOException("Corrupt recording (maze of " + rows + "x" + cols + ")");
+        }
+        byte[] mazeBytes = null;
+        if (!seeded) {
+            // Maze.toByteArray(): six 2-byte header fields, then a byte per cell
+            int length = in.readInt();
+            if (length < 0 || length != (long) rows * cols + 12) {
+                throw new IOException("Corrupt recording (maze of " + length + " bytes for "
+                        + rows + "x" + cols + ")");
+            }
+            mazeBytes = new byte[length];
+            in.readFully(mazeBytes);
+        }
+        return new SessionRecording(mazeBytes, seed, rows, cols, start, MoveJournal.read(in));
+    }
+}
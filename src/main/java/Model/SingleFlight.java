@@ -0,0 +1,85 @@
+package Model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing: while a computation for a key is running, further callers
+ * with the same key wait for it and share its result instead of starting their own.
+ * Nothing is cached - the key is forgotten as soon as the computation finishes,
+ * so a caller arriving afterwards computes again (or finds the result in a real cache).
+ *
+ * @param <K> key type, compared with {@code equals}
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong computed = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * Returns the result of {@code computation}, run on the calling thread unless
+     * an identical request is already running, in which case its result is awaited.
+     * A failure of the shared computation is rethrown to every waiting caller.
+     *
+     * @param key identifies requests with the same answer
+     * @param computation produces the answer; runs at most once per flight
+     * @return the computed or shared result
+     */
+    public V run(K key, Supplier<V> computation) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            shared.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        computed.incrementAndGet();
+        try {
+            V result = computation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * @return number of computations that actually ran
+     */
+    public long getComputedCount() {
+        return computed.get();
+    }
+
+    /**
+     * @return number of callers that shared a running computation instead
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+
+    /**
+     * @return number of computations running right now
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) return (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        return e;
+    }
+}
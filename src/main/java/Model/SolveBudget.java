@@ -0,0 +1,65 @@
+package Model;
+
+/**
+ * Limits for one solve. A search that reaches any of them stops and returns
+ * the best partial path it has (see {@link SolveResult}). Zero means no limit.
+ */
+public final class SolveBudget {
+
+    /**
+     * No limits - the search runs until it finds the goal or runs out of states.
+     */
+    public static final SolveBudget UNLIMITED = new SolveBudget(0, 0, 0);
+
+    private final long maxMillis;
+    private final long maxExpansions;
+    private final long maxHeapBytes;
+
+    /**
+     * @param maxMillis wall-clock time the search may take
+     * @param maxExpansions states the search may expand
+     * @param maxHeapBytes heap the search's states may take, as estimated by the solver
+     */
+    public SolveBudget(long maxMillis, long maxExpansions, long maxHeapBytes) {
+        if (maxMillis < 0 || maxExpansions < 0 || maxHeapBytes < 0) {
+            throw new IllegalArgumentException("Budget limits must not be negative");
+        }
+        this.maxMillis = maxMillis;
+        this.maxExpansions = maxExpansions;
+        this.maxHeapBytes = maxHeapBytes;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public long getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    /**
+     * @return true if no limit is set
+     */
+    public boolean isUnlimited() {
+        return maxMillis == 0 && maxExpansions == 0 && maxHeapBytes == 0;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} value at which a search started at
+     *         {@code startNanos} runs out of time, or {@link Long#MAX_VALUE} without a time limit
+     */
+    public long deadlineNanos(long startNanos) {
+        return maxMillis > 0 ? startNanos + maxMillis * 1_000_000L : Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return "SolveBudget[" + (maxMillis > 0 ? maxMillis + " ms" : "no time limit")
+                + ", " + (maxExpansions > 0 ? maxExpansions + " expansions" : "no expansion limit")
+                + ", " + (maxHeapBytes > 0 ? maxHeapBytes + " heap bytes" : "no heap limit") + "]";
+    }
+}
@@ -0,0 +1,45 @@
+package Model;
+
+/**
+ * Outcome of a budgeted solve: a path and how far it gets.
+ * With {@link SolveStatus#SOLVED} the path reaches the goal; otherwise it is the
+ * best effort - from the start to the explored cell closest to the goal - or null
+ * if the search stopped before exploring anything.
+ */
+public final class SolveResult {
+
+    private final CompactSolution path;
+    private final SolveStatus status;
+    private final long nodesEvaluated;
+
+    public SolveResult(CompactSolution path, SolveStatus status, long nodesEvaluated) {
+        this.path = path;
+        this.status = status;
+        this.nodesEvaluated = nodesEvaluated;
+    }
+
+    /**
+     * @return the full or partial path, or null
+     */
+    public CompactSolution getPath() {
+        return path;
+    }
+
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return true if the path reaches the goal
+     */
+    public boolean isComplete() {
+        return status == SolveStatus.SOLVED;
+    }
+
+    /**
+     * @return states expanded before the search ended
+     */
+    public long getNodesEvaluated() {
+        return nodesEvaluated;
+    }
+}
@@ -0,0 +1,20 @@
+package Model;
+
+/**
+ * How a solve ended. All statuses but {@link #SOLVED} come with at most a
+ * partial path: the explored cell closest to the goal, reached from the start.
+ */
+public enum SolveStatus {
+    SOLVED,
+    NO_SOLUTION,
+    TIME_LIMIT,
+    EXPANSION_LIMIT,
+    MEMORY_LIMIT;
+
+    /**
+     * @return true if the search stopped because a {@link SolveBudget} limit was reached
+     */
+    public boolean isBudgetExceeded() {
+        return this == TIME_LIMIT || this == EXPANSION_LIMIT || this == MEMORY_LIMIT;
+    }
+}
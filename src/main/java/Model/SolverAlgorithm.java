@@ -0,0 +1,56 @@
+package Model;
+
+import algorithms.search.BestFirstSearch;
+import algorithms.search.BreadthFirstSearch;
+import algorithms.search.DepthFirstSearch;
+import algorithms.search.ISearchingAlgorithm;
+
+/**
+ * Search algorithms the model can solve a maze with.
+ * The JAR's algorithms need an in-memory maze; the parallel breadth-first
+ * search works on any {@link IMazeGrid}, including chunked mazes.
+ */
+public enum SolverAlgorithm {
+    BEST_FIRST("Best-First Search"),
+    BREADTH_FIRST("Breadth-First Search"),
+    DEPTH_FIRST("Depth-First Search"),
+    PARALLEL_BREADTH_FIRST("Parallel Breadth-First Search");
+
+    private final String displayName;
+
+    SolverAlgorithm(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * @return a new, unused instance of one of the JAR's algorithms
+     * @throws UnsupportedOperationException for {@link #PARALLEL_BREADTH_FIRST}, see {@link #isGridSolver()}
+     */
+    public ISearchingAlgorithm create() {
+        switch (this) {
+            case BREADTH_FIRST: return new BreadthFirstSearch();
+            case DEPTH_FIRST: return new DepthFirstSearch();
+            case PARALLEL_BREADTH_FIRST:
+                throw new UnsupportedOperationException(displayName + " is not a JAR algorithm");
+            default: return new BestFirstSearch();
+        }
+    }
+
+    /**
+     * @return true if the algorithm works on the grid directly instead of the JAR's searchable maze
+     */
+    public boolean isGridSolver() {
+        return this == PARALLEL_BREADTH_FIRST;
+    }
+
+    /**
+     * Parses a command-line name such as "best-first" or "parallel-breadth-first".
+     */
+    public static SolverAlgorithm fromOption(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,88 @@
+package Model;
+
+import algorithms.mazeGenerators.Position;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates perfect mazes straight into a {@link MappedMazeGrid}, one row at a time.
+ * Uses the Sidewinder algorithm, which only needs the current row to decide
+ * what to carve, so memory use is O(columns) no matter how big the maze is.
+ *
+ * Rooms sit on even coordinates; the cells between them are walls unless carved.
+ */
+public class StreamingMazeGenerator {
+
+    private final long seed;
+
+    /**
+     * @param seed random seed - the same seed and size always give the same maze
+     */
+    public StreamingMazeGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the seed used by this generator
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Generates a maze into a new chunked file.
+     *
+     * @param file backing file for the grid
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return the generated grid, still open
+     * @throws IOException if the file cannot be written
+     */
+    public MappedMazeGrid generate(Path file, int rows, int cols) throws IOException {
+        MappedMazeGrid grid = MappedMazeGrid.create(file, rows, cols);
+        try {
+            carve(grid);
+            grid.force();
+        } catch (RuntimeException e) {
+            grid.close();
+            throw e;
+        }
+        return grid;
+    }
+
+    // Sidewinder: carve east in runs, and close each run by carving north from one of its rooms
+    private void carve(MappedMazeGrid grid) throws IOException {
+        Random random = new Random(seed);
+        int roomRows = (grid.getRows() + 1) / 2;
+        int roomCols = (grid.getColumns() + 1) / 2;
+
+        for (int i = 0; i < roomRows; i++) {
+            int row = i * 2;
+            int runStart = 0;
+            for (int j = 0; j < roomCols; j++) {
+                int col = j * 2;
+                grid.setCell(row, col, 0);
+
+                boolean lastInRow = j == roomCols - 1;
+                if (i == 0) {
+                    // First row has nothing above it - it's one long corridor
+                    if (!lastInRow) grid.setCell(row, col + 1, 0);
+                    continue;
+                }
+
+                if (lastInRow || random.nextBoolean()) {
+                    int northRoom = runStart + random.nextInt(j - runStart + 1);
+                    grid.setCell(row - 1, northRoom * 2, 0);
+                    runStart = j + 1;
+                } else {
+                    grid.setCell(row, col + 1, 0);
+                }
+            }
+        }
+
+        grid.setEndpoints(new Position(0, 0),
+                new Position((roomRows - 1) * 2, (roomCols - 1) * 2));
+    }
+}
@@ -0,0 +1,137 @@
+package Model;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * {@link RowKernels} on the Vector API ({@code jdk.incubator.vector}), which the JIT
+ * compiles to SIMD instructions: each step compares a whole vector of cells with 0
+ * and turns the lane mask into a count, bits or blended pixels.
+ *
+ * Only loaded by {@link GridKernels} when the module is in the boot layer
+ * ({@code --add-modules jdk.incubator.vector}); otherwise this class is never touched.
+ */
+final class VectorRowKernels implements RowKernels {
+
+    // Preferred width, capped so a byte vector has at most 64 lanes (one long of bits)
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED.vectorBitSize() > 512
+            ? IntVector.SPECIES_512 : IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class, INTS.vectorShape());
+    // A byte vector widens into this many int vectors of the same size
+    private static final int PARTS = BYTES.length() / INTS.length();
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    @Override
+    public String getName() {
+        return "vector " + INTS.vectorBitSize() + "-bit";
+    }
+
+    @Override
+    public int countOpen(int[] cells, int from, int to) {
+        // Per-lane counters, summed once at the end
+        IntVector open = IntVector.zero(INTS);
+        int i = from;
+        for (int bound = from + INTS.loopBound(to - from); i < bound; i += INTS.length()) {
+            VectorMask<Integer> free = IntVector.fromArray(INTS, cells, i).compare(VectorOperators.EQ, 0);
+            open = open.add(1, free);
+        }
+        int count = open.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            if (cells[i] == 0) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long countOpen(MemorySegment cells, long from, long to) {
+        long count = 0;
+        long i = from;
+        long bound = from + ((to - from) & -BYTES.length());
+        while (i < bound) {
+            // Byte lane counters, widened and summed before they can overflow
+            ByteVector open = ByteVector.zero(BYTES);
+            long batchEnd = Math.min(bound, i + (long) Byte.MAX_VALUE * BYTES.length());
+            for (; i < batchEnd; i += BYTES.length()) {
+                VectorMask<Byte> free = ByteVector.fromMemorySegment(BYTES, cells, i, ORDER)
+                        .compare(VectorOperators.EQ, 0);
+                open = open.add((byte) 1, free);
+            }
+            // Add neighbouring byte lanes as shorts; at most 32 x 254, so the sum fits a short
+            ShortVector pairs = open.reinterpretAsShorts();
+            ShortVector sums = pairs.and((short) 0xFF).add(pairs.lanewise(VectorOperators.LSHR, 8));
+            count += sums.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < to; i++) {
+            if (cells.get(ValueLayout.JAVA_BYTE, i) == 0) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long openBits(int[] cells, int from, int length) {
+        long bits = 0;
+        int i = 0;
+        for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+            bits |= IntVector.fromArray(INTS, cells, from + i).compare(VectorOperators.EQ, 0).toLong() << i;
+        }
+        for (; i < length; i++) {
+            if (cells[from + i] == 0) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    @Override
+    public long openBits(MemorySegment cells, long from, int length) {
+        long bits = 0;
+        int i = 0;
+        for (int bound = BYTES.loopBound(length); i < bound; i += BYTES.length()) {
+            bits |= ByteVector.fromMemorySegment(BYTES, cells, from + i, ORDER)
+                    .compare(VectorOperators.EQ, 0).toLong() << i;
+        }
+        for (; i < length; i++) {
+            if (cells.get(ValueLayout.JAVA_BYTE, from + i) == 0) bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    @Override
+    public void toArgb(int[] cells, int from, int[] argb, int offset, int length, int freeArgb, int wallArgb) {
+        IntVector free = IntVector.broadcast(INTS, freeArgb);
+        IntVector wall = IntVector.broadcast(INTS, wallArgb);
+        int i = 0;
+        for (int bound = INTS.loopBound(length); i < bound; i += INTS.length()) {
+            VectorMask<Integer> open = IntVector.fromArray(INTS, cells, from + i).compare(VectorOperators.EQ, 0);
+            wall.blend(free, open).intoArray(argb, offset + i);
+        }
+        for (; i < length; i++) {
+            argb[offset + i] = cells[from + i] == 0 ? freeArgb : wallArgb;
+        }
+    }
+
+    @Override
+    public void toArgb(MemorySegment cells, long from, int[] argb, int offset, int length, int freeArgb, int wallArgb) {
+        IntVector free = IntVector.broadcast(INTS, freeArgb);
+        IntVector wall = IntVector.broadcast(INTS, wallArgb);
+        int i = 0;
+        for (int bound = BYTES.loopBound(length); i < bound; i += BYTES.length()) {
+            ByteVector bytes = ByteVector.fromMemorySegment(BYTES, cells, from + i, ORDER);
+            // Widen each quarter of the byte lanes to ints, then pick the pixel per lane
+            for (int part = 0; part < PARTS; part++) {
+                VectorMask<Integer> open = bytes.convertShape(VectorOperators.B2I, INTS, part)
+                        .compare(VectorOperators.EQ, 0);
+                wall.blend(free, open).intoArray(argb, offset + i + part * INTS.length());
+            }
+        }
+        for (; i < length; i++) {
+            argb[offset + i] = cells.get(ValueLayout.JAVA_BYTE, from + i) == 0 ? freeArgb : wallArgb;
+        }
+    }
+}
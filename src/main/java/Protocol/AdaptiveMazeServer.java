@@ -0,0 +1,541 @@
+package Protocol;
+
+import Metrics.AdaptiveServerMXBean;
+import Model.PackedMazeGrid;
+import Model.SearchCancelledException;
+import Model.SolverAlgorithm;
+import Server.Configurations;
+import com.sun.management.OperatingSystemMXBean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maze server whose worker count follows the load, for the same strategies as
+ * the JAR's {@code Server}. The JAR sizes its pool once from {@code threadPoolSize};
+ * here that value is only the starting point, and a {@link ConcurrencyController}
+ * resizes the pool every {@value #CONTROL_INTERVAL_MS} ms from the queueing delay,
+ * service times and CPU utilisation it observes.
+ *
+ * Admission control: framed requests carry their maze size in the header. While
+ * the server is saturated, requests of at least {@link #setLargeMazeCells} cells
+ * are deferred - set aside without holding a worker and retried a little later -
+ * and answered with a "busy" error frame if the server is still saturated after
+ * {@link #setMaxDeferMillis}. Object-stream requests do not reveal their size
+ * and are always admitted.
+ *
+ * Scheduling: requests are admitted and read in an interactive lane; those with an estimated
+ * cost ({@link #estimateCost}) of at least {@link #setBatchCost} move to a batch
+ * lane that gets one worker pick in {@value #BATCH_SHARE} while interactive work
+ * is waiting. When interactive requests queue up behind busy workers, the newest
+ * batch search is cancelled cooperatively (through {@link Model.CancellableSearchable})
+ * and put back in the batch lane with its maze; after {@value #MAX_PREEMPTIONS}
+ * preemptions a search is left to finish.
+ *
+ * The decisions are logged and exported through JMX as
+ * {@code MazeGame:type=AdaptiveServer,port=<port>}.
+ */
+public class AdaptiveMazeServer implements AdaptiveServerMXBean {
+
+    private static final Logger LOG = LogManager.getLogger(AdaptiveMazeServer.class);
+
+    private static final int CONTROL_INTERVAL_MS = 500;
+    private static final int LISTENING_INTERVAL_MS = 1000;
+    private static final int READ_TIMEOUT_MS = 10_000;
+    private static final int DEFER_RETRY_MS = 100;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long IDLE_WORKER_SECONDS = 30;
+    // While both lanes have work, one task in this many comes from the batch lane
+    private static final int BATCH_SHARE = 4;
+    // After this many preemptions a batch search runs to the end
+    private static final int MAX_PREEMPTIONS = 2;
+    private static final int OBJECT_SEARCH_WEIGHT = 3;
+
+    private final int port;
+    private final FramedServerStrategy strategy;
+
+    private int maxLimit = Math.max(Configurations.getInstance().getThreadPoolSize(),
+            4 * Runtime.getRuntime().availableProcessors());
+    private long targetQueueDelayMillis = 50;
+    private double cpuCeiling = 0.9;
+    private long largeMazeCells = 1_000_000;
+    private long maxDeferMillis = 2000;
+    private long batchCost = 1_000_000;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong limitChanges = new AtomicLong();
+    private final AtomicLong preempted = new AtomicLong();
+    private final LaneQueue lanes = new LaneQueue(QUEUE_CAPACITY, BATCH_SHARE);
+    private final ConcurrentLinkedDeque<Connection> runningBatch = new ConcurrentLinkedDeque<>();
+
+    private volatile boolean running;
+    private ConcurrencyController controller;
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService control;
+    private Thread acceptor;
+    private ObjectName mbeanName;
+
+    /**
+     * @param port port to listen on
+     * @param strategy serves framed requests and hands object-stream ones to its legacy strategy
+     */
+    public AdaptiveMazeServer(int port, FramedServerStrategy strategy) {
+        this.port = port;
+        this.strategy = strategy;
+    }
+
+    /**
+     * Upper bound of the worker count (default: the larger of {@code threadPoolSize}
+     * and four workers per core).
+     */
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Queueing delay above which workers are added (default 50 ms).
+     */
+    public void setTargetQueueDelayMillis(long targetQueueDelayMillis) {
+        this.targetQueueDelayMillis = targetQueueDelayMillis;
+    }
+
+    /**
+     * CPU utilisation, 0..1, above which no workers are added (default 0.9).
+     */
+    public void setCpuCeiling(double cpuCeiling) {
+        this.cpuCeiling = cpuCeiling;
+    }
+
+    /**
+     * Requests with at least this many cells are deferred while saturated (default 1,000,000).
+     */
+    public void setLargeMazeCells(long largeMazeCells) {
+        this.largeMazeCells = largeMazeCells;
+    }
+
+    /**
+     * How long a large request may be deferred before it is rejected (default 2 s).
+     */
+    public void setMaxDeferMillis(long maxDeferMillis) {
+        this.maxDeferMillis = maxDeferMillis;
+    }
+
+    /**
+     * Requests with at least this estimated cost go to the batch lane (default
+     * 1,000,000, e.g. a 1000x1000 generate or a 580x580 solve with the JAR's searchers).
+     */
+    public void setBatchCost(long batchCost) {
+        this.batchCost = batchCost;
+    }
+
+    /**
+     * Opens the port and starts serving. Settings must be made before this call.
+     *
+     * @throws IOException if the port cannot be opened
+     */
+    public void start() throws IOException {
+        int initial = Configurations.getInstance().getThreadPoolSize();
+        controller = new ConcurrencyController(initial, 1, maxLimit, targetQueueDelayMillis, cpuCeiling);
+        int limit = controller.getLimit();
+        workers = new ThreadPoolExecutor(limit, limit, IDLE_WORKER_SECONDS, TimeUnit.SECONDS,
+                lanes, daemonThreads("adaptive-server-worker-" + port));
+        workers.allowCoreThreadTimeOut(true);
+        control = Executors.newSingleThreadScheduledExecutor(daemonThreads("adaptive-server-control-" + port));
+
+        ServerSocket serverSocket = new ServerSocket(port);
+        serverSocket.setSoTimeout(LISTENING_INTERVAL_MS);
+        running = true;
+        acceptor = new Thread(() -> acceptLoop(serverSocket), "adaptive-server-" + port);
+        acceptor.start();
+        control.scheduleAtFixedRate(this::adjust, CONTROL_INTERVAL_MS, CONTROL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        registerMBean();
+        LOG.info("Adaptive server on port {}: {} workers to start, at most {}", port, limit, maxLimit);
+    }
+
+    /**
+     * Stops accepting connections and waits for the running requests to finish.
+     */
+    public void stop() {
+        running = false;
+        try {
+            if (acceptor != null) acceptor.join();
+            control.shutdownNow();
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unregisterMBean();
+    }
+
+    private void acceptLoop(ServerSocket serverSocket) {
+        try (serverSocket) {
+            while (running) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    continue; // check the running flag
+                }
+                controller.arrived();
+                dispatch(new Connection(socket));
+            }
+        } catch (IOException e) {
+            LOG.error("Adaptive server on port {} stopped accepting connections", port, e);
+        }
+    }
+
+    private void dispatch(Connection connection) {
+        try {
+            workers.execute(connection);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            connection.close();
+            return;
+        }
+        preemptIfBlocked();
+    }
+
+    // Interactive work is waiting and every worker is busy: stop the newest batch search
+    private void preemptIfBlocked() {
+        if (lanes.size(LaneQueue.Lane.INTERACTIVE) == 0) return;
+        if (active.get() < workers.getMaximumPoolSize()) return;
+        Connection victim = runningBatch.peekLast();
+        if (victim != null && runningBatch.remove(victim)) {
+            victim.cancelled = true;
+        }
+    }
+
+    /**
+     * Estimated work of a framed request, in maze cells weighted by how costly each
+     * cell is: the JAR's searchers build an object per state, the generators and the
+     * grid solver work on flat arrays, and fetches are sent from a file.
+     */
+    static long estimateCost(FrameHeader request) {
+        long cells = (long) request.getRows() * request.getColumns();
+        switch (request.getType()) {
+            case GENERATE_REQUEST:
+                return cells;
+            case SOLVE_REQUEST:
+                SolverAlgorithm algorithm = request.getAlgorithm();
+                return algorithm != null && algorithm.isGridSolver() ? cells : OBJECT_SEARCH_WEIGHT * cells;
+            default:
+                return 0;
+        }
+    }
+
+    // One control step: feed the controller and apply its limit to the pool
+    private void adjust() {
+        try {
+            preemptIfBlocked();
+            int before = workers.getMaximumPoolSize();
+            int after = controller.update(TimeUnit.MILLISECONDS.toNanos(CONTROL_INTERVAL_MS), cpuLoad(),
+                    oldestQueuedNanos());
+            if (after == before) return;
+            // Core may never exceed maximum, so the order depends on the direction
+            if (after > before) {
+                workers.setMaximumPoolSize(after);
+                workers.setCorePoolSize(after);
+            } else {
+                workers.setCorePoolSize(after);
+                workers.setMaximumPoolSize(after);
+            }
+            limitChanges.incrementAndGet();
+            LOG.info(String.format("Port %d: %d -> %d workers (queue delay %.1f ms, service %.1f ms, cpu %.0f%%, gradient %.2f%s)",
+                    port, before, after, controller.getQueueDelayMillis(), controller.getServiceMillis(),
+                    controller.getCpuLoad() * 100, controller.getGradient(),
+                    controller.isSaturated() ? ", saturated" : ""));
+        } catch (RuntimeException e) {
+            LOG.error("Concurrency control step failed", e);
+        }
+    }
+
+    // New connections join the interactive lane in order, so its head is the longest
+    // wait that no worker has picked up yet; a deferred request waits there by design
+    private long oldestQueuedNanos() {
+        Runnable head = lanes.oldest(LaneQueue.Lane.INTERACTIVE);
+        if (!(head instanceof Connection) || ((Connection) head).pickedUp) return 0;
+        return System.nanoTime() - ((Connection) head).acceptedNanos;
+    }
+
+    private static double cpuLoad() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        return os instanceof OperatingSystemMXBean ? ((OperatingSystemMXBean) os).getCpuLoad() : -1;
+    }
+
+    /**
+     * An accepted connection, from the queue to its answer. It enters the interactive
+     * lane, where its header is read and admitted, then its body; a costly request
+     * then moves to the batch lane. A deferred request keeps only its header, a
+     * preempted one its maze, and both are dispatched again.
+     */
+    private final class Connection implements Runnable, LaneQueue.Laned {
+
+        private final Socket socket;
+        private final long acceptedNanos = System.nanoTime();
+        private PushbackInputStream in;
+        private FrameHeader header;
+        private PackedMazeGrid grid; // body of a solve request
+        private LaneQueue.Lane lane = LaneQueue.Lane.INTERACTIVE;
+        private long deferredSinceNanos;
+        private int preemptions;
+        private boolean admittedOnce;
+        private volatile boolean pickedUp; // read by the control thread
+        private volatile boolean cancelled;
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public LaneQueue.Lane getLane() {
+            return lane;
+        }
+
+        @Override
+        public void run() {
+            active.incrementAndGet();
+            boolean keepOpen = false;
+            try {
+                if (in == null) {
+                    pickedUp = true;
+                    controller.started(System.nanoTime() - acceptedNanos);
+                    socket.setSoTimeout(READ_TIMEOUT_MS);
+                    in = new PushbackInputStream(socket.getInputStream(), 2);
+                }
+                OutputStream out = socket.getOutputStream();
+                long start = System.nanoTime();
+                if (header == null && FramedServerStrategy.isObjectStream(in)) {
+                    admitted.incrementAndGet();
+                    strategy.applyStrategy(in, out);
+                    controller.finished(System.nanoTime() - start, 0);
+                    return;
+                }
+
+                ReadableByteChannel inChannel = Channels.newChannel(in);
+                WritableByteChannel outChannel = Channels.newChannel(out);
+                if (header == null) {
+                    header = FrameHeader.read(inChannel);
+                }
+                long cells = (long) header.getRows() * header.getColumns();
+                if (header.getType() == FrameType.SOLVE_REQUEST || header.getType() == FrameType.GENERATE_REQUEST) {
+                    try {
+                        MazeFrames.checkMazeSize(header);
+                    } catch (IOException e) {
+                        MazeFrames.writeError(outChannel, e.getMessage());
+                        throw e;
+                    }
+                }
+                // Admission is decided once, from the header alone: a deferred request holds
+                // neither its body nor a worker, and a preempted one is never turned away
+                if (!admittedOnce) {
+                    if (cells >= largeMazeCells && controller.isSaturated()) {
+                        keepOpen = defer(outChannel);
+                        return;
+                    }
+                    admittedOnce = true;
+                    admitted.incrementAndGet();
+                }
+                if (grid == null && header.getType() == FrameType.SOLVE_REQUEST) {
+                    grid = MazeFrames.readMaze(inChannel, header);
+                }
+                if (lane == LaneQueue.Lane.INTERACTIVE && estimateCost(header) >= batchCost) {
+                    // Make way for the interactive requests behind this one
+                    lane = LaneQueue.Lane.BATCH;
+                    keepOpen = true;
+                    dispatch(this);
+                    return;
+                }
+                if (grid == null) {
+                    strategy.serve(header, inChannel, outChannel);
+                } else if (!solve(outChannel)) {
+                    keepOpen = true;
+                    dispatch(this);
+                    return;
+                }
+                out.flush();
+                controller.finished(System.nanoTime() - start, cells);
+            } catch (IOException e) {
+                LOG.warn("Request on port {} failed: {}", port, e.getMessage());
+            } finally {
+                active.decrementAndGet();
+                if (!keepOpen) close();
+            }
+        }
+
+        // Returns false if the search was preempted and the request has to run again
+        private boolean solve(WritableByteChannel out) throws IOException {
+            boolean preemptible = lane == LaneQueue.Lane.BATCH && preemptions < MAX_PREEMPTIONS;
+            if (preemptible) runningBatch.addLast(this);
+            try {
+                strategy.solve(header, grid, out, () -> cancelled);
+                return true;
+            } catch (SearchCancelledException e) {
+                preemptions++;
+                cancelled = false;
+                preempted.incrementAndGet();
+                LOG.debug("Preempted a {}x{} solve on port {} ({} so far)",
+                        header.getRows(), header.getColumns(), port, preemptions);
+                return false;
+            } catch (RuntimeException e) {
+                LOG.warn("Could not answer a solve request: {}", e.getMessage());
+                MazeFrames.writeError(out, e.getMessage());
+                return true;
+            } finally {
+                if (preemptible) runningBatch.remove(this);
+            }
+        }
+
+        // Sets the request aside for a retry, or turns it away once it waited too long
+        private boolean defer(WritableByteChannel out) throws IOException {
+            long now = System.nanoTime();
+            if (deferredSinceNanos == 0) {
+                deferredSinceNanos = now;
+                deferred.incrementAndGet();
+            }
+            if (now - deferredSinceNanos >= TimeUnit.MILLISECONDS.toNanos(maxDeferMillis) || !running) {
+                rejected.incrementAndGet();
+                MazeFrames.writeError(out, "Server busy, try again later");
+                return false;
+            }
+            control.schedule(() -> dispatch(this), DEFER_RETRY_MS, TimeUnit.MILLISECONDS);
+            return true;
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // the client is gone either way
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("MazeGame:type=AdaptiveServer,port=" + port);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+                mbeanName = name;
+            }
+        } catch (Exception e) {
+            LOG.warn("Could not register the adaptive server MBean", e);
+        }
+    }
+
+    private void unregisterMBean() {
+        if (mbeanName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+        } catch (Exception e) {
+            LOG.debug("Could not unregister the adaptive server MBean", e);
+        }
+        mbeanName = null;
+    }
+
+    // =================== Metrics ===================
+
+    @Override
+    public int getConcurrencyLimit() {
+        return controller.getLimit();
+    }
+
+    @Override
+    public int getActiveWorkers() {
+        return active.get();
+    }
+
+    @Override
+    public int getQueuedConnections() {
+        return workers.getQueue().size();
+    }
+
+    @Override
+    public double getQueueDelayMillis() {
+        return controller.getQueueDelayMillis();
+    }
+
+    @Override
+    public double getServiceMillis() {
+        return controller.getServiceMillis();
+    }
+
+    @Override
+    public double getCpuLoad() {
+        return controller.getCpuLoad();
+    }
+
+    @Override
+    public double getGradient() {
+        return controller.getGradient();
+    }
+
+    @Override
+    public boolean isSaturated() {
+        return controller.isSaturated();
+    }
+
+    @Override
+    public long getAdmittedCount() {
+        return admitted.get();
+    }
+
+    @Override
+    public long getDeferredCount() {
+        return deferred.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public int getQueuedBatchConnections() {
+        return lanes.size(LaneQueue.Lane.BATCH);
+    }
+
+    @Override
+    public long getPreemptedCount() {
+        return preempted.get();
+    }
+
+    @Override
+    public long getLimitChangeCount() {
+        return limitChanges.get();
+    }
+}
@@ -0,0 +1,92 @@
+package Protocol;
+
+import Model.MazeStore;
+import Model.SingleFlight;
+import Server.IServerStrategy;
+import Server.ServerStrategySolveSearchProblem;
+import algorithms.mazeGenerators.Maze;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Object-stream solve strategy that lets concurrent requests for the same maze
+ * share one search. The JAR's {@code ServerStrategySolveSearchProblem} only checks
+ * its solution cache before solving, so a burst of identical requests all miss and
+ * all solve; here the first request for a maze runs the wrapped strategy and the
+ * others arriving meanwhile wait for its answer and get the same bytes.
+ *
+ * The wrapped strategy still does the actual work, so its in-memory and file
+ * caches keep serving requests that come after the burst.
+ */
+public class CoalescingSolveStrategy implements IServerStrategy {
+
+    private static final Logger LOG = LogManager.getLogger(CoalescingSolveStrategy.class);
+
+    // An object stream starts with a 4-byte header (magic and version), written on construction
+    private static final int STREAM_HEADER_BYTES = 4;
+
+    private final IServerStrategy solver;
+    private final SingleFlight<String, byte[]> inFlight = new SingleFlight<>();
+
+    /**
+     * @param solver strategy that answers one object-stream solve request
+     */
+    public CoalescingSolveStrategy(IServerStrategy solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Coalesces requests in front of the JAR's solve strategy.
+     */
+    public CoalescingSolveStrategy() {
+        this(new ServerStrategySolveSearchProblem());
+    }
+
+    @Override
+    public void applyStrategy(InputStream inFromClient, OutputStream outToClient) {
+        try {
+            // Same order as the JAR's strategy: the client waits for our stream header
+            ObjectInputStream in = new ObjectInputStream(inFromClient);
+            ObjectOutputStream out = new ObjectOutputStream(outToClient);
+            out.flush();
+            Maze maze = (Maze) in.readObject();
+
+            byte[] answer = inFlight.run(MazeStore.hash(maze.toByteArray()), () -> solve(maze));
+            if (answer.length > STREAM_HEADER_BYTES) {
+                // The header was already sent; the rest is the serialized solution
+                outToClient.write(answer, STREAM_HEADER_BYTES, answer.length - STREAM_HEADER_BYTES);
+                outToClient.flush();
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOG.warn("Solve request failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return number of requests that shared another request's search
+     */
+    public long getCoalescedCount() {
+        return inFlight.getSharedCount();
+    }
+
+    // Runs the wrapped strategy on a replayed request and captures its answer
+    private byte[] solve(Maze maze) {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(request)) {
+            out.writeObject(maze);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize the maze", e);
+        }
+        ByteArrayOutputStream answer = new ByteArrayOutputStream();
+        solver.applyStrategy(new ByteArrayInputStream(request.toByteArray()), answer);
+        return answer.toByteArray();
+    }
+}
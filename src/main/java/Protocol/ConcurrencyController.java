@@ -0,0 +1,206 @@
+package Protocol;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides how many requests a server works on at once, from what it observes
+ * over each control interval:
+ * <ul>
+ *     <li>Little's law: keeping up with {@code arrival rate x mean service time}
+ *         requests needs that many workers. When requests wait in the queue longer
+ *         than the target delay, the limit grows towards that estimate (plus headroom)</li>
+ *     <li>Gradient: when the CPU is saturated, more workers only slow each other down.
+ *         Growth stops and the limit shrinks by the ratio of the best service time per
+ *         maze cell seen recently to the current one</li>
+ *     <li>When there is more capacity than the estimate needs, the limit decays slowly</li>
+ * </ul>
+ * The queue delay is the mean wait of the requests started in the interval, or the
+ * age of the oldest request still waiting if that is larger: while every worker is
+ * stuck on long jobs nothing starts, yet the backlog keeps ageing.
+ *
+ * Changes are smoothed and clamped to {@code [minLimit, maxLimit]}. The server is
+ * considered saturated when the CPU is at its ceiling or the queue delay stays over
+ * target although the limit cannot grow any further.
+ *
+ * The record methods are called by workers; {@link #update} by one control thread.
+ */
+public class ConcurrencyController {
+
+    private static final double HEADROOM = 0.2;
+    private static final double SMOOTHING = 0.5;
+    private static final double DECAY = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+    // The per-cell baseline is a minimum that is let drift up, so it follows a changing workload
+    private static final double BASELINE_DRIFT = 1.05;
+    private static final double QUEUE_DELAY_EWMA_WEIGHT = 0.3;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetQueueDelayNanos;
+    private final double cpuCeiling;
+
+    private final LongAdder arrivals = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder queueDelayNanos = new LongAdder();
+    private final LongAdder completions = new LongAdder();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final LongAdder sizedServiceNanos = new LongAdder();
+    private final LongAdder sizedCells = new LongAdder();
+
+    private volatile double limit;
+    private volatile double queueDelayEwmaNanos;
+    private volatile double cpuLoad;
+    private volatile boolean saturated;
+    private double meanServiceNanos;
+    private double baselineNanosPerCell = Double.NaN;
+    private double gradient = 1.0;
+
+    /**
+     * @param initialLimit starting concurrency
+     * @param minLimit lowest concurrency the controller may choose
+     * @param maxLimit highest concurrency the controller may choose
+     * @param targetQueueDelayMillis queueing delay above which the limit grows
+     * @param cpuCeiling CPU utilisation (0..1) above which the limit does not grow
+     */
+    public ConcurrencyController(int initialLimit, int minLimit, int maxLimit,
+                                 long targetQueueDelayMillis, double cpuCeiling) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits " + minLimit + ".." + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetQueueDelayNanos = targetQueueDelayMillis * 1_000_000L;
+        this.cpuCeiling = cpuCeiling;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * A connection was accepted.
+     */
+    public void arrived() {
+        arrivals.increment();
+    }
+
+    /**
+     * A worker picked up a connection after it waited {@code queueDelay} nanoseconds.
+     */
+    public void started(long queueDelay) {
+        started.increment();
+        queueDelayNanos.add(queueDelay);
+    }
+
+    /**
+     * A request was answered.
+     *
+     * @param service nanoseconds the worker spent on it
+     * @param cells maze cells of the request, or 0 if unknown (object-stream requests)
+     */
+    public void finished(long service, long cells) {
+        completions.increment();
+        serviceNanos.add(service);
+        if (cells > 0) {
+            sizedServiceNanos.add(service);
+            sizedCells.add(cells);
+        }
+    }
+
+    /**
+     * Ends a control interval and chooses the limit for the next one.
+     *
+     * @param intervalNanos length of the interval that ended
+     * @param cpu CPU utilisation during the interval, 0..1 (negative if unknown)
+     * @param oldestQueuedNanos how long the oldest request not yet started has waited, 0 if none
+     * @return the new limit
+     */
+    public synchronized int update(long intervalNanos, double cpu, long oldestQueuedNanos) {
+        long arrived = arrivals.sumThenReset();
+        long startedCount = started.sumThenReset();
+        long delay = queueDelayNanos.sumThenReset();
+        long completed = completions.sumThenReset();
+        long service = serviceNanos.sumThenReset();
+        long sizedService = sizedServiceNanos.sumThenReset();
+        long cells = sizedCells.sumThenReset();
+
+        cpuLoad = Math.max(0, cpu);
+        if (startedCount > 0 || oldestQueuedNanos > 0) {
+            double meanDelay = startedCount > 0 ? (double) delay / startedCount : 0;
+            double sample = Math.max(meanDelay, oldestQueuedNanos);
+            queueDelayEwmaNanos += QUEUE_DELAY_EWMA_WEIGHT * (sample - queueDelayEwmaNanos);
+        } else if (arrived == 0) {
+            queueDelayEwmaNanos *= 1 - QUEUE_DELAY_EWMA_WEIGHT;
+        }
+        if (completed > 0) {
+            meanServiceNanos = (double) service / completed;
+        }
+        if (cells > 0) {
+            double perCell = (double) sizedService / cells;
+            baselineNanosPerCell = Double.isNaN(baselineNanosPerCell)
+                    ? perCell : Math.min(baselineNanosPerCell * BASELINE_DRIFT, perCell);
+            gradient = Math.max(MIN_GRADIENT, Math.min(1.0, baselineNanosPerCell / perCell));
+        }
+
+        // Little's law: workers busy at once to serve this arrival rate at this service time
+        double arrivalRate = arrived * 1e9 / intervalNanos;
+        double needed = arrivalRate * meanServiceNanos / 1e9 * (1 + HEADROOM);
+        boolean cpuSaturated = cpuLoad >= cpuCeiling;
+        boolean queueing = queueDelayEwmaNanos > targetQueueDelayNanos;
+
+        double candidate;
+        if (queueing) {
+            candidate = Math.max(limit + 1, needed);
+        } else if (needed < limit) {
+            candidate = Math.max(needed, limit * DECAY);
+        } else {
+            candidate = limit;
+        }
+        if (cpuSaturated) {
+            candidate = Math.min(candidate, limit) * gradient;
+        }
+        double next = limit + SMOOTHING * (candidate - limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+        saturated = cpuSaturated || (queueing && limit >= maxLimit);
+        return getLimit();
+    }
+
+    /**
+     * @return current concurrency limit
+     */
+    public int getLimit() {
+        return (int) Math.round(limit);
+    }
+
+    /**
+     * @return true if large requests should be deferred or rejected
+     */
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    /**
+     * @return smoothed queueing delay in milliseconds
+     */
+    public double getQueueDelayMillis() {
+        return queueDelayEwmaNanos / 1e6;
+    }
+
+    /**
+     * @return CPU utilisation seen by the last update, 0..1
+     */
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    /**
+     * @return mean service time of the last interval with completions, in milliseconds
+     */
+    public synchronized double getServiceMillis() {
+        return meanServiceNanos / 1e6;
+    }
+
+    /**
+     * @return ratio of the best recent service time per cell to the current one, 0.5..1
+     */
+    public synchronized double getGradient() {
+        return gradient;
+    }
+}
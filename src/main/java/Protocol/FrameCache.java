@@ -0,0 +1,113 @@
+package Protocol;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Directory of cached frame files, one per key, holding at most
+ * {@code maze.frameCacheEntries} files (10000 unless set). When it is full the
+ * least recently sent file is deleted. Files left by an earlier run are adopted,
+ * oldest first. There is one cache per directory in a JVM, so strategies sharing
+ * a maze store also share its limit.
+ */
+final class FrameCache {
+
+    private static final Logger LOG = LogManager.getLogger(FrameCache.class);
+
+    private static final int MAX_ENTRIES = Integer.getInteger("maze.frameCacheEntries", 10_000);
+    private static final String SUFFIX = ".frame";
+    private static final Map<Path, FrameCache> CACHES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    // Access-ordered map = LRU of the cached keys; an evicted key's file is deleted
+    private final Map<String, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            if (size() <= MAX_ENTRIES) return false;
+            try {
+                Files.deleteIfExists(path(eldest.getKey()));
+            } catch (IOException e) {
+                LOG.debug("Could not evict cached frame {}: {}", eldest.getKey(), e.getMessage());
+            }
+            return true;
+        }
+    };
+
+    private FrameCache(Path directory) {
+        this.directory = directory;
+        if (!Files.isDirectory(directory)) return;
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> existing = files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(FrameCache::lastModified))
+                    .toList();
+            for (Path file : existing) {
+                String name = file.getFileName().toString();
+                keys.put(name.substring(0, name.length() - SUFFIX.length()), Boolean.TRUE);
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not list the frame cache in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the cache of the given directory, shared by all its users in this JVM
+     */
+    static FrameCache of(Path directory) {
+        return CACHES.computeIfAbsent(directory.toAbsolutePath().normalize(), FrameCache::new);
+    }
+
+    /**
+     * Sends the cached frame of a key.
+     *
+     * @return false if the key is not cached; nothing was sent then
+     */
+    boolean transfer(String key, WritableByteChannel out) throws IOException {
+        synchronized (this) {
+            if (keys.get(key) == null) return false;
+        }
+        try {
+            MazeFrames.transferFile(path(key), out);
+            return true;
+        } catch (NoSuchFileException e) {
+            // Evicted, or deleted behind our back, before it could be opened
+            synchronized (this) {
+                keys.remove(key);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Caches a small frame under a key, evicting the least recently used one if the cache is full.
+     */
+    void put(String key, FrameType type, byte[] body) throws IOException {
+        MazeFrames.writeFile(path(key), type, body);
+        synchronized (this) {
+            keys.put(key, Boolean.TRUE);
+        }
+    }
+
+    private Path path(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package Protocol;
+
+import Model.SolveStatus;
+import Model.SolverAlgorithm;
+import algorithms.mazeGenerators.Position;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Fixed-size header in front of every frame. Layout (big-endian, 40 bytes):
+ * <pre>
+ *     int   magic "MZFR"      byte version   byte type   byte algorithm   byte status
+ *     int   rows              int cols
+ *     int   startRow          int startCol   int goalRow  int goalCol
+ *     long  bodyLength
+ * </pre>
+ * The algorithm is a {@link SolverAlgorithm} ordinal, or -1 for the server's default.
+ * The status is a {@link SolveStatus} ordinal in solution frames - anything but
+ * {@code SOLVED} (0) marks a best-effort partial path - and 0 elsewhere.
+ * Unused positions are sent as -1.
+ */
+public class FrameHeader {
+
+    public static final int BYTES = 40;
+    static final int MAGIC = 0x4D5A4652; // "MZFR"
+    static final int VERSION = 1;
+
+    private final FrameType type;
+    private final SolverAlgorithm algorithm;
+    private final int rows;
+    private final int cols;
+    private final Position start;
+    private final Position goal;
+    private final long bodyLength;
+    private final SolveStatus status;
+
+    public FrameHeader(FrameType type, SolverAlgorithm algorithm, int rows, int cols,
+                       Position start, Position goal, long bodyLength) {
+        this(type, algorithm, rows, cols, start, goal, bodyLength, null);
+    }
+
+    private FrameHeader(FrameType type, SolverAlgorithm algorithm, int rows, int cols,
+                        Position start, Position goal, long bodyLength, SolveStatus status) {
+        this.type = type;
+        this.algorithm = algorithm;
+        this.rows = rows;
+        this.cols = cols;
+        this.start = start;
+        this.goal = goal;
+        this.bodyLength = bodyLength;
+        this.status = status;
+    }
+
+    /**
+     * Header of a frame that carries only a body (solution, error, fetch).
+     */
+    public FrameHeader(FrameType type, long bodyLength) {
+        this(type, null, 0, 0, null, null, bodyLength);
+    }
+
+    /**
+     * Header of a solution frame for a solve that ended with the given status.
+     */
+    public FrameHeader(SolveStatus status, long bodyLength) {
+        this(FrameType.SOLUTION, null, 0, 0, null, null, bodyLength, status);
+    }
+
+    public FrameType getType() {
+        return type;
+    }
+
+    /**
+     * @return the requested algorithm, or null for the server's default
+     */
+    public SolverAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return cols;
+    }
+
+    public Position getStart() {
+        return start;
+    }
+
+    public Position getGoal() {
+        return goal;
+    }
+
+    public long getBodyLength() {
+        return bodyLength;
+    }
+
+    /**
+     * @return how the solve ended, for solution frames; null for other frames
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Puts the header into a buffer (which must have {@link #BYTES} remaining).
+     */
+    public void write(ByteBuffer out) {
+        out.putInt(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) type.getCode())
+                .put((byte) (algorithm != null ? algorithm.ordinal() : -1))
+                .put((byte) (status != null ? status.ordinal() : 0))
+                .putInt(rows)
+                .putInt(cols);
+        putPosition(out, start);
+        putPosition(out, goal);
+        out.putLong(bodyLength);
+    }
+
+    /**
+     * @return the header in a buffer ready to be written
+     */
+    public ByteBuffer toBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES);
+        write(buffer);
+        return buffer.flip();
+    }
+
+    /**
+     * Reads a header from a channel.
+     *
+     * @throws EOFException if the channel ends before a complete header
+     * @throws IOException if the bytes are not a valid header
+     */
+    public static FrameHeader read(ReadableByteChannel in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES);
+        MazeFrames.readFully(in, buffer);
+        return read(buffer.flip());
+    }
+
+    /**
+     * Reads a header from a buffer.
+     *
+     * @throws IOException if the bytes are not a valid header
+     */
+    public static FrameHeader read(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a maze frame");
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported frame version: " + version);
+        }
+        FrameType type = FrameType.fromCode(in.get());
+        if (type == null) {
+            throw new IOException("Unknown frame type");
+        }
+        int algorithmCode = in.get();
+        int statusCode = in.get();
+        SolverAlgorithm[] algorithms = SolverAlgorithm.values();
+        SolverAlgorithm algorithm = algorithmCode >= 0 && algorithmCode < algorithms.length
+                ? algorithms[algorithmCode] : null;
+        int rows = in.getInt();
+        int cols = in.getInt();
+        Position start = getPosition(in);
+        Position goal = getPosition(in);
+        long bodyLength = in.getLong();
+        if (rows < 0 || cols < 0 || bodyLength < 0) {
+            throw new IOException("Corrupt frame header");
+        }
+        SolveStatus status = null;
+        if (type == FrameType.SOLUTION) {
+            SolveStatus[] statuses = SolveStatus.values();
+            if (statusCode < 0 || statusCode >= statuses.length) {
+                throw new IOException("Unknown solve status: " + statusCode);
+            }
+            status = statuses[statusCode];
+        }
+        return new FrameHeader(type, algorithm, rows, cols, start, goal, bodyLength, status);
+    }
+
+    private static void putPosition(ByteBuffer out, Position position) {
+        out.putInt(position != null ? position.getRowIndex() : -1);
+        out.putInt(position != null ? position.getColumnIndex() : -1);
+    }
+
+    private static Position getPosition(ByteBuffer in) {
+        int row = in.getInt();
+        int col = in.getInt();
+        return row >= 0 && col >= 0 ? new Position(row, col) : null;
+    }
+}
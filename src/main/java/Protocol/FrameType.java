@@ -0,0 +1,39 @@
+package Protocol;
+
+/**
+ * Kinds of frames in the binary maze protocol. Requests go from client to
+ * server; every request is answered by exactly one response frame.
+ */
+public enum FrameType {
+    GENERATE_REQUEST(1),  // header: rows, cols; no body
+    SOLVE_REQUEST(2),     // header: maze size, start, goal, algorithm; body: packed maze
+    FETCH_REQUEST(3),     // body: SHA-256 of a maze in the server's MazeStore
+    MAZE(10),             // header: maze size, start, goal; body: packed maze
+    SOLUTION(11),         // body: CompactSolution
+    ERROR(12);            // body: UTF-8 message
+
+    private static final FrameType[] BY_CODE = new FrameType[16];
+
+    static {
+        for (FrameType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    FrameType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the type with this wire code, or null if unknown
+     */
+    public static FrameType fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
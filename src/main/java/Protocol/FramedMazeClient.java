@@ -0,0 +1,186 @@
+package Protocol;
+
+import IO.MyDecompressorInputStream;
+import Model.CompactSolution;
+import Model.IMazeGrid;
+import Model.PackedMazeGrid;
+import Model.SolveResult;
+import Model.SolveStatus;
+import Model.SolverAlgorithm;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.Position;
+import algorithms.search.Solution;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.HexFormat;
+
+/**
+ * Client of the binary maze protocol. Each call opens one connection, like the
+ * JAR's {@code Client}. Received mazes stay bit-packed in a direct buffer.
+ *
+ * If a framed request cannot be sent or gets no framed answer (a server that
+ * only speaks the object-stream protocol drops the connection), generate and
+ * solve are retried once with the JAR's protocol; this can be turned off.
+ */
+public class FramedMazeClient {
+
+    private static final Logger LOG = LogManager.getLogger(FramedMazeClient.class);
+
+    private final InetSocketAddress address;
+    private boolean legacyFallback = true;
+
+    public FramedMazeClient(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    /**
+     * Enables or disables retrying with the object-stream protocol.
+     */
+    public void setLegacyFallback(boolean legacyFallback) {
+        this.legacyFallback = legacyFallback;
+    }
+
+    /**
+     * Asks the server for a new maze.
+     */
+    public PackedMazeGrid generate(int rows, int cols) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            FrameHeader response;
+            try {
+                MazeFrames.writeFully(channel, new FrameHeader(FrameType.GENERATE_REQUEST, null, rows, cols,
+                        null, null, 0).toBuffer());
+                response = FrameHeader.read(channel);
+            } catch (IOException e) {
+                if (!legacyFallback) throw e;
+                LOG.debug("No framed answer from {} ({}), retrying with object streams", address, e.getMessage());
+                return legacyGenerate(rows, cols);
+            }
+            return readMazeResponse(channel, response);
+        }
+    }
+
+    /**
+     * Asks the server to solve a maze.
+     *
+     * @param algorithm algorithm to use, or null for the server's default
+     * @throws IOException also if the server's solve budget ran out before the goal
+     */
+    public CompactSolution solve(IMazeGrid grid, Position start, Position goal, SolverAlgorithm algorithm)
+            throws IOException {
+        SolveResult result = solveBestEffort(grid, start, goal, algorithm);
+        if (!result.isComplete()) {
+            throw new IOException("Solve stopped early: " + result.getStatus());
+        }
+        return result.getPath();
+    }
+
+    /**
+     * Asks the server to solve a maze, accepting a partial path from a server that
+     * limits its solves: the result's status tells whether the path reaches the goal.
+     * The node count is not sent and is always 0.
+     *
+     * @param algorithm algorithm to use, or null for the server's default
+     */
+    public SolveResult solveBestEffort(IMazeGrid grid, Position start, Position goal, SolverAlgorithm algorithm)
+            throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            FrameHeader response;
+            try {
+                MazeFrames.writeMaze(channel, FrameType.SOLVE_REQUEST, algorithm, grid, start, goal);
+                response = FrameHeader.read(channel);
+            } catch (IOException e) {
+                if (!legacyFallback) throw e;
+                LOG.debug("No framed answer from {} ({}), retrying with object streams", address, e.getMessage());
+                CompactSolution solution = legacySolve(grid, start, goal);
+                return new SolveResult(solution, solution != null ? SolveStatus.SOLVED : SolveStatus.NO_SOLUTION, 0);
+            }
+            if (response.getType() == FrameType.ERROR) throw MazeFrames.readError(channel, response);
+            if (response.getType() != FrameType.SOLUTION) {
+                throw new IOException("Unexpected response: " + response.getType());
+            }
+            return new SolveResult(MazeFrames.readSolution(channel, response), response.getStatus(), 0);
+        }
+    }
+
+    /**
+     * Fetches a maze from the server's maze store.
+     *
+     * @param hash hex SHA-256 of the maze, as used by {@link Model.MazeStore}
+     */
+    public PackedMazeGrid fetch(String hash) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            MazeFrames.writeFrame(channel, FrameType.FETCH_REQUEST, HexFormat.of().parseHex(hash));
+            return readMazeResponse(channel, FrameHeader.read(channel));
+        }
+    }
+
+    private static PackedMazeGrid readMazeResponse(SocketChannel channel, FrameHeader response) throws IOException {
+        if (response.getType() == FrameType.ERROR) throw MazeFrames.readError(channel, response);
+        if (response.getType() != FrameType.MAZE) {
+            throw new IOException("Unexpected response: " + response.getType());
+        }
+        return MazeFrames.readMaze(channel, response);
+    }
+
+    // =================== Object-stream protocol ===================
+
+    // Same exchange as the JAR's generate clients: int[]{rows, cols} in, compressed maze bytes out
+    private PackedMazeGrid legacyGenerate(int rows, int cols) throws IOException {
+        try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+            out.writeObject(new int[]{rows, cols});
+            out.flush();
+            byte[] compressed = (byte[]) in.readObject();
+            byte[] mazeBytes = new byte[rows * cols + 12];
+            new MyDecompressorInputStream(new ByteArrayInputStream(compressed)).read(mazeBytes);
+            return pack(new Maze(mazeBytes));
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unexpected answer from " + address, e);
+        }
+    }
+
+    private CompactSolution legacySolve(IMazeGrid grid, Position start, Position goal) throws IOException {
+        Maze maze = grid instanceof PackedMazeGrid
+                ? ((PackedMazeGrid) grid).toMaze()
+                : new Maze(grid.getRegion(0, 0, grid.getRows(), grid.getColumns()), start, goal);
+        try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+            out.writeObject(maze);
+            out.flush();
+            Solution solution = (Solution) in.readObject();
+            return solution != null ? CompactSolution.fromPath(solution.getSolutionPath()) : null;
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unexpected answer from " + address, e);
+        }
+    }
+
+    private static PackedMazeGrid pack(Maze maze) {
+        int[][] cells = maze.getMaze();
+        int rows = cells.length;
+        int cols = rows > 0 ? cells[0].length : 0;
+        ByteBuffer packed = ByteBuffer.allocateDirect((int) PackedMazeGrid.packedBytes(rows, cols));
+        long index = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++, index++) {
+                if (cells[r][c] != 0) {
+                    int at = (int) (index >>> 3);
+                    packed.put(at, (byte) (packed.get(at) | (1 << (index & 7))));
+                }
+            }
+        }
+        return new PackedMazeGrid(rows, cols, maze.getStartPosition(), maze.getGoalPosition(), packed);
+    }
+}
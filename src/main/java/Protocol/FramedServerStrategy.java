@@ -0,0 +1,322 @@
+package Protocol;
+
+import Model.ArrayMazeGrid;
+import Model.BudgetExceededException;
+import Model.BudgetedSearch;
+import Model.CancellableSearchable;
+import Model.CompactSolution;
+import Model.MazeStore;
+import Model.PackedMazeGrid;
+import Model.ParallelBreadthFirstSearch;
+import Model.SearchCancelledException;
+import Model.SingleFlight;
+import Model.SolveBudget;
+import Model.SolveResult;
+import Model.SolveStatus;
+import Model.SolverAlgorithm;
+import Server.Configurations;
+import Server.IServerStrategy;
+import algorithms.mazeGenerators.EmptyMazeGenerator;
+import algorithms.mazeGenerators.IMazeGenerator;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.MyMazeGenerator;
+import algorithms.mazeGenerators.Position;
+import algorithms.mazeGenerators.SimpleMazeGenerator;
+import algorithms.search.SearchableMaze;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Server strategy for the binary maze protocol ({@link MazeFrames}) that still
+ * serves clients of the JAR's object-stream protocol: a connection that starts
+ * with the serialization magic {@code 0xACED} is handed to the legacy strategy
+ * unchanged, so it can be installed in place of {@code ServerStrategyGenerateMaze}
+ * or {@code ServerStrategySolveSearchProblem}.
+ *
+ * Framed requests:
+ * <ul>
+ *     <li>generate - a maze from the configured generator, streamed as a packed frame</li>
+ *     <li>solve - the packed maze is searched in place by the grid solver; the JAR's
+ *         searchers get an expanded copy. Solution frames are cached by request hash, in a
+ *         {@link FrameCache} of bounded size, and identical requests that arrive together share one search. With a
+ *         {@link #setSolveBudget budget}, a solve cut short is answered with its best partial path</li>
+ *     <li>fetch - a maze from the {@link MazeStore} by hash, sent from a cached frame file
+ *         with {@code transferTo}</li>
+ * </ul>
+ * Generate and solve requests for mazes larger than {@link MazeFrames#checkMazeSize} allows
+ * are answered with an error before anything is allocated for them.
+ */
+public class FramedServerStrategy implements IServerStrategy {
+
+    private static final Logger LOG = LogManager.getLogger(FramedServerStrategy.class);
+
+    // First two bytes of every Java object stream
+    private static final int OBJECT_STREAM_MAGIC = 0xACED;
+    private static final int HASH_BYTES = 32;
+
+    // Solves in progress, by request hash; shared by every strategy instance in this JVM
+    private static final SingleFlight<String, SolvedFrame> SOLVES = new SingleFlight<>();
+
+    private final IServerStrategy legacy;
+    private final MazeStore store;
+    private final Path frameCache;
+    private final FrameCache solutionCache;
+    private volatile SolveBudget solveBudget = SolveBudget.UNLIMITED;
+
+    /**
+     * @param legacy strategy for clients of the object-stream protocol
+     * @param store maze store for fetch requests and the frame cache, or null for neither
+     */
+    public FramedServerStrategy(IServerStrategy legacy, MazeStore store) {
+        this.legacy = legacy;
+        this.store = store;
+        this.frameCache = store != null ? store.getRoot().resolve("frames") : null;
+        this.solutionCache = frameCache != null ? FrameCache.of(frameCache.resolve("solutions")) : null;
+    }
+
+    /**
+     * Strategy backed by the game's default maze store.
+     */
+    public FramedServerStrategy(IServerStrategy legacy) {
+        this(legacy, MazeStore.getDefault());
+    }
+
+    /**
+     * Limits every solve from now on. A solve that reaches a limit is answered
+     * with the best partial path, marked with its status in the frame header.
+     */
+    public void setSolveBudget(SolveBudget solveBudget) {
+        this.solveBudget = solveBudget;
+    }
+
+    @Override
+    public void applyStrategy(InputStream inFromClient, OutputStream outToClient) {
+        try {
+            PushbackInputStream in = new PushbackInputStream(inFromClient, 2);
+            if (isObjectStream(in)) {
+                legacy.applyStrategy(in, outToClient);
+                return;
+            }
+            serve(Channels.newChannel(in), Channels.newChannel(outToClient));
+            outToClient.flush();
+        } catch (IOException e) {
+            LOG.warn("Framed request failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Answers one framed request. Works on any channels; given a socket channel,
+     * cached frames are sent by the kernel without passing through the heap.
+     */
+    public void serve(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        serve(FrameHeader.read(in), in, out);
+    }
+
+    /**
+     * Answers a framed request whose header the caller has already read,
+     * e.g. to decide whether to admit it.
+     */
+    public void serve(FrameHeader request, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        try {
+            switch (request.getType()) {
+                case GENERATE_REQUEST:
+                    generate(request, out);
+                    break;
+                case SOLVE_REQUEST:
+                    solve(request, in, out);
+                    break;
+                case FETCH_REQUEST:
+                    fetch(request, in, out);
+                    break;
+                default:
+                    MazeFrames.writeError(out, "Not a request: " + request.getType());
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not answer a {} request: {}", request.getType(), e.getMessage());
+            MazeFrames.writeError(out, e.getMessage());
+        }
+    }
+
+    /**
+     * Peeks at the first two bytes of a connection; they are pushed back.
+     *
+     * @return true if the client speaks the JAR's object-stream protocol
+     */
+    static boolean isObjectStream(PushbackInputStream in) throws IOException {
+        byte[] magic = in.readNBytes(2);
+        in.unread(magic);
+        return magic.length == 2 && ((magic[0] & 0xFF) << 8 | (magic[1] & 0xFF)) == OBJECT_STREAM_MAGIC;
+    }
+
+    private void generate(FrameHeader request, WritableByteChannel out) throws IOException {
+        MazeFrames.checkMazeSize(request);
+        Maze maze = createGenerator().generate(request.getRows(), request.getColumns());
+        MazeFrames.writeMaze(out, FrameType.MAZE, null, new ArrayMazeGrid(maze.getMaze()),
+                maze.getStartPosition(), maze.getGoalPosition());
+    }
+
+    private void solve(FrameHeader request, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        solve(request, MazeFrames.readMaze(in, request), out, () -> false);
+    }
+
+    /**
+     * Answers a solve request whose maze the caller has already read. The search
+     * can be stopped through {@code cancelled}; nothing is written then.
+     *
+     * @param cancelled checked while searching; must be cheap
+     * @throws SearchCancelledException if the search was cancelled
+     */
+    public void solve(FrameHeader request, PackedMazeGrid grid, WritableByteChannel out, BooleanSupplier cancelled)
+            throws IOException {
+        SolverAlgorithm algorithm = request.getAlgorithm() != null ? request.getAlgorithm() : configuredAlgorithm();
+
+        String key = requestHash(request, algorithm, grid);
+        if (solutionCache != null && solutionCache.transfer(key, out)) {
+            return;
+        }
+
+        // Identical requests arriving while this one is solved wait for its answer
+        SolveBudget budget = solveBudget;
+        String flight = budget.isUnlimited() ? key : key + "/" + budget;
+        SolvedFrame answer = null;
+        while (answer == null) {
+            try {
+                answer = SOLVES.run(flight, () -> solveFrame(grid, algorithm, budget, solutionCache, key, cancelled));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (SearchCancelledException e) {
+                // The search this request waited for was cancelled; try again unless it was our own
+                if (cancelled.getAsBoolean()) throw e;
+            }
+        }
+        if (answer.body == null) {
+            MazeFrames.writeError(out, answer.status == SolveStatus.NO_SOLUTION
+                    ? "The maze has no solution" : "Solve budget exceeded: " + answer.status);
+            return;
+        }
+        MazeFrames.writeSolution(out, answer.status, answer.body);
+    }
+
+    // A solution frame body (null if there is no path at all) and how the solve ended
+    private static final class SolvedFrame {
+        private final SolveStatus status;
+        private final byte[] body;
+
+        private SolvedFrame(SolveStatus status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    // Full solutions are also written to the frame cache; partial ones depend on the budget and are not
+    private static SolvedFrame solveFrame(PackedMazeGrid grid, SolverAlgorithm algorithm, SolveBudget budget,
+                                          FrameCache cache, String key, BooleanSupplier cancelled) {
+        SolveResult result;
+        if (algorithm.isGridSolver()) {
+            ParallelBreadthFirstSearch searcher = new ParallelBreadthFirstSearch();
+            searcher.setCancellation(cancelled);
+            searcher.setBudget(budget);
+            try {
+                CompactSolution found = searcher.solve(grid, grid.getStartPosition(), grid.getGoalPosition(), null);
+                result = new SolveResult(found, found != null ? SolveStatus.SOLVED : SolveStatus.NO_SOLUTION,
+                        searcher.getNodesEvaluated());
+            } catch (BudgetExceededException e) {
+                result = new SolveResult(searcher.getPartialSolution(), e.getStatus(), searcher.getNodesEvaluated());
+            }
+        } else {
+            result = BudgetedSearch.solve(algorithm.create(),
+                    new CancellableSearchable(new SearchableMaze(grid.toMaze()), cancelled), budget);
+        }
+
+        CompactSolution path = result.getPath();
+        if (result.getStatus() == SolveStatus.NO_SOLUTION || path == null) {
+            return new SolvedFrame(result.getStatus(), null);
+        }
+        Position end = result.isComplete() ? grid.getGoalPosition() : path.getEndPosition();
+        if (!path.validate(grid, grid.getStartPosition(), end)) {
+            return new SolvedFrame(result.isComplete() ? SolveStatus.NO_SOLUTION : result.getStatus(), null);
+        }
+
+        try {
+            byte[] body = MazeFrames.solutionBody(path);
+            if (cache != null && result.isComplete()) {
+                cache.put(key, FrameType.SOLUTION, body);
+            }
+            return new SolvedFrame(result.getStatus(), body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void fetch(FrameHeader request, ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        if (request.getBodyLength() != HASH_BYTES) {
+            throw new IOException("Fetch request must carry a 32-byte hash");
+        }
+        ByteBuffer body = MazeFrames.readSmallBody(in, request);
+        String hash = HexFormat.of().formatHex(body.array());
+        if (store == null) {
+            throw new IOException("This server has no maze store");
+        }
+
+        // The frame file is built on the first fetch and sent as-is from then on
+        Path frameFile = frameCache.resolve("mazes").resolve(hash + ".frame");
+        if (!Files.exists(frameFile)) {
+            MazeStore.Entry entry = store.get(hash);
+            if (entry == null) {
+                throw new IOException("Unknown maze " + hash);
+            }
+            Maze maze = new Maze(entry.getMazeBytes());
+            MazeFrames.writeMazeFile(frameFile, new ArrayMazeGrid(maze.getMaze()),
+                    maze.getStartPosition(), maze.getGoalPosition());
+        }
+        MazeFrames.transferFile(frameFile, out);
+    }
+
+    // Same choice as the JAR's ServerStrategyGenerateMaze
+    private static IMazeGenerator createGenerator() {
+        String name = Configurations.getInstance().getMazeGeneratingAlgorithm();
+        if ("SimpleMazeGenerator".equals(name)) return new SimpleMazeGenerator();
+        if ("EmptyMazeGenerator".equals(name)) return new EmptyMazeGenerator();
+        return new MyMazeGenerator();
+    }
+
+    private static SolverAlgorithm configuredAlgorithm() {
+        String name = Configurations.getInstance().getMazeSearchingAlgorithm();
+        if ("BreadthFirstSearch".equals(name)) return SolverAlgorithm.BREADTH_FIRST;
+        if ("DepthFirstSearch".equals(name)) return SolverAlgorithm.DEPTH_FIRST;
+        return SolverAlgorithm.BEST_FIRST;
+    }
+
+    // Key of a solve request: the packed maze, its start and goal and the algorithm
+    private static String requestHash(FrameHeader request, SolverAlgorithm algorithm, PackedMazeGrid grid) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer key = ByteBuffer.allocate(28);
+            key.putInt(request.getRows()).putInt(request.getColumns())
+                    .putInt(grid.getStartPosition().getRowIndex()).putInt(grid.getStartPosition().getColumnIndex())
+                    .putInt(grid.getGoalPosition().getRowIndex()).putInt(grid.getGoalPosition().getColumnIndex())
+                    .putInt(algorithm.ordinal());
+            digest.update(key.flip());
+            digest.update(grid.getBuffer().duplicate().clear());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package Protocol;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Work queue with an interactive and a batch lane, for a {@code ThreadPoolExecutor}.
+ * Workers take from the interactive lane first, but while both lanes have work
+ * every {@code batchShare}-th task comes from the batch lane, so batch jobs keep
+ * making progress under a steady stream of interactive requests.
+ *
+ * Tasks choose their lane by implementing {@link Laned}; others are interactive.
+ * The capacity bounds both lanes together.
+ */
+final class LaneQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    enum Lane {
+        INTERACTIVE, BATCH
+    }
+
+    /**
+     * A task that knows which lane it belongs in.
+     */
+    interface Laned {
+        Lane getLane();
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Runnable> interactive = new ArrayDeque<>();
+    private final ArrayDeque<Runnable> batch = new ArrayDeque<>();
+    private final int capacity;
+    private final int batchShare;
+    private int takenSinceBatch;
+
+    /**
+     * @param capacity tasks both lanes may hold together
+     * @param batchShare while both lanes are busy, one task in this many is a batch task
+     */
+    LaneQueue(int capacity, int batchShare) {
+        this.capacity = capacity;
+        this.batchShare = batchShare;
+    }
+
+    /**
+     * @return number of tasks waiting in one lane
+     */
+    int size(Lane lane) {
+        lock.lock();
+        try {
+            return lane == Lane.BATCH ? batch.size() : interactive.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the task that has waited longest in one lane, or null if it is empty
+     */
+    Runnable oldest(Lane lane) {
+        lock.lock();
+        try {
+            return lane == Lane.BATCH ? batch.peekFirst() : interactive.peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        lock.lock();
+        try {
+            if (interactive.size() + batch.size() >= capacity) return false;
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (interactive.size() + batch.size() >= capacity) {
+                if (nanos <= 0) return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (interactive.size() + batch.size() >= capacity) {
+                notFull.await();
+            }
+            enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (interactive.isEmpty() && batch.isEmpty()) {
+                if (nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (interactive.isEmpty() && batch.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            boolean batchTurn = !batch.isEmpty() && (interactive.isEmpty() || takenSinceBatch + 1 >= batchShare);
+            return batchTurn ? batch.peekFirst() : interactive.peekFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        lock.lock();
+        try {
+            boolean removed = interactive.remove(task) || batch.remove(task);
+            if (removed) notFull.signal();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return interactive.size() + batch.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - interactive.size() - batch.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            Runnable task;
+            while (drained < maxElements && (task = dequeue()) != null) {
+                target.add(task);
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A snapshot; the executor only uses it to look at and remove tasks
+    @Override
+    public Iterator<Runnable> iterator() {
+        lock.lock();
+        try {
+            List<Runnable> snapshot = new ArrayList<>(interactive.size() + batch.size());
+            snapshot.addAll(interactive);
+            snapshot.addAll(batch);
+            return snapshot.iterator();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(Runnable task) {
+        boolean isBatch = task instanceof Laned && ((Laned) task).getLane() == Lane.BATCH;
+        (isBatch ? batch : interactive).addLast(task);
+        notEmpty.signal();
+    }
+
+    private Runnable dequeue() {
+        if (interactive.isEmpty() && batch.isEmpty()) return null;
+        Runnable task;
+        if (!batch.isEmpty() && (interactive.isEmpty() || ++takenSinceBatch >= batchShare)) {
+            task = batch.pollFirst();
+            takenSinceBatch = 0;
+        } else {
+            task = interactive.pollFirst();
+        }
+        notFull.signal();
+        return task;
+    }
+}
@@ -0,0 +1,291 @@
+package Protocol;
+
+import Model.ArrayMazeGrid;
+import Model.CompactSolution;
+import Model.IMazeGrid;
+import Model.PackedMazeGrid;
+import Model.SolveStatus;
+import Model.SolverAlgorithm;
+import algorithms.mazeGenerators.Position;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reading and writing frames of the binary maze protocol.
+ * A frame is a {@link FrameHeader} followed by {@code bodyLength} bytes.
+ * Maze bodies are bit-packed ({@link PackedMazeGrid}) and streamed through a
+ * small direct buffer, so neither side builds an {@code int[][]} or a byte
+ * array the size of the maze; a maze frame saved to a file can be sent again
+ * with {@link #transferFile}, which lets the OS copy it straight to a socket.
+ */
+public final class MazeFrames {
+
+    // Direct buffer used to stream a maze body while it is packed
+    private static final int PACK_BUFFER_BYTES = 64 * 1024;
+    // Largest maze accepted from the other side, in cells (-Dmaze.maxFrameCells=N to change)
+    private static final long MAX_MAZE_CELLS = Long.getLong("maze.maxFrameCells", 100_000_000L);
+    // Largest solution or error body accepted: a solution takes at most a byte per cell after its 12-byte head
+    private static final long MAX_SMALL_BODY = Math.min(Integer.MAX_VALUE - 8, MAX_MAZE_CELLS + 16);
+
+    private MazeFrames() {
+    }
+
+    /**
+     * Writes a maze frame.
+     *
+     * @param type {@link FrameType#MAZE} or {@link FrameType#SOLVE_REQUEST}
+     * @param algorithm algorithm requested for a solve, or null
+     */
+    public static void writeMaze(WritableByteChannel out, FrameType type, SolverAlgorithm algorithm,
+                                 IMazeGrid grid, Position start, Position goal) throws IOException {
+        int rows = grid.getRows();
+        int cols = grid.getColumns();
+        long bodyLength = PackedMazeGrid.packedBytes(rows, cols);
+        writeFully(out, new FrameHeader(type, algorithm, rows, cols, start, goal, bodyLength).toBuffer());
+
+        if (grid instanceof PackedMazeGrid) {
+            // Already in wire format
+            ByteBuffer body = ((PackedMazeGrid) grid).getBuffer().duplicate();
+            body.clear().limit((int) bodyLength);
+            writeFully(out, body);
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(PACK_BUFFER_BYTES);
+        int bits = 0;
+        int pending = 0;
+        int[][] matrix = grid instanceof ArrayMazeGrid ? ((ArrayMazeGrid) grid).getCells() : null;
+        for (int r = 0; r < rows; r++) {
+            int[] row = matrix != null ? matrix[r] : null;
+            for (int c = 0; c < cols; c++) {
+                int cell = row != null ? row[c] : grid.getCell(r, c);
+                bits |= (cell & 1) << pending;
+                if (++pending == 8) {
+                    if (!buffer.hasRemaining()) {
+                        writeFully(out, buffer.flip());
+                        buffer.clear();
+                    }
+                    buffer.put((byte) bits);
+                    bits = 0;
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            if (!buffer.hasRemaining()) {
+                writeFully(out, buffer.flip());
+                buffer.clear();
+            }
+            buffer.put((byte) bits);
+        }
+        writeFully(out, buffer.flip());
+    }
+
+    /**
+     * Checks the maze size a frame declares against {@code maze.maxFrameCells}, before
+     * anything is allocated for it.
+     *
+     * @throws IOException if the maze is larger
+     */
+    public static void checkMazeSize(FrameHeader header) throws IOException {
+        long cells = (long) header.getRows() * header.getColumns();
+        if (cells > MAX_MAZE_CELLS) {
+            throw new IOException("Maze too large: " + header.getRows() + "x" + header.getColumns()
+                    + " cells, at most " + MAX_MAZE_CELLS + " accepted");
+        }
+    }
+
+    /**
+     * Reads the packed body of a maze frame into a direct buffer.
+     *
+     * @param header header of a {@link FrameType#MAZE} or {@link FrameType#SOLVE_REQUEST} frame
+     * @throws IOException if the maze is larger than {@link #checkMazeSize} allows, or the frame is malformed
+     */
+    public static PackedMazeGrid readMaze(ReadableByteChannel in, FrameHeader header) throws IOException {
+        checkMazeSize(header);
+        long expected = PackedMazeGrid.packedBytes(header.getRows(), header.getColumns());
+        if (header.getBodyLength() != expected || expected > Integer.MAX_VALUE) {
+            throw new IOException("Bad maze body length " + header.getBodyLength()
+                    + " for " + header.getRows() + "x" + header.getColumns());
+        }
+        if (header.getStart() == null || header.getGoal() == null) {
+            throw new IOException("Maze frame without start or goal");
+        }
+        checkInside(header, header.getStart(), "Start");
+        checkInside(header, header.getGoal(), "Goal");
+        ByteBuffer body = ByteBuffer.allocateDirect((int) expected);
+        readFully(in, body);
+        return new PackedMazeGrid(header.getRows(), header.getColumns(), header.getStart(), header.getGoal(),
+                body.flip());
+    }
+
+    private static void checkInside(FrameHeader header, Position position, String name) throws IOException {
+        if (position.getRowIndex() < 0 || position.getRowIndex() >= header.getRows()
+                || position.getColumnIndex() < 0 || position.getColumnIndex() >= header.getColumns()) {
+            throw new IOException(name + " " + position + " is outside the "
+                    + header.getRows() + "x" + header.getColumns() + " maze");
+        }
+    }
+
+    /**
+     * Writes a maze frame to a file, replacing it atomically, so it can be sent with {@link #transferFile}.
+     */
+    public static void writeMazeFile(Path target, IMazeGrid grid, Position start, Position goal) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeMaze(channel, FrameType.MAZE, null, grid, start, goal);
+            }
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Writes a small frame (solution, error, fetch request) to a file, replacing it atomically.
+     */
+    public static void writeFile(Path target, FrameType type, byte[] body) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeFrame(channel, type, body);
+            }
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Sends a frame file as-is. To a socket channel this is a kernel-side copy
+     * (sendfile); the frame never enters the Java heap.
+     *
+     * @return bytes sent
+     */
+    public static long transferFile(Path frameFile, WritableByteChannel out) throws IOException {
+        try (FileChannel channel = FileChannel.open(frameFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Writes a frame that carries only a small body.
+     */
+    public static void writeFrame(WritableByteChannel out, FrameType type, byte[] body) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(FrameHeader.BYTES + body.length);
+        new FrameHeader(type, body.length).write(frame);
+        frame.put(body);
+        writeFully(out, frame.flip());
+    }
+
+    /**
+     * Writes a solution frame; a status other than {@code SOLVED} marks the path as partial.
+     */
+    public static void writeSolution(WritableByteChannel out, SolveStatus status, byte[] body) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(FrameHeader.BYTES + body.length);
+        new FrameHeader(status, body.length).write(frame);
+        frame.put(body);
+        writeFully(out, frame.flip());
+    }
+
+    /**
+     * @return the bytes of a solution frame body
+     */
+    public static byte[] solutionBody(CompactSolution solution) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + solution.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            solution.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the body of a {@link FrameType#SOLUTION} frame.
+     */
+    public static CompactSolution readSolution(ReadableByteChannel in, FrameHeader header) throws IOException {
+        ByteBuffer body = readSmallBody(in, header);
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(body.array(), 0, body.limit()))) {
+            return CompactSolution.read(data);
+        }
+    }
+
+    /**
+     * Writes an error frame; the other side turns it into an IOException.
+     */
+    public static void writeError(WritableByteChannel out, String message) throws IOException {
+        writeFrame(out, FrameType.ERROR, String.valueOf(message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a small body (solution, error, fetch request) into a heap buffer.
+     */
+    public static ByteBuffer readSmallBody(ReadableByteChannel in, FrameHeader header) throws IOException {
+        if (header.getBodyLength() > MAX_SMALL_BODY) {
+            throw new IOException("Frame body too large: " + header.getBodyLength());
+        }
+        ByteBuffer body = ByteBuffer.allocate((int) header.getBodyLength());
+        readFully(in, body);
+        return body.flip();
+    }
+
+    /**
+     * Reads the body of an error frame and throws it.
+     */
+    static IOException readError(ReadableByteChannel in, FrameHeader header) throws IOException {
+        ByteBuffer body = readSmallBody(in, header);
+        return new IOException("Server error: " + StandardCharsets.UTF_8.decode(body));
+    }
+
+    /**
+     * Fills the buffer from the channel.
+     *
+     * @throws EOFException if the channel ends first
+     */
+    public static void readFully(ReadableByteChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                throw new EOFException("Connection closed in the middle of a frame");
+            }
+        }
+    }
+
+    /**
+     * Writes all remaining bytes of the buffer.
+     */
+    public static void writeFully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static void moveAtomically(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package Session;
+
+import Model.IModel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * One independent maze game hosted by the {@link GameSessionManager}.
+ * Each session owns its model. Work submitted through {@link #submit} runs on
+ * the manager's shared pool, but tasks of the same session run one after the
+ * other, since models are not thread-safe.
+ */
+public class GameSession {
+
+    private final int id;
+    private final String name;
+    private final IModel model;
+    private final Executor pool;
+    private final long createdMillis = System.currentTimeMillis();
+    private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+    GameSession(int id, String name, IModel model, Executor pool) {
+        this.id = id;
+        this.name = name;
+        this.model = model;
+        this.pool = pool;
+    }
+
+    /**
+     * Runs a task against this session's model on the shared pool, after all
+     * previously submitted tasks of this session have finished.
+     *
+     * @param task work to do with the model
+     * @return future with the task's result
+     */
+    public synchronized <T> CompletableFuture<T> submit(Function<IModel, T> task) {
+        CompletableFuture<T> result = tail.handle((ignored, error) -> null)
+                .thenApplyAsync(ignored -> task.apply(model), pool);
+        tail = result;
+        return result;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the session's model - only touch it from one thread at a time
+     */
+    public IModel getModel() {
+        return model;
+    }
+
+    public long getCreatedMillis() {
+        return createdMillis;
+    }
+
+    /**
+     * @return approximate memory held by the session's model, in bytes
+     */
+    public long estimateMemoryBytes() {
+        return model.estimateMemoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return "Session " + id + " (" + name + ")";
+    }
+}
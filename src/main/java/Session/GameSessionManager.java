@@ -0,0 +1,211 @@
+package Session;
+
+import Model.CompactSolution;
+import Model.IModel;
+import Model.MazeAnalysis;
+import Model.MyModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hosts many concurrent, independent maze sessions in one JVM.
+ * All sessions share one worker pool sized to the machine's cores; each session
+ * keeps its own model. Works the same with or without a UI, so it can drive
+ * game windows as well as headless tournament-style comparisons.
+ */
+public class GameSessionManager {
+
+    private static final GameSessionManager DEFAULT = new GameSessionManager(MyModel::new,
+            Runtime.getRuntime().availableProcessors());
+
+    private final Supplier<IModel> modelFactory;
+    private final ExecutorService pool;
+    private final Map<Integer, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private boolean sharedSolves; // whether the models share identical solves; only worth it with several sessions
+
+    /**
+     * @param modelFactory creates the model of each new session
+     * @param threads size of the shared worker pool
+     */
+    public GameSessionManager(Supplier<IModel> modelFactory, int threads) {
+        this.modelFactory = modelFactory;
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "session-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the manager shared by the game windows
+     */
+    public static GameSessionManager getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a new session with its own model.
+     *
+     * @param name display name of the session
+     */
+    public GameSession createSession(String name) {
+        int id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, name, modelFactory.get(), pool);
+        sessions.put(id, session);
+        updateSharedSolves(session);
+        return session;
+    }
+
+    /**
+     * Removes a session; its model becomes garbage once no view holds it.
+     * Maze storage outside the heap is freed as soon as the session's queued work is done.
+     */
+    public void closeSession(GameSession session) {
+        sessions.remove(session.getId());
+        updateSharedSolves(null);
+        session.submit(model -> {
+            model.releaseMaze();
+            return null;
+        });
+    }
+
+    // Turns solve sharing on while more than one session is open, and off again for a single one
+    private synchronized void updateSharedSolves(GameSession created) {
+        boolean shared = sessions.size() > 1;
+        boolean changed = shared != sharedSolves;
+        sharedSolves = shared;
+        for (GameSession open : sessions.values()) {
+            if (!changed && open != created) continue;
+            open.submit(model -> {
+                model.setSharedSolves(shared);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Stops the shared pool on exit: queued session work is dropped and running work
+     * is interrupted. No session can run work afterwards.
+     */
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * @return the open sessions
+     */
+    public Collection<GameSession> getSessions() {
+        return sessions.values();
+    }
+
+    /**
+     * @return approximate memory held by all sessions, in bytes
+     */
+    public long estimateTotalMemoryBytes() {
+        long total = 0;
+        for (GameSession session : sessions.values()) {
+            total += session.estimateMemoryBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Headless tournament: creates {@code count} sessions, generates and solves one
+     * maze in each, all in parallel on the shared pool. Each maze is analysed after it
+     * is solved, outside the timing. The sessions are closed afterwards.
+     *
+     * @param count number of sessions
+     * @param rows maze rows
+     * @param cols maze columns
+     * @return one entry per session, in creation order
+     */
+    public List<TournamentEntry> runTournament(int count, int rows, int cols) {
+        List<GameSession> players = new ArrayList<>(count);
+        List<CompletableFuture<TournamentEntry>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GameSession session = createSession("tournament-" + i);
+            players.add(session);
+            futures.add(session.submit(model -> {
+                model.setBackgroundAnalysis(false); // analysed after the timed part
+                long start = System.nanoTime();
+                model.generateMaze(rows, cols);
+                model.solveMaze();
+                long elapsed = System.nanoTime() - start;
+                CompactSolution solution = model.getCompactSolution();
+                MazeAnalysis analysis = model.getMazeAnalysis().join();
+                return new TournamentEntry(session.getId(), solution != null ? solution.size() : 0,
+                        model.getNumberOfNodesEvaluated(), elapsed / 1e6, model.estimateMemoryBytes(),
+                        analysis != null ? analysis.getDifficulty() : Double.NaN);
+            }));
+        }
+
+        try {
+            List<TournamentEntry> entries = new ArrayList<>(count);
+            for (CompletableFuture<TournamentEntry> future : futures) {
+                entries.add(future.join());
+            }
+            return entries;
+        } finally {
+            players.forEach(this::closeSession);
+        }
+    }
+
+    /**
+     * Result of one session in a tournament.
+     */
+    public static class TournamentEntry {
+        private final int sessionId;
+        private final int pathLength;
+        private final int nodesEvaluated;
+        private final double millis;
+        private final long memoryBytes;
+        private final double difficulty;
+
+        TournamentEntry(int sessionId, int pathLength, int nodesEvaluated, double millis, long memoryBytes,
+                        double difficulty) {
+            this.sessionId = sessionId;
+            this.pathLength = pathLength;
+            this.nodesEvaluated = nodesEvaluated;
+            this.millis = millis;
+            this.memoryBytes = memoryBytes;
+            this.difficulty = difficulty;
+        }
+
+        public int getSessionId() {
+            return sessionId;
+        }
+
+        public int getPathLength() {
+            return pathLength;
+        }
+
+        public int getNodesEvaluated() {
+            return nodesEvaluated;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        public long getMemoryBytes() {
+            return memoryBytes;
+        }
+
+        /**
+         * @return difficulty score of the session's maze, or NaN if it was not analysed
+         */
+        public double getDifficulty() {
+            return difficulty;
+        }
+    }
+}
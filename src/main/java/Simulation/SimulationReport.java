@@ -0,0 +1,74 @@
+package Simulation;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Writes simulation results as CSV: one row per maze, plus a summary file with
+ * aggregate statistics (mean and percentiles) of every measured column.
+ */
+public class SimulationReport {
+
+    private final List<SimulationResult> results;
+
+    public SimulationReport(List<SimulationResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Writes one row per maze.
+     */
+    public void writeDetails(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("index,rows,cols,generate_ms,solve_ms,path_length,nodes_evaluated,difficulty,valid,error");
+            for (SimulationResult r : results) {
+                out.printf(Locale.ROOT, "%d,%d,%d,%.3f,%.3f,%d,%d,%s,%b,%s%n",
+                        r.getIndex(), r.getRows(), r.getCols(), r.getGenerateMillis(), r.getSolveMillis(),
+                        r.getPathLength(), r.getNodesEvaluated(),
+                        Double.isNaN(r.getDifficulty()) ? "" : String.format(Locale.ROOT, "%.1f", r.getDifficulty()),
+                        r.isValid(),
+                        r.getError() == null ? "" : "\"" + r.getError().replace("\"", "'") + "\"");
+            }
+        }
+    }
+
+    /**
+     * Writes aggregate statistics, one row per metric.
+     */
+    public void writeSummary(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("metric,count,mean,min,p50,p95,p99,max");
+            writeMetric(out, "generate_ms", SimulationResult::getGenerateMillis);
+            writeMetric(out, "solve_ms", SimulationResult::getSolveMillis);
+            writeMetric(out, "path_length", SimulationResult::getPathLength);
+            writeMetric(out, "nodes_evaluated", SimulationResult::getNodesEvaluated);
+            writeMetric(out, "difficulty", SimulationResult::getDifficulty);
+            out.printf(Locale.ROOT, "invalid,%d,,,,,,%n", results.stream().filter(r -> !r.isValid()).count());
+        }
+    }
+
+    private void writeMetric(PrintWriter out, String name, ToDoubleFunction<SimulationResult> metric) {
+        // Mazes that were not measured (e.g. off-heap ones have no difficulty) are NaN
+        double[] values = results.stream().filter(r -> r.getError() == null).mapToDouble(metric)
+                .filter(value -> !Double.isNaN(value)).sorted().toArray();
+        if (values.length == 0) {
+            out.println(name + ",0,,,,,,");
+            return;
+        }
+        out.printf(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n", name, values.length,
+                Arrays.stream(values).average().orElse(0), values[0],
+                percentile(values, 50), percentile(values, 95), percentile(values, 99), values[values.length - 1]);
+    }
+
+    // Nearest-rank percentile of a sorted array
+    private static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,89 @@
+package Simulation;
+
+/**
+ * Outcome of generating, solving and validating one maze in a simulation run.
+ */
+public class SimulationResult {
+
+    private final int index;
+    private final int rows;
+    private final int cols;
+    private final double generateMillis;
+    private final double solveMillis;
+    private final int pathLength;
+    private final int nodesEvaluated;
+    private final double difficulty;
+    private final boolean valid;
+    private final String error;
+
+    public SimulationResult(int index, int rows, int cols, double generateMillis, double solveMillis,
+                            int pathLength, int nodesEvaluated, double difficulty, boolean valid, String error) {
+        this.index = index;
+        this.rows = rows;
+        this.cols = cols;
+        this.generateMillis = generateMillis;
+        this.solveMillis = solveMillis;
+        this.pathLength = pathLength;
+        this.nodesEvaluated = nodesEvaluated;
+        this.difficulty = difficulty;
+        this.valid = valid;
+        this.error = error;
+    }
+
+    /**
+     * Result of a maze whose generation or solving threw.
+     */
+    public static SimulationResult failed(int index, int rows, int cols, Throwable error) {
+        return new SimulationResult(index, rows, cols, 0, 0, 0, 0, Double.NaN, false,
+                error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public double getGenerateMillis() {
+        return generateMillis;
+    }
+
+    public double getSolveMillis() {
+        return solveMillis;
+    }
+
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    public int getNodesEvaluated() {
+        return nodesEvaluated;
+    }
+
+    /**
+     * @return difficulty score of the maze's analysis, or NaN if it was not analysed
+     */
+    public double getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @return true if the solution leads from start to goal through legal moves
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * @return the error message, or null if the maze was processed
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,122 @@
+package Simulation;
+
+import Model.CompactSolution;
+import Model.IModel;
+import Model.MazeAnalysis;
+import Model.SolverAlgorithm;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Headless simulation engine: generates, solves and validates many mazes in
+ * parallel through {@link IModel}, without any JavaFX dependency.
+ * Each maze gets its own model instance, so models never share state. Mazes are
+ * analysed after they are solved, outside the timings.
+ */
+public class SimulationRunner {
+
+    private static final Logger LOG = LogManager.getLogger(SimulationRunner.class);
+
+    private final Supplier<IModel> modelFactory;
+    private final int threads;
+    private final SolverAlgorithm solver;
+
+    /**
+     * @param modelFactory creates a fresh model for every maze
+     * @param threads number of worker threads (e.g. the number of cores)
+     */
+    public SimulationRunner(Supplier<IModel> modelFactory, int threads) {
+        this(modelFactory, threads, SolverAlgorithm.BEST_FIRST);
+    }
+
+    /**
+     * @param modelFactory creates a fresh model for every maze
+     * @param threads number of worker threads (e.g. the number of cores)
+     * @param solver algorithm every maze is solved with
+     */
+    public SimulationRunner(Supplier<IModel> modelFactory, int threads, SolverAlgorithm solver) {
+        this.modelFactory = modelFactory;
+        this.threads = Math.max(1, threads);
+        this.solver = solver;
+    }
+
+    /**
+     * Runs the simulation. Maze sizes are drawn uniformly from the given ranges.
+     *
+     * @param count number of mazes
+     * @param minRows smallest number of rows
+     * @param maxRows largest number of rows
+     * @param minCols smallest number of columns
+     * @param maxCols largest number of columns
+     * @param seed seed for the maze sizes, so runs are comparable
+     * @return one result per maze, in order
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public List<SimulationResult> run(int count, int minRows, int maxRows, int minCols, int maxCols, long seed)
+            throws InterruptedException {
+        Random random = new Random(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "simulation-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                int rows = minRows + random.nextInt(maxRows - minRows + 1);
+                int cols = minCols + random.nextInt(maxCols - minCols + 1);
+                futures.add(pool.submit(() -> runOne(index, rows, cols)));
+            }
+
+            List<SimulationResult> results = new ArrayList<>(count);
+            for (Future<SimulationResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // runOne catches everything, so this only happens on errors like OOM
+                    throw new IllegalStateException("Simulation worker failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Generate, solve and validate a single maze
+    private SimulationResult runOne(int index, int rows, int cols) {
+        try {
+            IModel model = modelFactory.get();
+            model.setBackgroundAnalysis(false); // keeps the timings to generation and solving
+
+            long start = System.nanoTime();
+            model.generateMaze(rows, cols);
+            long generated = System.nanoTime();
+            model.solveMaze(solver, null);
+            long solved = System.nanoTime();
+
+            // The model only keeps solutions it validated against the grid
+            CompactSolution solution = model.getCompactSolution();
+            boolean valid = solution != null;
+            MazeAnalysis analysis = model.getMazeAnalysis().join();
+            return new SimulationResult(index, rows, cols,
+                    (generated - start) / 1e6, (solved - generated) / 1e6,
+                    valid ? solution.size() : 0, model.getNumberOfNodesEvaluated(),
+                    analysis != null ? analysis.getDifficulty() : Double.NaN, valid, null);
+        } catch (Exception e) {
+            LOG.warn("Maze {} ({}x{}) failed", index, rows, cols, e);
+            return SimulationResult.failed(index, rows, cols, e);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package View;
+
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.image.Image;
+import javafx.scene.media.Media;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads the game screen assets (FXML, stylesheet, media, images) in parallel
+ * on background threads while the intro screen is shown.
+ * Every getter falls back to loading on the calling thread if preloading
+ * was not started or failed, so callers never depend on it.
+ */
+public final class AssetPreloader {
+
+    private static final Logger LOG = LogManager.getLogger(AssetPreloader.class);
+
+    public static final String GAME_VIEW = "/View/MyView.fxml";
+    public static final String GAME_STYLESHEET = "/View/MainStyle.css";
+    public static final String BACKGROUND_MUSIC = "/backgroundSound/backgroundsound1.mp3";
+    public static final String WIN_SOUND = "/backgroundSound/WinSound.wav";
+    static final String[] IMAGES = {
+            "/images/hero.png", "/images/wall.png", "/images/goal.png",
+            "/images/solution.png", "/images/explosion_clean.png"
+    };
+
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+                Thread t = new Thread(r, "asset-preloader");
+                t.setDaemon(true);
+                return t;
+            });
+
+    // Missing resources complete with null, so they are looked up only once
+    private static final Map<String, CompletableFuture<Image>> images = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<Media>> media = new ConcurrentHashMap<>();
+    private static final AtomicReference<CompletableFuture<FXMLLoader>> gameView = new AtomicReference<>();
+    private static volatile String stylesheet;
+    private static volatile boolean started = false;
+
+    private AssetPreloader() {
+    }
+
+    /**
+     * Starts loading all assets in the background. Calling it again has no effect.
+     */
+    public static synchronized void start() {
+        if (started) return;
+        started = true;
+
+        // Images first: the game view's MazeDisplayer asks for them while it is being loaded
+        for (String path : IMAGES) {
+            images.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> loadImage(p), LOADER));
+        }
+        media.computeIfAbsent(BACKGROUND_MUSIC, p -> CompletableFuture.supplyAsync(() -> loadMedia(p), LOADER));
+        media.computeIfAbsent(WIN_SOUND, p -> CompletableFuture.supplyAsync(() -> loadMedia(p), LOADER));
+        CompletableFuture.runAsync(AssetPreloader::stylesheet, LOADER);
+        gameView.set(CompletableFuture.supplyAsync(AssetPreloader::loadGameView, LOADER));
+    }
+
+    /**
+     * Returns the preloaded game screen, or loads a new one if it is not
+     * available. The preloaded screen is handed out only once.
+     *
+     * @return loader whose root and controller are ready to use
+     * @throws IOException if the FXML cannot be loaded
+     */
+    public static FXMLLoader takeGameView() throws IOException {
+        CompletableFuture<FXMLLoader> future = gameView.getAndSet(null);
+        if (future != null) {
+            try {
+                FXMLLoader loader = future.join();
+                if (loader != null) {
+                    return loader;
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Preloading the game screen failed, loading it again", e);
+            }
+        }
+        FXMLLoader loader = new FXMLLoader(AssetPreloader.class.getResource(GAME_VIEW));
+        Parent root = loader.load();
+        root.getStylesheets().add(stylesheet());
+        return loader;
+    }
+
+    /**
+     * @return external form of the game stylesheet URL
+     */
+    public static String stylesheet() {
+        String url = stylesheet;
+        if (url == null) {
+            url = AssetPreloader.class.getResource(GAME_STYLESHEET).toExternalForm();
+            stylesheet = url;
+        }
+        return url;
+    }
+
+    /**
+     * Returns an image resource, waiting for it if it is still being preloaded.
+     *
+     * @param path classpath resource path
+     * @return the image, or null if the resource does not exist
+     */
+    public static Image image(String path) {
+        return images.computeIfAbsent(path, p -> CompletableFuture.completedFuture(loadImage(p))).join();
+    }
+
+    /**
+     * Returns a media resource, waiting for it if it is still being preloaded.
+     *
+     * @param path classpath resource path
+     * @return the media, or null if the resource does not exist
+     */
+    public static Media media(String path) {
+        return media.computeIfAbsent(path, p -> CompletableFuture.completedFuture(loadMedia(p))).join();
+    }
+
+    private static Image loadImage(String path) {
+        long start = System.nanoTime();
+        try (InputStream in = AssetPreloader.class.getResourceAsStream(path)) {
+            if (in == null) {
+                LOG.debug("Image {} not found, the default colors are used", path);
+                return null;
+            }
+            Image image = new Image(in);
+            LOG.debug("Loaded {} in {} ms", path, (System.nanoTime() - start) / 1_000_000);
+            return image;
+        } catch (Exception e) {
+            LOG.warn("Could not load image {}", path, e);
+            return null;
+        }
+    }
+
+    private static Media loadMedia(String path) {
+        URL url = AssetPreloader.class.getResource(path);
+        if (url == null) {
+            LOG.warn("Sound {} not found", path);
+            return null;
+        }
+        try {
+            return new Media(url.toExternalForm());
+        } catch (Exception e) {
+            LOG.warn("Could not load sound {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    // Builds the node graph off the FX thread; that is allowed as long as it is not attached to a scene yet
+    private static FXMLLoader loadGameView() {
+        try {
+            FXMLLoader loader = new FXMLLoader(AssetPreloader.class.getResource(GAME_VIEW));
+            Parent root = loader.load();
+            root.getStylesheets().add(stylesheet());
+            StartupTimer.mark("game screen preloaded");
+            return loader;
+        } catch (Exception e) {
+            LOG.warn("Could not preload the game screen", e);
+            return null;
+        }
+    }
+}
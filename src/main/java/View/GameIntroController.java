@@ -7,17 +7,23 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.CheckBox;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
-import Model.IModel;
-import Model.MyModel;
+import Model.GameCheckpointer;
+import Session.GameSession;
+import Session.GameSessionManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Objects;
 
 public class GameIntroController {
 
+    private static final Logger LOG = LogManager.getLogger(GameIntroController.class);
+
     @FXML
     private TextField textField_mazeRows;
 
@@ -27,6 +33,17 @@ public class GameIntroController {
     @FXML
     private CheckBox solutionCheckBox;
 
+    @FXML
+    private Button resumeButton;
+
+    @FXML
+    private void initialize() {
+        // Offer to resume only if the last game left an autosave behind
+        boolean canResume = GameCheckpointer.exists(GameCheckpointer.defaultDirectory());
+        resumeButton.setVisible(canResume);
+        resumeButton.setManaged(canResume);
+    }
+
     /**
      * Triggered when the user clicks the Start button
      */
@@ -35,42 +52,101 @@ public class GameIntroController {
         try {
             int rows = Integer.parseInt(textField_mazeRows.getText());
             int cols = Integer.parseInt(textField_mazeColumns.getText());
-            boolean showSolution = solutionCheckBox.isSelected();
-
-            // Load the main game screen
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/View/MyView.fxml"));
-            Parent root = loader.load();
-
-            // Pass ViewModel if needed
-            MyViewController controller = loader.getController();
-            IModel model = new MyModel();
-            MyViewModel viewModel = new MyViewModel(model);
-            controller.setViewModel(viewModel);
-
-            // Show main stage FIRST
-            Stage stage = (Stage) textField_mazeRows.getScene().getWindow();
-            controller.setPrimaryStage(stage);
-            Scene gameScene = new Scene(root, 1000, 800);
-            root.getStylesheets().add(Objects.requireNonNull(getClass().getResource("/View/MainStyle.css")).toExternalForm());
-            stage.setScene(gameScene);
-            stage.setTitle("Maze Game - Play");
-            stage.show();
+            startGame(rows, cols, solutionCheckBox.isSelected(), true);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid input. Please enter valid numbers.");
+        }
+    }
 
-            // Generate the maze after the stage is shown
-            Platform.runLater(() -> {
-                // Set maze generated state BEFORE generating
-                controller.setMazeGenerated(true);
+    /**
+     * Triggered when the user clicks the Resume button: restores the autosaved
+     * game, with the player where it was, and keeps autosaving it.
+     */
+    @FXML
+    private void resumeGame(ActionEvent event) {
+        try {
+            MyViewController controller = showGameScreen();
+            MyViewModel viewModel = controller.getViewModel();
+            File directory = GameCheckpointer.defaultDirectory().toFile();
+            // Autosave is enabled first; it leaves the checkpoint alone until the game is restored from it.
+            // Both calls are queued on the session, so they run in this order.
+            MyViewController.whenDone(viewModel.enableAutosave(directory), (ignored, error) -> {
+                if (error != null) {
+                    LOG.warn("Autosave is not available: {}", error.getMessage());
+                }
+            });
+            // The game screen enables play once the restored maze is published (see displayMaze)
+            MyViewController.whenDone(viewModel.resumeLastGame(directory), (resumed, error) -> {
+                if (error != null) {
+                    LOG.error("Failed to resume the saved game", error);
+                    controller.showAlert("Could not resume the saved game: " + error.getMessage());
+                    return;
+                }
+                if (!resumed) {
+                    controller.showAlert("There is no saved game to resume.");
+                    return;
+                }
+                if (controller.getMazeDisplayer() != null) {
+                    controller.getMazeDisplayer().setFocusTraversable(true);
+                    controller.getMazeDisplayer().requestFocus();
+                }
+            });
+        } catch (IOException e) {
+            LOG.error("Failed to resume the saved game", e);
+        }
+    }
 
-                // Generate the maze
-                viewModel.generateMaze(rows, cols);
+    /**
+     * Switches to the game screen and generates a maze of the given size.
+     * Also used by the training run of the packaging build, which does not autosave.
+     */
+    public void startGame(int rows, int cols, boolean showSolution) {
+        startGame(rows, cols, showSolution, false);
+    }
 
-                // Apply selected option for showing solution
-                if (showSolution) {
-                    viewModel.solveMaze();
-                }
+    private void startGame(int rows, int cols, boolean showSolution, boolean autosave) {
+        try {
+            MyViewController controller = showGameScreen();
+            MyViewModel viewModel = controller.getViewModel();
+            if (autosave) {
+                MyViewController.whenDone(viewModel.enableAutosave(GameCheckpointer.defaultDirectory().toFile()),
+                        (ignored, error) -> {
+                            if (error != null) {
+                                LOG.warn("Autosave is not available: {}", error.getMessage());
+                            }
+                        });
+            }
 
-                // Ensure focus is set properly
-                Platform.runLater(() -> {
+            if (showSolution) {
+                // Pipelined: the solver runs while the view is populated
+                // Play is enabled when the maze is published, not before: moves queue behind the generate
+                long start = System.nanoTime();
+                viewModel.generateAndSolveMaze(rows, cols).whenComplete((path, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        LOG.error("Failed to generate and solve the maze", error);
+                        controller.showAlert("Could not create the maze: " + error.getMessage());
+                        return;
+                    }
+                    controller.showSolution(path);
+                    LOG.info("New {}x{} game: solution displayed after {} ms",
+                            rows, cols, (System.nanoTime() - start) / 1_000_000);
+                    if (controller.getMazeDisplayer() != null) {
+                        controller.getMazeDisplayer().requestFocus();
+                    }
+                }));
+                return;
+            }
+
+            // Generate the maze after the stage is shown
+            // Play is enabled in the same FX task that publishes the maze (see MyViewController.displayMaze)
+            Platform.runLater(() -> {
+                // Generate the maze, then ensure focus is set properly
+                MyViewController.whenDone(viewModel.generateMaze(rows, cols), (ignored, error) -> {
+                    if (error != null) {
+                        LOG.error("Failed to generate the maze", error);
+                        controller.showAlert("Could not create the maze: " + error.getMessage());
+                        return;
+                    }
                     if (controller.getMazeDisplayer() != null) {
                         controller.getMazeDisplayer().setFocusTraversable(true);
                         controller.getMazeDisplayer().requestFocus();
@@ -78,10 +154,33 @@ public class GameIntroController {
                 });
             });
 
-        } catch (NumberFormatException e) {
-            System.out.println("Invalid input. Please enter valid numbers.");
         } catch (IOException e) {
-            e.printStackTrace();
+            LOG.error("Failed to load the game screen", e);
         }
     }
+
+    // Shows the main game screen, preloaded while the intro was shown, with a new session behind it
+    private MyViewController showGameScreen() throws IOException {
+        FXMLLoader loader = AssetPreloader.takeGameView();
+        Parent root = loader.getRoot();
+        StartupTimer.mark("game screen ready");
+
+        // Pass ViewModel if needed
+        MyViewController controller = loader.getController();
+        GameSession session = GameSessionManager.getDefault().createSession("Main");
+        MyViewModel viewModel = new MyViewModel(session.getModel());
+        controller.setViewModel(viewModel);
+        controller.setSession(session);
+
+        // Show main stage FIRST
+        Stage stage = (Stage) textField_mazeRows.getScene().getWindow();
+        controller.setPrimaryStage(stage);
+        Scene gameScene = new Scene(root, 1000, 800);
+        stage.setScene(gameScene);
+        stage.setTitle("Maze Game - Play");
+        stage.show();
+        controller.playBackgroundMusic();
+        StartupTimer.markOnNextFrame("first game frame", true);
+        return controller;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package View;
 
+import Model.IMazeGrid;
+
 /**
  * Interface for View layer in MVVM architecture
  */
@@ -9,7 +11,7 @@ public interface IView {
      * Display maze on the screen
      * @param maze the maze data to display
      */
-    void displayMaze(int[][] maze);
+    void displayMaze(IMazeGrid maze);
 
     /**
      * Update character position in the maze
@@ -1,23 +1,44 @@
 package View;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import Session.GameSessionManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 
 public class MainApplication extends Application {
 
+    private static final Logger LOG = LogManager.getLogger(MainApplication.class);
+
     public static Stage mainStage;
 
+    // Longest the exit waits for the autosaves to reach the disk, for all sessions together
+    private static final long EXIT_FLUSH_SECONDS = 2;
+
+    // --training: start a game, generate and solve a maze, then exit.
+    // Used by the "image" build profile to record the AppCDS class list.
+    private static final String TRAINING_FLAG = "--training";
+    private static final int TRAINING_MAZE_SIZE = 100;
+    private static final int TRAINING_FRAMES = 30;
+
     @Override
     public void start(Stage stage) throws Exception {
         mainStage = stage;
-
+        StartupTimer.mark("FX toolkit started");
 
         FXMLLoader introLoader = new FXMLLoader(getClass().getResource("/View/maze_intro_screen.fxml"));
         Parent introRoot = introLoader.load();
+        StartupTimer.mark("intro screen loaded");
 
 
         Scene introScene = new Scene(introRoot, 1000, 700);
@@ -27,8 +48,58 @@ public class MainApplication extends Application {
         stage.setMinHeight(500);
         stage.setScene(introScene);
         stage.show();
+        StartupTimer.markOnNextFrame("intro screen shown", false);
+
+        // Load the game screen assets while the player is reading the intro
+        AssetPreloader.start();
+
+        if (getParameters().getRaw().contains(TRAINING_FLAG)) {
+            GameIntroController intro = introLoader.getController();
+            Platform.runLater(() -> runTraining(intro));
+        }
     }
+
+    @Override
+    public void stop() {
+        // Game work still queued is dropped; the autosaves are flushed by their own writers,
+        // all at once, so neither a busy session nor a slow disk holds up the exit for long
+        GameSessionManager manager = GameSessionManager.getDefault();
+        manager.shutdown();
+        CompletableFuture<?>[] flushes = manager.getSessions().stream()
+                .map(session -> session.getModel().closeCheckpoints())
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(flushes)
+                .orTimeout(EXIT_FLUSH_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(error -> {
+                    LOG.warn("Autosave did not finish before exit; the last moves may be lost");
+                    return null;
+                })
+                .join();
+    }
+
+    // Plays through the startup path, lets a few frames render and exits
+    private void runTraining(GameIntroController intro) {
+        intro.startGame(TRAINING_MAZE_SIZE, TRAINING_MAZE_SIZE, true);
+        new AnimationTimer() {
+            private int frames = 0;
+
+            @Override
+            public void handle(long now) {
+                if (++frames < TRAINING_FRAMES) return;
+                stop();
+                // Read by org.example.StartupBenchmark
+                System.out.println("startup.firstFrameMillis=" + StartupTimer.elapsed("first game frame"));
+                Platform.exit();
+            }
+        }.start();
+    }
+
     public static void main(String[] args) {
+        StartupTimer.mark("main");
         launch(args);
+        if (Arrays.asList(args).contains(TRAINING_FLAG)) {
+            // Session and metrics workers would keep the JVM alive
+            System.exit(0);
+        }
     }
 }
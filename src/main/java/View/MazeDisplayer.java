@@ -1,26 +1,54 @@
 package View;
 
+import Metrics.GameMetrics;
+import Model.GridKernels;
+import Model.IMazeGrid;
+import algorithms.mazeGenerators.Position;
 import algorithms.search.AState;
+import algorithms.search.MazeState;
 import algorithms.search.Solution;
+import javafx.application.Platform;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
+import javafx.scene.control.ScrollPane;
 import javafx.scene.input.ScrollEvent;
 import javafx.scene.paint.Color;
 import javafx.scene.layout.AnchorPane;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * MazeDisplayer with full support for rendering maze, player, goal,
  * zooming, keyboard navigation, and optional solution display.
+ * When a {@link SolutionOverlay} is attached, the player and the solution are
+ * drawn on it and this canvas only repaints for maze, goal and zoom changes.
+ * Inside a {@link ScrollPane}, only the part of the maze around the viewport is
+ * painted; scrolling repaints once the view leaves that part.
+ * Mazes with more cells on a side than a canvas may have pixels are shown through
+ * a window that follows the hero. Only the cells around the window are read, with
+ * {@link IMazeGrid#getRegion}, so a chunked maze pages in just the chunks near it.
  */
 public class MazeDisplayer extends Canvas {
 
+    private static final Logger LOG = LogManager.getLogger(MazeDisplayer.class);
+
     // Maze data and player/goal positions
-    private int[][] maze;
+    private IMazeGrid maze;
     private int[] characterPosition = {0, 0};
     private int[] goalPosition = {0, 0};
 
@@ -31,6 +59,41 @@ public class MazeDisplayer extends Canvas {
     private final double zoomStep = 0.1;
     private final double maxZoom = 3.0;
     private final double minZoom = 0.5;
+    private static final double MIN_CELL_SIZE = 10.0;
+
+    // Level-of-detail rendering for big mazes
+    private static final double MAX_CANVAS_SIDE = 8192.0;
+    private static final double MIN_BLOCK_PIXELS = 4.0;
+    private static final int MAX_SAMPLED_LEVEL = 30;
+    private static final int DENSITY_SHADES = 16;
+    private static final ExecutorService LOD_BUILDER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "maze-lod-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final int[] DENSITY_ARGB = createDensityPalette();
+    private MazeLodPyramid lodPyramid;
+    private int drawnLodLevel = -1;
+    // One pixel per block, built on first use; sampled levels are rebuilt once the pyramid is ready
+    private final WritableImage[] lodImages = new WritableImage[MAX_SAMPLED_LEVEL + 1];
+
+    // Canvas area painted by the last redraw: the viewport plus a margin, so small scrolls need no repaint
+    private Bounds drawnArea;
+
+    // Window onto mazes too big to draw whole: the first cell shown, and the cells read around it
+    private static final double WINDOW_CELL_SIZE = 20.0;
+    private boolean windowed;
+    private int originRow;
+    private int originCol;
+    private int[][] region;
+    private int regionRow;
+    private int regionCol;
+
+    // Big mazes at full detail are drawn as one image with a pixel per cell, not a rectangle per cell
+    private static final long CELL_IMAGE_MIN_CELLS = 40_000;
+    private static final int FREE_ARGB = 0x66CC0000; // #CC0000 at 0.4 opacity, as in drawCell
+    private static final int WALL_ARGB = 0xFF000000;
+    private WritableImage cellImage;
 
     // Solution display
     private Solution solution;
@@ -43,6 +106,9 @@ public class MazeDisplayer extends Canvas {
     private Image goalImage;
     private Image solutionImage;
 
+    // Layer for the player and the solution path, stacked over this canvas
+    private SolutionOverlay overlay;
+
     // Parent layout and callback for win
     private AnchorPane parentPane;
     private Runnable onWinCallback;
@@ -61,6 +127,19 @@ public class MazeDisplayer extends Canvas {
         this.setOnScroll(this::handleZoomScroll);
         this.setOnKeyPressed(this::handleKeyPress);
 
+        // Zooming by node scale changes the on-screen cell size, so the LOD level may change
+        scaleXProperty().addListener((obs, oldScale, newScale) -> {
+            if (maze != null && currentLodLevel() != drawnLodLevel) {
+                redraw();
+            }
+        });
+        // Scrolling and zooming move the viewport over the canvas
+        localToSceneTransformProperty().addListener((obs, oldTransform, newTransform) -> {
+            if (maze != null && drawnArea != null && !drawnArea.contains(visibleArea())) {
+                redraw();
+            }
+        });
+
         parentProperty().addListener((obs, oldParent, newParent) -> {
             if (newParent instanceof AnchorPane) {
                 this.parentPane = (AnchorPane) newParent;
@@ -71,10 +150,30 @@ public class MazeDisplayer extends Canvas {
 
     }
 
+    /**
+     * Attaches the overlay layer. It follows this canvas' size and zoom scale,
+     * so both must be children of the same StackPane.
+     */
+    public void setOverlay(SolutionOverlay overlay) {
+        this.overlay = overlay;
+        overlay.widthProperty().bind(widthProperty());
+        overlay.heightProperty().bind(heightProperty());
+        overlay.scaleXProperty().bind(scaleXProperty());
+        overlay.scaleYProperty().bind(scaleYProperty());
+        overlay.setCellSize(cellWidth, cellHeight);
+        overlay.setGoalPosition(goalPosition[0], goalPosition[1]);
+        overlay.setCharacterPosition(characterPosition[0], characterPosition[1]);
+        redraw();
+    }
+
     public void clearSolutionPath() {
         this.solutionPath = null;
         this.showSolution = false;
-        redraw();
+        if (overlay != null) {
+            overlay.clearSolution();
+        } else {
+            redraw();
+        }
     }
     // Rescale canvas when parent size changes
     private void setupParentListeners() {
@@ -103,12 +202,12 @@ public class MazeDisplayer extends Canvas {
             double mouseY = event.getY();
 
             // Calculate the cell coordinates based on mouse position and zoom
-            int targetCol = (int)(mouseX / (cellWidth * zoomFactor));
-            int targetRow = (int)(mouseY / (cellHeight * zoomFactor));
+            int targetCol = (int)(mouseX / (cellWidth * zoomFactor)) + originCol;
+            int targetRow = (int)(mouseY / (cellHeight * zoomFactor)) + originRow;
 
             // Boundary check: make sure the target is inside the maze
             if (targetRow < 0 || targetCol < 0 ||
-                    targetRow >= maze.length || targetCol >= maze[0].length)
+                    targetRow >= maze.getRows() || targetCol >= maze.getColumns())
                 return;
 
             // Allow movement only to an adjacent cell that is not a wall
@@ -116,46 +215,71 @@ public class MazeDisplayer extends Canvas {
             int currentCol = characterPosition[1];
             boolean isAdjacent = Math.abs(targetRow - currentRow) + Math.abs(targetCol - currentCol) == 1;
 
-            if (isAdjacent && maze[targetRow][targetCol] == 0) {
+            if (isAdjacent && isFree(targetRow, targetCol)) {
                 updateCharacterPosition(targetRow, targetCol);
             }
         });
     }
 
 
-    // Load images from resources
+    // Load images from resources; usually already preloaded during the intro screen
     private void loadImages() {
-        try {
-            heroImage = loadImageSafely("/images/hero.png");
-            wallImage = loadImageSafely("/images/wall.png");
-            goalImage = loadImageSafely("/images/goal.png");
-            solutionImage = loadImageSafely("/images/solution.png");
-        } catch (Exception e) {
-            System.out.println("Could not load images, using default colors");
-        }
-    }
-
-    // Try to load image or return null
-    private Image loadImageSafely(String path) {
-        try {
-            return new Image(getClass().getResourceAsStream(path));
-        } catch (Exception e) {
-            return null;
-        }
+        heroImage = AssetPreloader.image("/images/hero.png");
+        wallImage = AssetPreloader.image("/images/wall.png");
+        goalImage = AssetPreloader.image("/images/goal.png");
+        solutionImage = AssetPreloader.image("/images/solution.png");
     }
 
     // Set maze and prepare display
-    public void displayMaze(int[][] maze) {
+    public void displayMaze(IMazeGrid maze) {
         this.maze = maze;
         this.showSolution = false;
+        this.solutionPath = null;
+        this.lodPyramid = null;
+        this.cellImage = null;
+        Arrays.fill(lodImages, null);
+        this.region = null;
+        this.originRow = 0;
+        this.originCol = 0;
+        // Below one pixel per cell the hero could not be seen, let alone steered
+        this.windowed = maze != null && Math.max(maze.getRows(), maze.getColumns()) > MAX_CANVAS_SIDE;
+        if (overlay != null) {
+            overlay.setOrigin(0, 0);
+            overlay.clearSolution();
+        }
 
-        if (maze != null && maze.length > 0) {
-            setGoalPosition(maze.length - 1, maze[0].length - 1);
+        if (maze != null && maze.getRows() > 0) {
+            if (!windowed) {
+                buildLodPyramid(maze);
+            }
+            setGoalPosition(maze.getRows() - 1, maze.getColumns() - 1);
             updateCanvasSize();
             redraw();
+        } else {
+            getGraphicsContext2D().clearRect(0, 0, getWidth(), getHeight());
         }
     }
 
+    // Build the LOD pyramid in the background; until it is ready, zoomed-out views sample cells.
+    // The grid is pinned while it is read, so replacing the maze cannot free it under the builder.
+    private void buildLodPyramid(IMazeGrid target) {
+        CompletableFuture.supplyAsync(() -> {
+                    if (!target.acquire()) return null; // already replaced
+                    try {
+                        return MazeLodPyramid.build(target);
+                    } finally {
+                        target.release();
+                    }
+                }, LOD_BUILDER)
+                .thenAccept(pyramid -> Platform.runLater(() -> {
+                    if (pyramid != null && this.maze == target) {
+                        this.lodPyramid = pyramid;
+                        Arrays.fill(lodImages, null);
+                        redraw();
+                    }
+                }));
+    }
+
     // Recalculate canvas size based on parent
     private void updateCanvasSize() {
         if (maze == null) return;
@@ -163,18 +287,34 @@ public class MazeDisplayer extends Canvas {
         double availableWidth = parentPane != null ? parentPane.getWidth() * 0.9 : 800;
         double availableHeight = parentPane != null ? parentPane.getHeight() * 0.9 : 600;
 
-        double maxCellWidth = availableWidth / maze[0].length;
-        double maxCellHeight = availableHeight / maze.length;
-
-        double cellSize = Math.min(maxCellWidth, maxCellHeight);
-        this.cellWidth = Math.max(cellSize, 10);
-        this.cellHeight = this.cellWidth;
-
-        double canvasWidth = maze[0].length * cellWidth;
-        double canvasHeight = maze.length * cellHeight;
+        double canvasWidth;
+        double canvasHeight;
+        if (windowed) {
+            // The canvas fills the available space with cells of a playable size
+            this.cellWidth = WINDOW_CELL_SIZE;
+            this.cellHeight = this.cellWidth;
+            canvasWidth = Math.min(maze.getColumns() * cellWidth, Math.max(cellWidth, Math.floor(availableWidth)));
+            canvasHeight = Math.min(maze.getRows() * cellHeight, Math.max(cellHeight, Math.floor(availableHeight)));
+        } else {
+            double maxCellWidth = availableWidth / maze.getColumns();
+            double maxCellHeight = availableHeight / maze.getRows();
+
+            double cellSize = Math.min(maxCellWidth, maxCellHeight);
+            // Cells never shrink below MIN_CELL_SIZE, unless that would push the canvas past
+            // MAX_CANVAS_SIDE - huge mazes get sub-pixel cells and are drawn from the LOD pyramid
+            double minCellSize = Math.min(MIN_CELL_SIZE, MAX_CANVAS_SIDE / Math.max(maze.getRows(), maze.getColumns()));
+            this.cellWidth = Math.max(cellSize, minCellSize);
+            this.cellHeight = this.cellWidth;
+
+            canvasWidth = maze.getColumns() * cellWidth;
+            canvasHeight = maze.getRows() * cellHeight;
+        }
 
         this.setWidth(canvasWidth);
         this.setHeight(canvasHeight);
+        if (overlay != null) {
+            overlay.setCellSize(cellWidth, cellHeight);
+        }
 
         // Center canvas
         if (parentPane != null) {
@@ -190,20 +330,30 @@ public class MazeDisplayer extends Canvas {
         this.characterPosition[0] = row;
         this.characterPosition[1] = col;
         checkWinCondition();
-        redraw();
+        boolean windowMoved = windowed && maze != null && followCharacter();
+        if (overlay != null) {
+            if (windowMoved) {
+                redraw();
+            }
+            overlay.setCharacterPosition(row, col);
+        } else {
+            redraw();
+        }
     }
 
     // Win condition check
     private void checkWinCondition() {
-        System.out.println("Checking win: char=(" + characterPosition[0] + "," + characterPosition[1] +
-                ") goal=(" + goalPosition[0] + "," + goalPosition[1] + ")");
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Checking win: char=({},{}) goal=({},{})",
+                    characterPosition[0], characterPosition[1], goalPosition[0], goalPosition[1]);
+        }
 
         if (characterPosition[0] == goalPosition[0] && characterPosition[1] == goalPosition[1]) {
-            System.out.println("===> WIN DETECTED!");
+            LOG.info("Win detected at ({},{})", goalPosition[0], goalPosition[1]);
             if (onWinCallback != null) {
                 onWinCallback.run();
             } else {
-                System.out.println("onWinCallback is null!");
+                LOG.warn("Win detected but no win callback is set");
             }
         }
     }
@@ -216,18 +366,45 @@ public class MazeDisplayer extends Canvas {
     public void setGoalPosition(int row, int col) {
         this.goalPosition[0] = row;
         this.goalPosition[1] = col;
+        if (overlay != null) {
+            overlay.setGoalPosition(row, col);
+        }
         redraw();
     }
 
     public void displaySolutionPath(List<AState> solutionPath) {
         this.solutionPath = new ArrayList<>(solutionPath);
         this.showSolution = true;
-        redraw();
+        if (overlay != null) {
+            showOnOverlay(this.solutionPath);
+        } else {
+            redraw();
+        }
     }
 
     public void toggleSolutionDisplay() {
         this.showSolution = !this.showSolution;
-        redraw();
+        if (overlay != null) {
+            overlay.setSolutionVisible(showSolution);
+        } else {
+            redraw();
+        }
+    }
+
+    // Hands the path to the overlay as plain coordinates, revealed step by step
+    private void showOnOverlay(List<AState> path) {
+        int[] rows = new int[path.size()];
+        int[] cols = new int[path.size()];
+        int count = 0;
+        for (AState state : path) {
+            if (state instanceof MazeState) {
+                Position pos = ((MazeState) state).getPosition();
+                rows[count] = pos.getRowIndex();
+                cols[count] = pos.getColumnIndex();
+                count++;
+            }
+        }
+        overlay.showSolution(Arrays.copyOf(rows, count), Arrays.copyOf(cols, count), true);
     }
 
     // Handle zoom via Ctrl + mouse wheel
@@ -272,16 +449,28 @@ public class MazeDisplayer extends Canvas {
         }
 
         // Check movement legality
-        if (newRow >= 0 && newRow < maze.length && newCol >= 0 && newCol < maze[0].length && maze[newRow][newCol] == 0) {
+        if (isFree(newRow, newCol)) {
             updateCharacterPosition(newRow, newCol);
         }
 
         event.consume();
     }
 
+    // A move target check that never reads a maze whose storage the model has already freed
+    private boolean isFree(int row, int col) {
+        if (maze == null || !maze.acquire()) return false;
+        try {
+            return maze.isFree(row, col);
+        } finally {
+            maze.release();
+        }
+    }
+
     // Main drawing logic
     private void redraw() {
-        if (maze == null) return;
+        // A freed maze is skipped: the model has replaced it and the new one is on its way
+        if (maze == null || !maze.acquire()) return;
+        long start = System.nanoTime();
 
         GraphicsContext gc = getGraphicsContext2D();
         gc.clearRect(0, 0, getWidth(), getHeight());
@@ -292,29 +481,232 @@ public class MazeDisplayer extends Canvas {
         double zoomedCellWidth = cellWidth / zoomFactor;
         double zoomedCellHeight = cellHeight / zoomFactor;
 
-        // Draw maze cells
-        for (int row = 0; row < maze.length; row++) {
-            for (int col = 0; col < maze[row].length; col++) {
-                double x = col * zoomedCellWidth;
-                double y = row * zoomedCellHeight;
-                drawCell(gc, row, col, x, y, zoomedCellWidth, zoomedCellHeight);
+        // Cells to paint, [fromRow, toRow) x [fromCol, toCol); a cell covers cellWidth canvas pixels
+        drawnArea = paintArea();
+        int fromRow = Math.max(0, (int) (drawnArea.getMinY() / cellHeight));
+        int fromCol = Math.max(0, (int) (drawnArea.getMinX() / cellWidth));
+        int toRow = Math.min(maze.getRows(), (int) Math.ceil(drawnArea.getMaxY() / cellHeight));
+        int toCol = Math.min(maze.getColumns(), (int) Math.ceil(drawnArea.getMaxX() / cellWidth));
+
+        int lodLevel = currentLodLevel();
+        drawnLodLevel = lodLevel;
+        try {
+            if (windowed) {
+                followCharacter(); // the window may have been resized
+                drawWindow(gc, zoomedCellWidth, zoomedCellHeight);
+            } else if (lodLevel == 0 && (long) maze.getRows() * maze.getColumns() >= CELL_IMAGE_MIN_CELLS) {
+                drawCellImage(gc, fromRow, fromCol, toRow, toCol, zoomedCellWidth, zoomedCellHeight);
+            } else if (lodLevel == 0) {
+                // Draw maze cells
+                for (int row = fromRow; row < toRow; row++) {
+                    for (int col = fromCol; col < toCol; col++) {
+                        double x = col * zoomedCellWidth;
+                        double y = row * zoomedCellHeight;
+                        drawCell(gc, maze.getCell(row, col), x, y, zoomedCellWidth, zoomedCellHeight);
+                    }
+                }
+            } else {
+                drawLodImage(gc, lodLevel, fromRow, fromCol, toRow, toCol, zoomedCellWidth, zoomedCellHeight);
             }
+
+            // Without an overlay, the path and the player are drawn here as well
+            if (overlay == null && showSolution && solutionPath != null) {
+                drawSolutionPath(gc, zoomedCellWidth, zoomedCellHeight);
+            }
+
+            drawGoal(gc, zoomedCellWidth, zoomedCellHeight);
+            if (overlay == null) {
+                drawCharacter(gc, zoomedCellWidth, zoomedCellHeight);
+            }
+        } finally {
+            gc.restore();
+            maze.release();
         }
+        GameMetrics.record(GameMetrics.Operation.REDRAW, start);
+    }
 
-        // Draw path if visible
-        if (showSolution && solutionPath != null) {
-            drawSolutionPath(gc, zoomedCellWidth, zoomedCellHeight);
+    // Draw the window's cells from the region read around it
+    private void drawWindow(GraphicsContext gc, double cellWidth, double cellHeight) {
+        int toRow = Math.min(maze.getRows(), originRow + windowRows());
+        int toCol = Math.min(maze.getColumns(), originCol + windowCols());
+        loadRegion(toRow, toCol);
+        for (int row = originRow; row < toRow; row++) {
+            int[] cells = region[row - regionRow];
+            for (int col = originCol; col < toCol; col++) {
+                drawCell(gc, cells[col - regionCol], (col - originCol) * cellWidth, (row - originRow) * cellHeight,
+                        cellWidth, cellHeight);
+            }
         }
+    }
 
-        drawGoal(gc, zoomedCellWidth, zoomedCellHeight);
-        drawCharacter(gc, zoomedCellWidth, zoomedCellHeight);
+    // Reads the window plus half of it on every side, unless the last read still covers the window
+    private void loadRegion(int toRow, int toCol) {
+        if (region != null && originRow >= regionRow && originCol >= regionCol
+                && toRow <= regionRow + region.length
+                && toCol <= regionCol + (region.length > 0 ? region[0].length : 0)) {
+            return;
+        }
+        int marginRows = windowRows() / 2;
+        int marginCols = windowCols() / 2;
+        regionRow = Math.max(0, originRow - marginRows);
+        regionCol = Math.max(0, originCol - marginCols);
+        region = maze.getRegion(regionRow, regionCol, toRow + marginRows - regionRow, toCol + marginCols - regionCol);
+    }
 
-        gc.restore();
+    // Moves the window once the hero leaves its middle half, centring it on the hero again
+    private boolean followCharacter() {
+        int row = windowOrigin(characterPosition[0], originRow, windowRows(), maze.getRows());
+        int col = windowOrigin(characterPosition[1], originCol, windowCols(), maze.getColumns());
+        if (row == originRow && col == originCol) return false;
+        originRow = row;
+        originCol = col;
+        if (overlay != null) {
+            overlay.setOrigin(row, col);
+        }
+        return true;
+    }
+
+    private static int windowOrigin(int cell, int origin, int size, int total) {
+        int maxOrigin = Math.max(0, total - size);
+        if (cell >= origin + size / 4 && cell < origin + size - size / 4) {
+            return Math.min(origin, maxOrigin);
+        }
+        return Math.max(0, Math.min(maxOrigin, cell - size / 2));
+    }
+
+    private int windowRows() {
+        return Math.max(1, (int) Math.ceil(getHeight() / cellHeight));
+    }
+
+    private int windowCols() {
+        return Math.max(1, (int) Math.ceil(getWidth() / cellWidth));
+    }
+
+    // On-screen cell size decides the LOD level; zooming in never needs more than full detail
+    private int currentLodLevel() {
+        double cellPixels = cellWidth * Math.min(1.0, getScaleX());
+        if (lodPyramid != null) {
+            return lodPyramid.chooseLevel(cellPixels, MIN_BLOCK_PIXELS);
+        }
+        return MazeLodPyramid.chooseLevel(cellPixels, MIN_BLOCK_PIXELS, MAX_SAMPLED_LEVEL);
+    }
+
+    // Canvas area inside the enclosing scroll pane's viewport; the whole canvas outside a scroll pane
+    private Bounds visibleArea() {
+        Node scrollPane = getParent();
+        while (scrollPane != null && !(scrollPane instanceof ScrollPane)) {
+            scrollPane = scrollPane.getParent();
+        }
+        if (scrollPane == null || getScene() == null) {
+            return new BoundingBox(0, 0, getWidth(), getHeight());
+        }
+        Bounds viewport = sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+        return clampToCanvas(viewport.getMinX(), viewport.getMinY(), viewport.getMaxX(), viewport.getMaxY());
+    }
+
+    // The visible area plus half of it on every side
+    private Bounds paintArea() {
+        Bounds visible = visibleArea();
+        double marginX = visible.getWidth() / 2;
+        double marginY = visible.getHeight() / 2;
+        return clampToCanvas(visible.getMinX() - marginX, visible.getMinY() - marginY,
+                visible.getMaxX() + marginX, visible.getMaxY() + marginY);
+    }
+
+    private Bounds clampToCanvas(double minX, double minY, double maxX, double maxY) {
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(getWidth(), maxX);
+        maxY = Math.min(getHeight(), maxY);
+        return new BoundingBox(minX, minY, Math.max(0, maxX - minX), Math.max(0, maxY - minY));
+    }
+
+    // Draw every cell as one scaled pixel; the image is built once per maze, a row of pixels at a time
+    private void drawCellImage(GraphicsContext gc, int fromRow, int fromCol, int toRow, int toCol,
+                               double cellWidth, double cellHeight) {
+        int rows = maze.getRows();
+        int cols = maze.getColumns();
+        if (cellImage == null) {
+            WritableImage image = new WritableImage(cols, rows);
+            PixelWriter writer = image.getPixelWriter();
+            GridKernels kernels = GridKernels.get();
+            int[] line = new int[cols];
+            for (int row = 0; row < rows; row++) {
+                kernels.toArgb(maze, row, 0, cols, line, 0, FREE_ARGB, WALL_ARGB);
+                writer.setPixels(0, row, cols, 1, PixelFormat.getIntArgbInstance(), line, 0, cols);
+            }
+            cellImage = image;
+        }
+        if (toRow <= fromRow || toCol <= fromCol) return;
+        gc.setImageSmoothing(false);
+        gc.drawImage(cellImage, fromCol, fromRow, toCol - fromCol, toRow - fromRow,
+                fromCol * cellWidth, fromRow * cellHeight, (toCol - fromCol) * cellWidth, (toRow - fromRow) * cellHeight);
+    }
+
+    // Draw aggregated blocks of 2^level x 2^level cells, shaded by wall density, from the level's image
+    private void drawLodImage(GraphicsContext gc, int level, int fromRow, int fromCol, int toRow, int toCol,
+                              double cellWidth, double cellHeight) {
+        level = Math.min(level, MAX_SAMPLED_LEVEL);
+        int blockSize = 1 << level;
+        int fromBlockRow = fromRow >> level;
+        int fromBlockCol = fromCol >> level;
+        int toBlockRow = (toRow + blockSize - 1) >> level;
+        int toBlockCol = (toCol + blockSize - 1) >> level;
+        if (toBlockRow <= fromBlockRow || toBlockCol <= fromBlockCol) return;
+        double blockWidth = cellWidth * blockSize;
+        double blockHeight = cellHeight * blockSize;
+        gc.setImageSmoothing(false);
+        gc.drawImage(lodImage(level), fromBlockCol, fromBlockRow,
+                toBlockCol - fromBlockCol, toBlockRow - fromBlockRow,
+                fromBlockCol * blockWidth, fromBlockRow * blockHeight,
+                (toBlockCol - fromBlockCol) * blockWidth, (toBlockRow - fromBlockRow) * blockHeight);
+    }
+
+    // One pixel per block of the level, a row of pixels at a time
+    private WritableImage lodImage(int level) {
+        if (lodImages[level] != null) return lodImages[level];
+        int blockSize = 1 << level;
+        int blockRows = (maze.getRows() + blockSize - 1) / blockSize;
+        int blockCols = (maze.getColumns() + blockSize - 1) / blockSize;
+        boolean fromPyramid = lodPyramid != null && level < lodPyramid.getLevelCount();
+
+        WritableImage image = new WritableImage(blockCols, blockRows);
+        PixelWriter writer = image.getPixelWriter();
+        int[] line = new int[blockCols];
+        for (int row = 0; row < blockRows; row++) {
+            for (int col = 0; col < blockCols; col++) {
+                int density;
+                if (fromPyramid) {
+                    density = lodPyramid.getDensity(level, row, col);
+                } else {
+                    // Pyramid not ready yet - sample the top-left cell of the block
+                    density = maze.getCell(row * blockSize, col * blockSize) == 1 ? 255 : 0;
+                }
+                line[col] = DENSITY_ARGB[density * (DENSITY_SHADES - 1) / 255];
+            }
+            writer.setPixels(0, row, blockCols, 1, PixelFormat.getIntArgbInstance(), line, 0, blockCols);
+        }
+        lodImages[level] = image;
+        return image;
+    }
+
+    // Shades between the free-cell color and the wall color, as ARGB pixels
+    private static int[] createDensityPalette() {
+        Color free = Color.web("#CC0000", 0.4);
+        int[] palette = new int[DENSITY_SHADES];
+        for (int i = 0; i < DENSITY_SHADES; i++) {
+            Color shade = free.interpolate(Color.BLACK, i / (double) (DENSITY_SHADES - 1));
+            palette[i] = (int) Math.round(shade.getOpacity() * 255) << 24
+                    | (int) Math.round(shade.getRed() * 255) << 16
+                    | (int) Math.round(shade.getGreen() * 255) << 8
+                    | (int) Math.round(shade.getBlue() * 255);
+        }
+        return palette;
     }
 
     // Draw single maze cell
-    private void drawCell(GraphicsContext gc, int row, int col, double x, double y, double cellWidth, double cellHeight) {
-        if (maze[row][col] == 1) {
+    private void drawCell(GraphicsContext gc, int cell, double x, double y, double cellWidth, double cellHeight) {
+        if (cell == 1) {
             gc.setFill(Color.BLACK);
             gc.fillRect(x, y, cellWidth, cellHeight);
             gc.setStroke(Color.web("#FF4500"));
@@ -347,9 +739,7 @@ public class MazeDisplayer extends Canvas {
                 int col = pos.getColumnIndex();
 
                 // Ensure the position is within bounds and not a wall
-                if (row >= 0 && row < maze.length &&
-                        col >= 0 && col < maze[0].length &&
-                        maze[row][col] == 0) {
+                if (maze.isFree(row, col)) {
 
                     // Skip drawing on the starting position (red character)
                     boolean isStartPosition = (row == characterPosition[0] && col == characterPosition[1]);
@@ -359,8 +749,8 @@ public class MazeDisplayer extends Canvas {
 
                     // Only draw if the cell is part of the path but not start or goal
                     if (!isStartPosition && !isGoalPosition) {
-                        double x = col * cellWidth;
-                        double y = row * cellHeight;
+                        double x = (col - originCol) * cellWidth;
+                        double y = (row - originRow) * cellHeight;
 
                         if (solutionImage != null) {
                             // Draw the provided solution image (e.g., yellow ball)
@@ -374,7 +764,7 @@ public class MazeDisplayer extends Canvas {
                 }
 
             } catch (Exception e) {
-                System.err.println("Error in drawSolutionPath: " + e.getMessage());
+                LOG.error("Error in drawSolutionPath", e);
             }
         }
     }
@@ -382,8 +772,8 @@ public class MazeDisplayer extends Canvas {
 
     // Draw goal cell
     private void drawGoal(GraphicsContext gc, double cellWidth, double cellHeight) {
-        double x = goalPosition[1] * cellWidth;
-        double y = goalPosition[0] * cellHeight;
+        double x = (goalPosition[1] - originCol) * cellWidth;
+        double y = (goalPosition[0] - originRow) * cellHeight;
         if (goalImage != null) {
             gc.drawImage(goalImage, x, y, cellWidth, cellHeight);
         } else {
@@ -396,8 +786,8 @@ public class MazeDisplayer extends Canvas {
 
     // Draw character
     private void drawCharacter(GraphicsContext gc, double cellWidth, double cellHeight) {
-        double x = characterPosition[1] * cellWidth;
-        double y = characterPosition[0] * cellHeight;
+        double x = (characterPosition[1] - originCol) * cellWidth;
+        double y = (characterPosition[0] - originRow) * cellHeight;
         if (heroImage != null) {
             gc.drawImage(heroImage, x, y, cellWidth, cellHeight);
         } else {
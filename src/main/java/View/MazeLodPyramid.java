@@ -0,0 +1,163 @@
+package View;
+
+import Model.IMazeGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Level-of-detail pyramid (mipmaps) of a maze grid, used when drawing
+ * zoomed-out views of big mazes.
+ * Level 0 is the maze itself; level k aggregates blocks of 2^k x 2^k cells
+ * and stores the wall density of each block (0 = all free, 255 = all walls).
+ * Levels 1, 2 and 3 (1/2, 1/4, 1/8 resolution) are always built, and coarser
+ * levels are added until the grid is small enough to be drawn cheaply.
+ */
+public class MazeLodPyramid {
+
+    // Minimal number of levels to build (1/2, 1/4, 1/8)
+    private static final int MIN_LEVELS = 3;
+    // Keep adding coarser levels while the longest side is above this
+    private static final int MAX_COARSE_SIDE = 512;
+
+    private final int[] levelRows;
+    private final int[] levelCols;
+    private final byte[][] levels;
+
+    private MazeLodPyramid(List<byte[]> levels, List<int[]> sizes) {
+        int count = levels.size() + 1;
+        this.levels = new byte[count][];
+        this.levelRows = new int[count];
+        this.levelCols = new int[count];
+        for (int i = 1; i < count; i++) {
+            this.levels[i] = levels.get(i - 1);
+            this.levelRows[i] = sizes.get(i - 1)[0];
+            this.levelCols[i] = sizes.get(i - 1)[1];
+        }
+    }
+
+    /**
+     * Builds the pyramid for the given maze. Runs in O(rows * cols) and
+     * needs roughly a third of the maze cell count in extra bytes.
+     * Meant to be called off the FX thread.
+     *
+     * @param maze maze grid (0 = free, 1 = wall)
+     * @return the built pyramid
+     */
+    public static MazeLodPyramid build(IMazeGrid maze) {
+        List<byte[]> levels = new ArrayList<>();
+        List<int[]> sizes = new ArrayList<>();
+
+        int rows = (maze.getRows() + 1) / 2;
+        int cols = (maze.getColumns() + 1) / 2;
+        byte[] current = buildFirstLevel(maze, rows, cols);
+        levels.add(current);
+        sizes.add(new int[]{rows, cols});
+
+        while ((levels.size() < MIN_LEVELS || Math.max(rows, cols) > MAX_COARSE_SIDE)
+                && (rows > 1 || cols > 1)) {
+            int nextRows = (rows + 1) / 2;
+            int nextCols = (cols + 1) / 2;
+            current = downsample(current, rows, cols, nextRows, nextCols);
+            rows = nextRows;
+            cols = nextCols;
+            levels.add(current);
+            sizes.add(new int[]{rows, cols});
+        }
+        return new MazeLodPyramid(levels, sizes);
+    }
+
+    // Level 1: every 2x2 block of cells becomes one density value
+    private static byte[] buildFirstLevel(IMazeGrid grid, int rows, int cols) {
+        byte[] level = new byte[rows * cols];
+        int mazeCols = grid.getColumns();
+
+        for (int r = 0; r < rows; r++) {
+            // Two maze rows at a time, copied in bulk by grids that can (e.g. off-heap ones)
+            int[][] maze = grid.getRegion(r * 2, 0, 2, mazeCols);
+            int r0 = 0;
+            int r1 = maze.length - 1;
+            for (int c = 0; c < cols; c++) {
+                int c0 = c * 2;
+                int c1 = Math.min(c0 + 1, mazeCols - 1);
+                // Edge blocks repeat their last row/column, which keeps the average correct
+                int walls = maze[r0][c0] + maze[r0][c1] + maze[r1][c0] + maze[r1][c1];
+                level[r * cols + c] = (byte) (walls * 255 / 4);
+            }
+        }
+        return level;
+    }
+
+    // Next level: average of the 2x2 child densities
+    private static byte[] downsample(byte[] src, int srcRows, int srcCols, int rows, int cols) {
+        byte[] level = new byte[rows * cols];
+        for (int r = 0; r < rows; r++) {
+            int r0 = r * 2;
+            int r1 = Math.min(r0 + 1, srcRows - 1);
+            for (int c = 0; c < cols; c++) {
+                int c0 = c * 2;
+                int c1 = Math.min(c0 + 1, srcCols - 1);
+                int sum = (src[r0 * srcCols + c0] & 0xFF) + (src[r0 * srcCols + c1] & 0xFF)
+                        + (src[r1 * srcCols + c0] & 0xFF) + (src[r1 * srcCols + c1] & 0xFF);
+                level[r * cols + c] = (byte) (sum / 4);
+            }
+        }
+        return level;
+    }
+
+    /**
+     * @return number of levels, including level 0 (the maze itself)
+     */
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    /**
+     * @return number of block rows at the given level (level >= 1)
+     */
+    public int getRows(int level) {
+        return levelRows[level];
+    }
+
+    /**
+     * @return number of block columns at the given level (level >= 1)
+     */
+    public int getColumns(int level) {
+        return levelCols[level];
+    }
+
+    /**
+     * Returns the wall density of a block at the given level.
+     *
+     * @param level pyramid level (>= 1)
+     * @return density between 0 (all free) and 255 (all walls)
+     */
+    public int getDensity(int level, int row, int col) {
+        return levels[level][row * levelCols[level] + col] & 0xFF;
+    }
+
+    /**
+     * Picks the finest level whose blocks are at least {@code minBlockPixels} wide.
+     *
+     * @param cellPixels on-screen size of a single maze cell
+     * @param minBlockPixels smallest block size worth drawing
+     * @return level to draw (0 means draw individual cells)
+     */
+    public int chooseLevel(double cellPixels, double minBlockPixels) {
+        return chooseLevel(cellPixels, minBlockPixels, levels.length - 1);
+    }
+
+    /**
+     * Same as {@link #chooseLevel(double, double)}, capped at {@code maxLevel}.
+     * Also used before the pyramid has been built.
+     */
+    public static int chooseLevel(double cellPixels, double minBlockPixels, int maxLevel) {
+        int level = 0;
+        double blockPixels = cellPixels;
+        while (blockPixels < minBlockPixels && level < maxLevel) {
+            blockPixels *= 2;
+            level++;
+        }
+        return level;
+    }
+}
@@ -1,14 +1,22 @@
 package View;
 
+import Model.IMazeGrid;
+import Model.SearchEventStream;
+import Model.SolverAlgorithm;
+import Session.GameSession;
+import Session.GameSessionManager;
 import ViewModel.MyViewModel;
 import algorithms.search.AState;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyEvent;
@@ -19,41 +27,61 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.scene.layout.GridPane;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 /**
  * Controller for the main view - handles all UI interactions
  * Implements full MVVM pattern with proper separation of concerns
  */
 public class MyViewController implements IView, Initializable {
 
+    private static final Logger LOG = LogManager.getLogger(MyViewController.class);
+
     // FXML injected components
     @FXML private MazeDisplayer mazeDisplayer;
+    @FXML private SolutionOverlay solutionOverlay;
     @FXML private ScrollPane mazeScrollPane;
     @FXML private Button generateMazeButton;
     @FXML private Button solveMazeButton;
+    @FXML private MenuButton visualizeSearchButton;
     @FXML private Label statusLabel;
+    @FXML private CheckBox showSolutionCheckBox;
     @FXML private MenuItem saveMazeMenuItem;
 
     // Reference to ViewModel (MVVM pattern)
     private MyViewModel viewModel;
 
     // Current maze state
-    private int[][] currentMaze;
+    private IMazeGrid currentMaze;
     private int[] characterPosition = {0, 0};
     private boolean mazeGenerated = false;
     private Stage primaryStage;
+    // Session hosting this view's model
+    private GameSession session;
     private int goalRow;
     private int goalCol;
     // Media players
-    private MediaPlayer backgroundMusicPlayer;
+    // Shared by all game windows, so extra windows don't start the music again
+    private static MediaPlayer backgroundMusicPlayer;
     private MediaPlayer winSoundPlayer;
+    // Replay playback: long sessions are fast-forwarded to finish in about this many frames
+    private static final int REPLAY_TARGET_FRAMES = 300;
+    private AnimationTimer replayTimer;
+    // Search visualization: at most this many event batches are painted per frame
+    private static final int SEARCH_BATCHES_PER_FRAME = 32;
+    private AnimationTimer searchTimer;
     /**
      * Initialize the controller after FXML loading
      */
@@ -63,27 +91,34 @@ public class MyViewController implements IView, Initializable {
         setupKeyboardHandling();
         setupZoomFunctionality();
         updateControlsState();
-        playBackgroundMusic();
     }
-    private void playBackgroundMusic() {
+
+    /**
+     * Starts the background music once the game screen is shown.
+     * The view may be loaded off the FX thread, so this is not done in {@link #initialize}.
+     */
+    public void playBackgroundMusic() {
+        if (backgroundMusicPlayer != null) return;
         try {
-            Media media = new Media(getClass().getResource("/backgroundSound/backgroundsound1.mp3").toExternalForm());
+            Media media = AssetPreloader.media(AssetPreloader.BACKGROUND_MUSIC);
+            if (media == null) return;
             backgroundMusicPlayer = new MediaPlayer(media);
             backgroundMusicPlayer.setCycleCount(MediaPlayer.INDEFINITE);
             backgroundMusicPlayer.setVolume(0.4);
             backgroundMusicPlayer.play();
         } catch (Exception e) {
-            System.out.println("Error playing background music: " + e.getMessage());
+            LOG.warn("Error playing background music: {}", e.getMessage());
         }
     }
     private void playWinSound() {
         try {
-            Media media = new Media(getClass().getResource("/backgroundSound/WinSound.wav").toExternalForm());
+            Media media = AssetPreloader.media(AssetPreloader.WIN_SOUND);
+            if (media == null) return;
             winSoundPlayer = new MediaPlayer(media);
             winSoundPlayer.setVolume(1.0);
             winSoundPlayer.play();
         } catch (Exception e) {
-            System.out.println("Error playing win sound: " + e.getMessage());
+            LOG.warn("Error playing win sound: {}", e.getMessage());
         }
     }
     public void setPrimaryStage(Stage stage) {
@@ -123,6 +158,9 @@ public class MyViewController implements IView, Initializable {
         // Make maze displayer focusable for key events
         if (mazeDisplayer != null) {
             mazeDisplayer.setFocusTraversable(true);
+            if (solutionOverlay != null) {
+                mazeDisplayer.setOverlay(solutionOverlay);
+            }
         }
     }
 
@@ -136,7 +174,7 @@ public class MyViewController implements IView, Initializable {
             // Request focus when clicked
             mazeDisplayer.setOnMouseClicked(e -> {
                 mazeDisplayer.requestFocus();
-                System.out.println("Maze clicked - focus requested");
+                LOG.debug("Maze clicked - focus requested");
             });
         }
     }
@@ -154,9 +192,15 @@ public class MyViewController implements IView, Initializable {
      * Handle keyboard navigation (NumPad keys as specified in requirements)
      */
     private void handleKeyPressed(KeyEvent event) {
-        System.out.println("Key pressed: " + event.getCode() + ", mazeGenerated: " + mazeGenerated);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Key pressed: {}, mazeGenerated: {}", event.getCode(), mazeGenerated);
+        }
         if (!mazeGenerated || viewModel == null) {
-            System.out.println("Cannot move - maze not generated or viewModel null");
+            LOG.debug("Cannot move - maze not generated or viewModel null");
+            return;
+        }
+        if (viewModel.isReplaying()) {
+            LOG.debug("Cannot move - a replay is playing");
             return;
         }
         String direction = null;
@@ -175,11 +219,11 @@ public class MyViewController implements IView, Initializable {
             case NUMPAD3: case DIGIT3: direction = "DOWN-RIGHT"; break;
 
             default:
-                System.out.println("Key not mapped: " + event.getCode());
+                LOG.debug("Key not mapped: {}", event.getCode());
                 return; // Ignore other keys
         }
 
-        System.out.println("Moving in direction: " + direction);
+        LOG.debug("Moving in direction: {}", direction);
         // Move character through ViewModel
         moveCharacterInDirection(direction);
         event.consume();
@@ -208,18 +252,34 @@ public class MyViewController implements IView, Initializable {
             case "DOWN-RIGHT": newRow++; newCol++; break;
         }
 
-        if (isValidMove(newRow, newCol)) {
-            viewModel.moveCharacter(direction);
-            characterPosition[0] = newRow;
-            characterPosition[1] = newCol;
-            updateCharacterPosition(newRow, newCol);
-            checkIfMazeSolved();
-            statusLabel.setText("Position: (" + newRow + ", " + newCol + ")");
-            System.out.println("Moved to: (" + newRow + ", " + newCol + ")");
-        } else {
-            System.out.println("Invalid move to: (" + newRow + ", " + newCol + ")");
-            showAlert("Invalid move - can't move there!");
+        if (!isValidMove(newRow, newCol)) {
+            onMoveRejected(newRow, newCol);
+            return;
+        }
+        // The model has the final say - diagonal moves also need a clear L-shaped path.
+        // The position properties are updated before the future completes.
+        int targetRow = newRow;
+        int targetCol = newCol;
+        whenDone(viewModel.moveCharacter(direction), (moved, error) -> {
+            if (error != null) {
+                LOG.error("Move failed", error);
+            } else if (moved) {
+                checkIfMazeSolved();
+                statusLabel.setText("Position: (" + characterPosition[0] + ", " + characterPosition[1] + ")");
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Moved to: ({}, {})", characterPosition[0], characterPosition[1]);
+                }
+            } else {
+                onMoveRejected(targetRow, targetCol);
+            }
+        });
+    }
+
+    private void onMoveRejected(int row, int col) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Invalid move to: ({}, {})", row, col);
         }
+        showAlert("Invalid move - can't move there!");
     }
 
     /**
@@ -227,10 +287,14 @@ public class MyViewController implements IView, Initializable {
      */
     private boolean isValidMove(int row, int col) {
         if (currentMaze == null) return false;
-
-        return row >= 0 && row < currentMaze.length &&
-                col >= 0 && col < currentMaze[0].length &&
-                (currentMaze[row][col] == 0 || (row == goalRow && col == goalCol));
+        if (row == goalRow && col == goalCol) return true;
+        // The maze may have been replaced and its storage freed by the model meanwhile
+        if (!currentMaze.acquire()) return false;
+        try {
+            return currentMaze.isFree(row, col);
+        } finally {
+            currentMaze.release();
+        }
     }
 
     /**
@@ -266,26 +330,23 @@ public class MyViewController implements IView, Initializable {
     private void onGenerateMaze(ActionEvent event) {
         int[] dimensions = getMazeDimensions();
         if (dimensions != null && viewModel != null) {
+            stopReplay();
             statusLabel.setText("Generating maze...");
             generateMazeButton.setDisable(true);
 
-            try {
-                viewModel.generateMaze(dimensions[0], dimensions[1]);
-                mazeGenerated = true;
-                statusLabel.setText("Maze generated! Use NumPad keys to navigate (2,4,6,8 + diagonals 1,3,7,9)");
-
-                Platform.runLater(() -> {
+            whenDone(viewModel.generateMaze(dimensions[0], dimensions[1]), (ignored, error) -> {
+                if (error != null) {
+                    showAlert("Error generating maze: " + error.getMessage());
+                    statusLabel.setText("Error generating maze");
+                } else {
+                    mazeGenerated = true;
+                    statusLabel.setText("Maze generated! Use NumPad keys to navigate (2,4,6,8 + diagonals 1,3,7,9)");
                     mazeDisplayer.setFocusTraversable(true);
                     mazeDisplayer.requestFocus();
-                });
-
-            } catch (Exception e) {
-                showAlert("Error generating maze: " + e.getMessage());
-                statusLabel.setText("Error generating maze");
-            } finally {
+                }
                 generateMazeButton.setDisable(false);
                 updateControlsState();
-            }
+            });
         }
     }
 
@@ -297,18 +358,77 @@ public class MyViewController implements IView, Initializable {
     private void onSolveMaze(ActionEvent event) {
         if (viewModel != null && mazeGenerated) {
             statusLabel.setText("Solving maze...");
-            try {
-                viewModel.solveMaze();
-                List<AState> solution = viewModel.getSolution();
-                if (solution != null && !solution.isEmpty()) {
+            whenDone(viewModel.solveMaze(), (solution, error) -> {
+                if (error != null) {
+                    showAlert("Error solving maze: " + error.getMessage());
+                } else if (solution != null && !solution.isEmpty()) {
                     statusLabel.setText("Solution found! " + solution.size() + " steps. Check the box to show it.");
                 } else {
                     showAlert("No solution found for this maze!");
                 }
-            } catch (Exception e) {
-                showAlert("Error solving maze: " + e.getMessage());
+            });
+        }
+    }
+
+    /**
+     * Solves the maze in the background and paints the cells the chosen
+     * algorithm expands as it goes. The algorithm comes from the menu item's userData.
+     */
+    @FXML
+    private void onVisualizeSearch(ActionEvent event) {
+        if (viewModel == null || !mazeGenerated || solutionOverlay == null) return;
+        if (searchTimer != null) {
+            searchTimer.stop();
+        }
+        SolverAlgorithm algorithm = SolverAlgorithm.valueOf((String) ((MenuItem) event.getSource()).getUserData());
+        statusLabel.setText("Searching with " + algorithm.getDisplayName() + "...");
+        mazeDisplayer.clearSolutionPath();
+
+        SearchEventStream events = viewModel.newSearchEventStream();
+        CompletableFuture<List<AState>> solve = viewModel.solveMazeVisualized(algorithm, events);
+        searchTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                int[] batch;
+                int painted = 0;
+                while (painted < SEARCH_BATCHES_PER_FRAME && (batch = events.poll()) != null) {
+                    solutionOverlay.paintExpanded(batch, events.getColumns());
+                    painted++;
+                }
+                if (events.isDone()) {
+                    stop();
+                    searchTimer = null;
+                    whenDone(solve, (solution, error) -> onVisualizedSearchDone(algorithm, events, solution));
+                }
             }
+        };
+        searchTimer.start();
+    }
+
+    /**
+     * Shows a solution that was computed in the background (called from GameIntroController)
+     */
+    public void showSolution(List<AState> solution) {
+        if (solution == null || solution.isEmpty()) {
+            statusLabel.setText("No solution found for this maze!");
+            return;
         }
+        mazeDisplayer.displaySolutionPath(solution);
+        if (showSolutionCheckBox != null) {
+            showSolutionCheckBox.setSelected(true);
+        }
+        statusLabel.setText("Solution displayed (" + solution.size() + " steps)");
+    }
+
+    private void onVisualizedSearchDone(SolverAlgorithm algorithm, SearchEventStream events, List<AState> solution) {
+        String explored = String.format("%s expanded %d cells (%d not drawn)",
+                algorithm.getDisplayName(), events.getExpandedCells(), events.getDroppedCells());
+        if (solution != null && !solution.isEmpty()) {
+            statusLabel.setText(explored + ", solution: " + solution.size() + " steps");
+        } else {
+            statusLabel.setText(explored + ", no solution");
+        }
+        LOG.info(explored);
     }
 
     /**
@@ -368,14 +488,15 @@ public class MyViewController implements IView, Initializable {
         String filePath = showSaveFileDialog();
 
         if (filePath != null && viewModel != null) {
-            try {
-                // Delegate save operation to ViewModel
-                viewModel.saveMaze(new File(filePath));
+            // Delegate save operation to ViewModel
+            whenDone(viewModel.saveMaze(new File(filePath)), (ignored, error) -> {
+                if (error != null) {
+                    showAlert("Error saving maze: " + error.getMessage());
+                    return;
+                }
                 statusLabel.setText("Maze saved successfully!");
                 showAlert("Maze saved to: " + filePath);
-            } catch (Exception e) {
-                showAlert("Error saving maze: " + e.getMessage());
-            }
+            });
         }
     }
 
@@ -389,28 +510,154 @@ public class MyViewController implements IView, Initializable {
         String filePath = showLoadFileDialog();
 
         if (filePath != null && viewModel != null) {
-            try {
-                // Delegate load operation to ViewModel
-                viewModel.loadMaze(new File(filePath));
+            stopReplay();
+            // Delegate load operation to ViewModel
+            whenDone(viewModel.loadMaze(new File(filePath)), (ignored, error) -> {
+                if (error != null) {
+                    showAlert("Error loading maze: " + error.getMessage());
+                    return;
+                }
                 mazeGenerated = true;
                 statusLabel.setText("Maze loaded successfully!");
                 updateControlsState();
 
                 // Focus the maze canvas for keyboard interaction
-                Platform.runLater(() -> {
-                    mazeDisplayer.setFocusTraversable(true);
-                    mazeDisplayer.requestFocus();
-                });
-            } catch (Exception e) {
-                showAlert("Error loading maze: " + e.getMessage());
+                mazeDisplayer.setFocusTraversable(true);
+                mazeDisplayer.requestFocus();
+            });
+        }
+    }
+
+
+    /**
+     * Handles saving the current session (maze and moves) as a replay file.
+     */
+    @FXML
+    private void onSaveReplay(ActionEvent event) {
+        if (!mazeGenerated || viewModel == null) {
+            showAlert("No session to save! Generate a maze first.");
+            return;
+        }
+        if (viewModel.isReplaying()) {
+            showAlert("Wait for the replay to finish before saving the session.");
+            return;
+        }
+        File file = showReplayFileDialog(true);
+        if (file != null) {
+            whenDone(viewModel.saveReplay(file), (ignored, error) -> {
+                if (error != null) {
+                    showAlert("Error saving replay: " + error.getMessage());
+                } else {
+                    statusLabel.setText("Replay saved successfully!");
+                }
+            });
+        }
+    }
+
+    /**
+     * Handles playing back a replay file.
+     * Moves are applied headlessly and the maze is redrawn once per frame,
+     * so long sessions play back much faster than real time. Keys are ignored
+     * until the replay ends; the game then continues from where it stopped.
+     */
+    @FXML
+    private void onPlayReplay(ActionEvent event) {
+        File file = showReplayFileDialog(false);
+        if (file == null || viewModel == null) return;
+
+        stopReplay();
+        whenDone(viewModel.startReplay(file), (totalMoves, error) -> {
+            if (error != null) {
+                showAlert("Error loading replay: " + error.getMessage());
+                return;
             }
+            mazeGenerated = true;
+            updateControlsState();
+
+            int movesPerFrame = Math.max(1, totalMoves / REPLAY_TARGET_FRAMES);
+            statusLabel.setText("Replaying " + totalMoves + " moves...");
+            replayTimer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    if (!viewModel.stepReplay(movesPerFrame)) {
+                        stop();
+                        replayTimer = null;
+                        whenDone(viewModel.endReplay(), (ignored, endError) -> {
+                            if (endError != null) {
+                                LOG.error("Could not continue from the replay", endError);
+                            }
+                            statusLabel.setText("Replay finished (" + totalMoves + " moves)");
+                        });
+                    }
+                }
+            };
+            replayTimer.start();
+        });
+    }
+
+    // Drops a replay that is still playing, e.g. because another maze replaces it
+    private void stopReplay() {
+        if (replayTimer != null) {
+            replayTimer.stop();
+            replayTimer = null;
         }
+        viewModel.cancelReplay();
     }
 
+    /**
+     * Show file chooser for replay files
+     */
+    private File showReplayFileDialog(boolean save) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(save ? "Save Replay" : "Play Replay");
+        fileChooser.getExtensionFilters().add(
+                new FileChooser.ExtensionFilter("Replay Files", "*.replay"));
+
+        Stage stage = (Stage) generateMazeButton.getScene().getWindow();
+        if (save) {
+            fileChooser.setInitialFileName("my_session.replay");
+            return fileChooser.showSaveDialog(stage);
+        }
+        return fileChooser.showOpenDialog(stage);
+    }
+
+    /**
+     * Opens another game window with its own, independent session.
+     * All sessions share the worker pool of the {@link GameSessionManager}.
+     */
+    @FXML
+    private void onNewGameWindow(ActionEvent event) {
+        GameSessionManager manager = GameSessionManager.getDefault();
+        GameSession newSession = manager.createSession("Window");
+        try {
+            FXMLLoader loader = AssetPreloader.takeGameView();
+            Parent root = loader.getRoot();
+
+            MyViewController controller = loader.getController();
+            controller.setViewModel(new MyViewModel(newSession.getModel()));
+            controller.setSession(newSession);
+
+            Stage stage = new Stage();
+            controller.setPrimaryStage(stage);
+            stage.setScene(new Scene(root, 1000, 800));
+            stage.setTitle("Maze Game - " + newSession);
+            stage.setOnHidden(e -> manager.closeSession(newSession));
+            stage.show();
+        } catch (IOException e) {
+            manager.closeSession(newSession);
+            LOG.error("Failed to open a new game window", e);
+            showAlert("Could not open a new game window: " + e.getMessage());
+        }
+    }
 
     @FXML
     private void onShowProperties(ActionEvent event) {
+        GameSessionManager manager = GameSessionManager.getDefault();
         showAlert("Maze Game Properties:\n\n" +
+                "Sessions:\n" +
+                "• Open sessions: " + manager.getSessions().size() + "\n" +
+                "• This session: " + formatMegabytes(session != null ? session.estimateMemoryBytes() : 0) + "\n" +
+                "• All sessions: " + formatMegabytes(manager.estimateTotalMemoryBytes()) + "\n\n" +
                 "Navigation:\n" +
                 "• NumPad 2,4,6,8 - Move up/down/left/right\n" +
                 "• NumPad 1,3,7,9 - Diagonal movement\n" +
@@ -471,7 +718,7 @@ public class MyViewController implements IView, Initializable {
     // =================== IView Implementation ===================
 
     @Override
-    public void displayMaze(int[][] maze) {
+    public void displayMaze(IMazeGrid maze) {
         this.currentMaze = maze;
         this.mazeGenerated = true;
 
@@ -494,6 +741,16 @@ public class MyViewController implements IView, Initializable {
         updateControlsState();
     }
 
+    // The model has no maze to play any more (e.g. a load failed half-way): nothing to show or move
+    private void clearMaze() {
+        currentMaze = null;
+        mazeGenerated = false;
+        if (mazeDisplayer != null) {
+            mazeDisplayer.displayMaze(null);
+        }
+        updateControlsState();
+    }
+
     @Override
     public void updateCharacterPosition(int row, int col) {
         if (mazeDisplayer != null) {
@@ -513,10 +770,10 @@ public class MyViewController implements IView, Initializable {
 
     @Override
     public void showMazeSolved() {
-        System.out.println("===> showMazeSolved() called!");
+        LOG.debug("showMazeSolved() called");
 
         playWinSound();
-        Image explosionImage = new Image(getClass().getResourceAsStream("/images/explosion_clean.png"));
+        Image explosionImage = AssetPreloader.image("/images/explosion_clean.png");
         ImageView imageView = new ImageView(explosionImage);
         imageView.setFitWidth(600.0);
         imageView.setFitHeight(600.0);
@@ -549,7 +806,7 @@ public class MyViewController implements IView, Initializable {
         ));
 
         playAgainBtn.setOnAction(e -> {
-            System.out.println("===> Play again clicked");
+            LOG.debug("Play again clicked");
             Node rootNode = generateMazeButton.getScene().getRoot();
             if (rootNode instanceof StackPane stackPane) {
                 stackPane.getChildren().removeIf(node -> "winPane".equals(node.getId()));
@@ -663,11 +920,40 @@ public class MyViewController implements IView, Initializable {
         if (solveMazeButton != null) {
             solveMazeButton.setDisable(!mazeGenerated);
         }
+        if (visualizeSearchButton != null) {
+            visualizeSearchButton.setDisable(!mazeGenerated);
+        }
         if (saveMazeMenuItem != null) {
             saveMazeMenuItem.setDisable(!mazeGenerated);
         }
     }
 
+    /**
+     * Runs {@code action} on the FX thread once a view model call has finished,
+     * with the cause of a failure rather than its {@link CompletionException} wrapper.
+     */
+    static <T> void whenDone(CompletableFuture<T> call, BiConsumer<T, Throwable> action) {
+        call.whenComplete((result, error) -> Platform.runLater(() -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            action.accept(result, cause);
+        }));
+    }
+
+    private static String formatMegabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Set the session that owns this view's model (called from GameIntroController)
+     */
+    public void setSession(GameSession session) {
+        this.session = session;
+        if (viewModel != null) {
+            viewModel.setSession(session);
+        }
+    }
+
     /**
      * Set the ViewModel (called from MainApplication)
      */
@@ -680,6 +966,10 @@ public class MyViewController implements IView, Initializable {
         }
     }
 
+    public MyViewModel getViewModel() {
+        return viewModel;
+    }
+
     /**
      * Set up data bindings between ViewModel and View (MVVM pattern)
      */
@@ -688,6 +978,8 @@ public class MyViewController implements IView, Initializable {
         viewModel.mazeProperty().addListener((obs, oldMaze, newMaze) -> {
             if (newMaze != null) {
                 displayMaze(newMaze);
+            } else {
+                clearMaze();
             }
         });
 
@@ -0,0 +1,295 @@
+package View;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Transparent canvas stacked over the {@link MazeDisplayer} that draws the
+ * solution path and the hero, so neither ever repaints the maze itself.
+ * The path is revealed progressively by an {@link AnimationTimer}: each frame
+ * draws the next steps until a fixed time budget is spent, so long solutions
+ * appear smoothly instead of stalling the FX thread.
+ * Cells are placed relative to an origin cell, which follows the window that
+ * {@link MazeDisplayer} shows of mazes too big to draw whole.
+ */
+public class SolutionOverlay extends Canvas {
+
+    // Time allowed for drawing path cells in a single frame
+    private static final long FRAME_BUDGET_NANOS = 4_000_000L;
+    // An animated reveal takes about this many frames, however long the path
+    private static final int REVEAL_FRAMES = 90;
+    // Check the clock only every few cells
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+    // Below this cell size, dots are drawn as full cells so they stay visible
+    private static final double MIN_DOT_CELL_SIZE = 4.0;
+
+    private final Color pathColor = Color.YELLOW.deriveColor(0, 1, 1, 0.8);
+    private final Color expandedColor = Color.DEEPSKYBLUE.deriveColor(0, 1, 1, 0.45);
+    private final Image heroImage = AssetPreloader.image("/images/hero.png");
+    private final Image solutionImage = AssetPreloader.image("/images/solution.png");
+
+    private double cellWidth = 20.0;
+    private double cellHeight = 20.0;
+    private int originRow;
+    private int originCol;
+    private int characterRow;
+    private int characterCol;
+    private int goalRow = -1;
+    private int goalCol = -1;
+
+    // Solution path, its cell -> step index lookup, and reveal progress
+    private int[] pathRows;
+    private int[] pathCols;
+    private Map<Long, Integer> pathIndex;
+    private boolean pathVisible = false;
+    private int revealTarget = 0;
+    private int drawnCount = 0;
+    private int revealStep = 0;
+    private boolean revealing = false;
+
+    private final AnimationTimer revealTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drawNextSteps();
+        }
+    };
+
+    public SolutionOverlay() {
+        setMouseTransparent(true);
+        setFocusTraversable(false);
+        // A resized canvas keeps stale pixels at the old scale
+        widthProperty().addListener((obs, oldWidth, newWidth) -> repaint());
+        heightProperty().addListener((obs, oldHeight, newHeight) -> repaint());
+    }
+
+    /**
+     * Sets the on-screen cell size and repaints the overlay.
+     */
+    public void setCellSize(double cellWidth, double cellHeight) {
+        if (this.cellWidth == cellWidth && this.cellHeight == cellHeight) return;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        repaint();
+    }
+
+    /**
+     * Sets the cell drawn at the top-left corner and repaints the overlay.
+     */
+    public void setOrigin(int row, int col) {
+        if (originRow == row && originCol == col) return;
+        this.originRow = row;
+        this.originCol = col;
+        repaint();
+    }
+
+    public void setGoalPosition(int row, int col) {
+        this.goalRow = row;
+        this.goalCol = col;
+    }
+
+    /**
+     * Moves the hero, repainting only the two cells involved.
+     */
+    public void setCharacterPosition(int row, int col) {
+        int oldRow = characterRow;
+        int oldCol = characterCol;
+        characterRow = row;
+        characterCol = col;
+
+        GraphicsContext gc = getGraphicsContext2D();
+        clearCell(gc, oldRow, oldCol);
+        if (isDrawnPathCell(oldRow, oldCol)) {
+            drawPathCell(gc, oldRow, oldCol);
+        }
+        clearCell(gc, row, col);
+        drawCharacter(gc);
+    }
+
+    /**
+     * Shows a new solution path.
+     *
+     * @param rows row of each path step
+     * @param cols column of each path step
+     * @param animate true to reveal the path step by step
+     */
+    public void showSolution(int[] rows, int[] cols, boolean animate) {
+        this.pathRows = rows;
+        this.pathCols = cols;
+        this.pathIndex = null;
+        this.pathVisible = true;
+        this.revealTarget = animate ? 0 : rows.length;
+        this.revealStep = Math.max(1, (rows.length + REVEAL_FRAMES - 1) / REVEAL_FRAMES);
+        repaint();
+    }
+
+    /**
+     * Shows or hides the current path without forgetting it.
+     */
+    public void setSolutionVisible(boolean visible) {
+        if (pathRows == null || pathVisible == visible) return;
+        pathVisible = visible;
+        revealTarget = pathRows.length;
+        repaint();
+    }
+
+    /**
+     * Forgets the current path, e.g. when a new maze is displayed.
+     */
+    public void clearSolution() {
+        pathRows = null;
+        pathCols = null;
+        pathIndex = null;
+        pathVisible = false;
+        repaint();
+    }
+
+    /**
+     * Paints cells expanded by a running search. They stay until the next
+     * repaint, e.g. when a solution is shown or the maze is resized.
+     *
+     * @param cells cell indices ({@code row * columns + col})
+     * @param columns maze width
+     */
+    public void paintExpanded(int[] cells, int columns) {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setFill(expandedColor);
+        for (int cell : cells) {
+            int row = cell / columns;
+            int col = cell % columns;
+            if (isCharacterCell(row, col) || (row == goalRow && col == goalCol)) continue;
+            gc.fillRect(x(col), y(row), cellWidth, cellHeight);
+        }
+    }
+
+    /**
+     * @return true while the path is still being drawn
+     */
+    public boolean isRevealing() {
+        return revealing;
+    }
+
+    // Clears the overlay and restarts drawing the path from the first step
+    private void repaint() {
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        drawnCount = 0;
+        if (pathVisible && pathRows != null) {
+            startRevealing();
+        } else {
+            stopRevealing();
+        }
+        drawCharacter(gc);
+    }
+
+    private void startRevealing() {
+        if (!revealing) {
+            revealing = true;
+            revealTimer.start();
+        }
+    }
+
+    private void stopRevealing() {
+        if (revealing) {
+            revealing = false;
+            revealTimer.stop();
+        }
+    }
+
+    // Draws path cells up to this frame's target, within the frame budget
+    private void drawNextSteps() {
+        if (!pathVisible || pathRows == null) {
+            stopRevealing();
+            return;
+        }
+        if (revealTarget < pathRows.length) {
+            revealTarget = Math.min(pathRows.length, revealTarget + revealStep);
+        }
+
+        GraphicsContext gc = getGraphicsContext2D();
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        int drawnThisFrame = 0;
+        while (drawnCount < revealTarget) {
+            int row = pathRows[drawnCount];
+            int col = pathCols[drawnCount];
+            drawnCount++;
+            if (!isCharacterCell(row, col)) {
+                drawPathCell(gc, row, col);
+            }
+            if (++drawnThisFrame % BUDGET_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+
+        if (drawnCount >= pathRows.length) {
+            stopRevealing();
+        }
+    }
+
+    private boolean isCharacterCell(int row, int col) {
+        return row == characterRow && col == characterCol;
+    }
+
+    // Start and goal cells are left to the hero and the goal marker
+    private void drawPathCell(GraphicsContext gc, int row, int col) {
+        if (row == goalRow && col == goalCol) return;
+
+        double x = x(col);
+        double y = y(row);
+        if (solutionImage != null) {
+            gc.drawImage(solutionImage, x, y, cellWidth, cellHeight);
+        } else if (cellWidth < MIN_DOT_CELL_SIZE) {
+            gc.setFill(pathColor);
+            gc.fillRect(x, y, cellWidth, cellHeight);
+        } else {
+            gc.setFill(pathColor);
+            gc.fillOval(x + cellWidth * 0.25, y + cellHeight * 0.25, cellWidth * 0.5, cellHeight * 0.5);
+        }
+    }
+
+    private void drawCharacter(GraphicsContext gc) {
+        double x = x(characterCol);
+        double y = y(characterRow);
+        if (heroImage != null) {
+            gc.drawImage(heroImage, x, y, cellWidth, cellHeight);
+        } else {
+            gc.setFill(Color.RED);
+            double inset = Math.min(2.0, cellWidth / 4);
+            gc.fillOval(x + inset, y + inset, cellWidth - 2 * inset, cellHeight - 2 * inset);
+        }
+    }
+
+    private void clearCell(GraphicsContext gc, int row, int col) {
+        gc.clearRect(x(col), y(row), cellWidth, cellHeight);
+    }
+
+    private double x(int col) {
+        return (col - originCol) * cellWidth;
+    }
+
+    private double y(int row) {
+        return (row - originRow) * cellHeight;
+    }
+
+    // Built on first use; a hero move only needs to know if its old cell was part of the drawn path
+    private boolean isDrawnPathCell(int row, int col) {
+        if (!pathVisible || pathRows == null || drawnCount == 0) return false;
+        if (pathIndex == null) {
+            pathIndex = new HashMap<>(pathRows.length * 2);
+            for (int i = pathRows.length - 1; i >= 0; i--) {
+                pathIndex.put(cellKey(pathRows[i], pathCols[i]), i);
+            }
+        }
+        Integer index = pathIndex.get(cellKey(row, col));
+        return index != null && index < drawnCount;
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,82 @@
+package View;
+
+import javafx.animation.AnimationTimer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the time of each startup phase, measured from JVM start,
+ * and logs a phase report once the game screen has drawn its first frame.
+ */
+public final class StartupTimer {
+
+    private static final Logger LOG = LogManager.getLogger(StartupTimer.class);
+
+    private static final long JVM_START_MILLIS = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final List<String> phases = new ArrayList<>();
+    private static final List<Long> times = new ArrayList<>();
+    private static boolean reported = false;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Marks the end of a startup phase. Safe to call from any thread.
+     *
+     * @param phase name shown in the report
+     */
+    public static synchronized void mark(String phase) {
+        if (reported) return;
+        phases.add(phase);
+        times.add(System.currentTimeMillis() - JVM_START_MILLIS);
+    }
+
+    /**
+     * @return milliseconds from JVM start to the given phase, or -1 if it was not marked
+     */
+    public static synchronized long elapsed(String phase) {
+        int index = phases.indexOf(phase);
+        return index >= 0 ? times.get(index) : -1;
+    }
+
+    /**
+     * Marks the phase when the next frame has been rendered.
+     * Must be called on the FX thread.
+     *
+     * @param phase name shown in the report
+     * @param report true to log the report right after marking
+     */
+    public static void markOnNextFrame(String phase, boolean report) {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                mark(phase);
+                if (report) {
+                    report();
+                }
+            }
+        }.start();
+    }
+
+    /**
+     * Logs the recorded phases once; later marks are ignored.
+     */
+    public static synchronized void report() {
+        if (reported) return;
+        reported = true;
+
+        StringBuilder sb = new StringBuilder("Startup phases (ms since JVM start):");
+        long previous = 0;
+        for (int i = 0; i < phases.size(); i++) {
+            long time = times.get(i);
+            sb.append(String.format("%n  %-28s %6d  (+%d)", phases.get(i), time, time - previous));
+            previous = time;
+        }
+        LOG.info(sb.toString());
+    }
+}
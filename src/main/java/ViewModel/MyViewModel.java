@@ -1,26 +1,72 @@
 package ViewModel;
 
+import Model.IMazeGrid;
 import Model.IModel;
+import Model.ReplayPlayer;
+import Model.SearchEventStream;
+import Model.SolverAlgorithm;
+import Session.GameSession;
+import algorithms.mazeGenerators.Position;
 import algorithms.search.AState;
+import javafx.application.Platform;
 import javafx.beans.property.*;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * ViewModel class for connecting the View and Model layers
  * in the MVVM architecture. Responsible for exposing properties
  * and delegating logic to the underlying model.
+ *
+ * Models are not thread-safe, so with a session every model call runs on the
+ * session's worker, in the order the calls were made. What the view needs
+ * afterwards (maze, position, goal, solution) is read on the worker too and
+ * published to the properties on the FX thread, before the returned future
+ * completes. Without a session the calls run on the calling thread.
+ *
+ * Mazes of {@code maze.chunkedCells} cells or more (25 million unless set) are
+ * generated as chunked, memory-mapped mazes ({@link IModel#generateLargeMaze}).
+ * Their grid is published like any other; the view reads only the part it shows.
  */
 public class MyViewModel {
 
+    private static final long CHUNKED_MAZE_CELLS = Long.getLong("maze.chunkedCells", 25_000_000L);
+
     private final IModel model;
 
     // Properties for data binding with the View (JavaFX UI)
     private final IntegerProperty playerRow = new SimpleIntegerProperty();
     private final IntegerProperty playerCol = new SimpleIntegerProperty();
-    private final ObjectProperty<int[][]> maze = new SimpleObjectProperty<>();
+    private final ObjectProperty<IMazeGrid> maze = new SimpleObjectProperty<>();
+
+    // Copies of model state for the FX thread, written only when publishing
+    private Position goalPosition;
+    private int mazeColumns;
+    private List<AState> solution;
+    private int nodesEvaluated;
+
+    // Replay currently being played back, if any; set on the session's worker, dropped by any maze change
+    private volatile ReplayPlayer replayPlayer;
+
+    // Session owning the model; every model call goes through it
+    private GameSession session;
+
+    // What a model call may have changed, and so what is published after it
+    private enum Changes {
+        POSITION,
+        SOLUTION,
+        MAZE
+    }
+
+    // A model call; checked exceptions fail the returned future
+    @FunctionalInterface
+    private interface ModelTask<T> {
+        T run(IModel model) throws Exception;
+    }
 
     /**
      * Constructor that receives the Model implementation.
@@ -35,67 +81,345 @@ public class MyViewModel {
      * Updates the maze property and character position accordingly.
      * @param rows number of rows in the maze
      * @param cols number of columns in the maze
+     * @return future completed once the maze is published
+     */
+    public CompletableFuture<Void> generateMaze(int rows, int cols) {
+        if ((long) rows * cols >= CHUNKED_MAZE_CELLS) {
+            return onModel(m -> {
+                replayPlayer = null;
+                File backingFile = File.createTempFile("maze", ".chunks");
+                backingFile.deleteOnExit();
+                m.generateLargeMaze(rows, cols, backingFile);
+                return null;
+            }, Changes.MAZE);
+        }
+        return onModel(m -> {
+            replayPlayer = null;
+            m.generateMaze(rows, cols);
+            return null;
+        }, Changes.MAZE);
+    }
+
+    /**
+     * Generates a maze too large for the heap into a chunked, memory-mapped file.
+     * The view draws it through {@link IMazeGrid#getRegion}, so only the chunks
+     * around the player are paged in.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param backingFile file that stores the chunked grid
+     * @return future completed once the maze is published; fails if the backing file cannot be written
      */
-    public void generateMaze(int rows, int cols) {
-        model.generateMaze(rows, cols);
-        maze.set(model.getMaze());
-        updateCharacterPosition();
+    public CompletableFuture<Void> generateLargeMaze(int rows, int cols, File backingFile) {
+        return onModel(m -> {
+            replayPlayer = null;
+            m.generateLargeMaze(rows, cols, backingFile);
+            return null;
+        }, Changes.MAZE);
+    }
+
+    /**
+     * Returns a rectangular part of the maze, paging in the chunks it covers.
+     * @return future with the region, clipped to the maze bounds
+     */
+    public CompletableFuture<int[][]> getMazeRegion(int fromRow, int fromCol, int rows, int cols) {
+        return onModel(m -> m.getMazeRegion(fromRow, fromCol, rows, cols), Changes.POSITION);
+    }
+
+    /**
+     * Pipelined new game: generates the maze on the session's worker and, while
+     * the maze is handed to the view on the FX thread, starts solving it on the
+     * worker right away - so the solver runs while the view builds and draws the maze.
+     * Without a session, generates and solves on the calling thread.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return future completed (on the worker) with the solution path, or null if none was found
+     */
+    public CompletableFuture<List<AState>> generateAndSolveMaze(int rows, int cols) {
+        // Both tasks are queued on the session, so no other model call can run between them.
+        // The maze is posted before the generate task ends, so it reaches the FX thread before the solution.
+        generateMaze(rows, cols);
+        return solveMaze();
     }
 
     /**
      * Triggers maze solving in the model.
+     * @return future with the solution path, or null if none was found
      */
-    public void solveMaze() {
-        model.solveMaze();
+    public CompletableFuture<List<AState>> solveMaze() {
+        return onModel(m -> {
+            m.solveMaze();
+            return m.getSolution();
+        }, Changes.SOLUTION);
     }
 
     /**
-     * Moves the player in the given direction (e.g., "UP", "DOWN").
-     * After movement, updates the character position properties.
-     * @param direction the move direction string
+     * @return a stream for {@link #solveMazeVisualized}, sized for the current maze
      */
-    public void moveCharacter(String direction) {
-        model.moveCharacter(direction);
-        updateCharacterPosition();
+    public SearchEventStream newSearchEventStream() {
+        return new SearchEventStream(mazeColumns);
     }
 
     /**
-     * Updates the playerRow and playerCol properties from the model.
-     * Used after generation, loading, or movement.
+     * Solves the maze in the background while streaming the cells the search
+     * expands, so the view can paint the search as it happens.
+     * Poll the stream from the FX thread until it is done.
+     * @param algorithm search algorithm to watch
+     * @param events stream from {@link #newSearchEventStream()}
+     * @return future with the solution path, or null if none was found
      */
-    private void updateCharacterPosition() {
-        int[] pos = model.getCharacterPosition();
-        playerRow.set(pos[0]);
-        playerCol.set(pos[1]);
+    public CompletableFuture<List<AState>> solveMazeVisualized(SolverAlgorithm algorithm, SearchEventStream events) {
+        CompletableFuture<List<AState>> solve = session != null
+                ? onModel(m -> {
+                    m.solveMaze(algorithm, events);
+                    return m.getSolution();
+                }, Changes.SOLUTION)
+                // Without a session the FX thread must not block on the search
+                : CompletableFuture.supplyAsync(() -> {
+                    model.solveMaze(algorithm, events);
+                    return model.getSolution();
+                });
+        if (session == null) {
+            solve.thenAccept(path -> Platform.runLater(() -> solution = path));
+        }
+        // Also ends the stream if the solve failed before reaching the model
+        solve.whenComplete((ignored, error) -> events.finish());
+        return solve;
+    }
+
+    /**
+     * Sets the session that owns the model, so model calls are
+     * serialized with the session's other work.
+     */
+    public void setSession(GameSession session) {
+        this.session = session;
+    }
+
+    /**
+     * @return expansions of the last solve
+     */
+    public int getNumberOfNodesEvaluated() {
+        return nodesEvaluated;
+    }
+
+    /**
+     * Moves the player in the given direction (e.g., "UP", "DOWN").
+     * After movement, updates the character position properties.
+     * @param direction the move direction string
+     * @return future with true if the model accepted the move
+     */
+    public CompletableFuture<Boolean> moveCharacter(String direction) {
+        if (isReplaying()) return CompletableFuture.completedFuture(false);
+        return onModel(m -> {
+            int[] before = m.getCharacterPosition();
+            m.moveCharacter(direction);
+            return !Arrays.equals(before, m.getCharacterPosition());
+        }, Changes.POSITION);
     }
 
     /**
      * Saves the current maze to a file.
      * @param file the destination file
-     * @throws IOException if saving fails
+     * @return future completed once saved; fails with the IOException if saving fails
      */
-    public void saveMaze(File file) throws IOException {
-        model.saveMaze(file);
+    public CompletableFuture<Void> saveMaze(File file) {
+        return onModel(m -> {
+            m.saveMaze(file);
+            return null;
+        }, Changes.POSITION);
     }
 
     /**
      * Loads a maze from a file and updates properties.
      * @param file the source file
-     * @throws IOException if loading fails
-     * @throws ClassNotFoundException if deserialization fails
+     * @return future completed once the maze is published; fails if the file cannot be read
      */
-    public void loadMaze(File file) throws IOException, ClassNotFoundException {
-        model.loadMaze(file);
-        maze.set(model.getMaze());
-        updateCharacterPosition();
+    public CompletableFuture<Void> loadMaze(File file) {
+        return onModel(m -> {
+            replayPlayer = null;
+            m.loadMaze(file);
+            return null;
+        }, Changes.MAZE);
     }
 
     /**
-     * Returns the solution path generated by the model (if available).
+     * Saves the current session (maze and moves) for later replay.
+     * @param file the destination file
+     * @return future completed once saved; fails with the IOException if saving fails,
+     *         or with an IllegalStateException while a replay is playing
+     */
+    public CompletableFuture<Void> saveReplay(File file) {
+        if (isReplaying()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Wait for the replay to finish"));
+        }
+        return onModel(m -> {
+            m.saveReplay(file);
+            return null;
+        }, Changes.POSITION);
+    }
+
+    /**
+     * Loads a recorded session and shows its maze with the player at the start.
+     * Use {@link #stepReplay(int)} to play the recorded moves once the future completes,
+     * then {@link #endReplay()}. The player cannot move while the replay plays.
+     * @param file the recording file
+     * @return future with the total number of recorded moves; fails if the recording cannot be read
+     */
+    public CompletableFuture<Integer> startReplay(File file) {
+        return onModel(m -> {
+            replayPlayer = null;
+            ReplayPlayer player = m.loadReplay(file);
+            replayPlayer = player;
+            return player.getTotalMoves();
+        }, Changes.MAZE);
+    }
+
+    /**
+     * Applies the next recorded moves headlessly, then publishes only the final
+     * position - so the view renders once per call, not once per move.
+     * The model is not moved until {@link #endReplay()}.
+     * @param moves number of moves to apply
+     * @return true while there are moves left to play; false once finished or dropped by a maze change
+     */
+    public boolean stepReplay(int moves) {
+        ReplayPlayer player = replayPlayer;
+        if (player == null) return false;
+        player.advance(moves);
+        playerRow.set(player.getRow());
+        playerCol.set(player.getCol());
+        return !player.isFinished();
+    }
+
+    /**
+     * Ends the playback: the model takes over the position and moves of the replay,
+     * so the game continues (and is saved) from there.
+     * @return future completed once the model's position is published
+     */
+    public CompletableFuture<Void> endReplay() {
+        ReplayPlayer player = replayPlayer;
+        if (player == null) return CompletableFuture.completedFuture(null);
+        replayPlayer = null;
+        return onModel(m -> {
+            m.followReplay(player);
+            return null;
+        }, Changes.POSITION);
+    }
+
+    /**
+     * Drops the replay being played, if any, without applying it to the model.
+     */
+    public void cancelReplay() {
+        replayPlayer = null;
+    }
+
+    /**
+     * @return true from {@link #startReplay} until the replay is ended or dropped
+     */
+    public boolean isReplaying() {
+        return replayPlayer != null;
+    }
+
+    /**
+     * Autosaves this game in the background from now on, so it can be resumed after a crash.
+     * @param directory checkpoint directory
+     * @return future completed once enabled; fails if the directory cannot be created
+     */
+    public CompletableFuture<Void> enableAutosave(File directory) {
+        return onModel(m -> {
+            m.enableCheckpoints(directory);
+            return null;
+        }, Changes.POSITION);
+    }
+
+    /**
+     * Writes any pending autosave data and stops autosaving.
+     * @return future completed once the pending data is written
+     */
+    public CompletableFuture<Void> disableAutosave() {
+        return onModel(m -> {
+            m.disableCheckpoints();
+            return null;
+        }, Changes.POSITION);
+    }
+
+    /**
+     * Restores the autosaved game and shows its maze with the player where it was.
+     * @param directory checkpoint directory
+     * @return future with false if there is no autosaved game; fails if the checkpoint cannot be read
+     */
+    public CompletableFuture<Boolean> resumeLastGame(File directory) {
+        return onModel(m -> {
+            replayPlayer = null;
+            return m.resumeFromCheckpoint(directory);
+        }, Changes.MAZE);
+    }
+
+    /**
+     * Returns the solution path of the last solve (if available).
      * @return a list of AState objects representing the solution path
      */
     public List<AState> getSolution() {
-        return model.getSolution();
+        return solution;
+    }
+
+    // Runs a model call on the session's worker and publishes what it changed on the FX thread
+    private <T> CompletableFuture<T> onModel(ModelTask<T> task, Changes changes) {
+        if (session == null) {
+            try {
+                return CompletableFuture.completedFuture(task.run(model));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            } finally {
+                readChanges(model, changes).run();
+            }
+        }
+        return session.submit(m -> {
+            try {
+                return task.run(m);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                // Posted before the future completes, so callers see the new state - also after a failure
+                Platform.runLater(readChanges(m, changes));
+            }
+        });
+    }
+
+    // Reads the changed state on the model's thread; the returned task publishes it on the FX thread
+    private Runnable readChanges(IModel m, Changes changes) {
+        int[] position = m.getCharacterPosition();
+        switch (changes) {
+            case MAZE: {
+                IMazeGrid grid = m.getMazeGrid();
+                Position goal = m.getGoalPosition();
+                int[] size = m.getMazeSize();
+                return () -> {
+                    goalPosition = goal;
+                    mazeColumns = size != null ? size[1] : 0;
+                    solution = null;
+                    nodesEvaluated = 0;
+                    setPosition(position);
+                    maze.set(grid);
+                };
+            }
+            case SOLUTION: {
+                List<AState> path = m.getSolution();
+                int nodes = m.getNumberOfNodesEvaluated();
+                return () -> {
+                    solution = path;
+                    nodesEvaluated = nodes;
+                    setPosition(position);
+                };
+            }
+            default:
+                return () -> setPosition(position);
+        }
+    }
+
+    private void setPosition(int[] position) {
+        playerRow.set(position[0]);
+        playerCol.set(position[1]);
     }
 
     // === JavaFX Property Getters for Data Binding ===
@@ -115,23 +439,23 @@ public class MyViewModel {
     }
 
     /**
-     * @return property representing the maze matrix
+     * @return property with the maze to draw, null without a maze
      */
-    public ObjectProperty<int[][]> mazeProperty() {
+    public ObjectProperty<IMazeGrid> mazeProperty() {
         return maze;
     }
 
     /**
-     * @return the goal position's row index
+     * @return the goal position's row index, -1 without a maze
      */
     public int getGoalRow() {
-        return model.getGoalPosition().getRowIndex();
+        return goalPosition != null ? goalPosition.getRowIndex() : -1;
     }
 
     /**
-     * @return the goal position's column index
+     * @return the goal position's column index, -1 without a maze
      */
     public int getGoalCol() {
-        return model.getGoalPosition().getColumnIndex();
+        return goalPosition != null ? goalPosition.getColumnIndex() : -1;
     }
 }
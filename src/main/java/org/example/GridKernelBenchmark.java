@@ -0,0 +1,143 @@
+package org.example;
+
+import Model.ArrayMazeGrid;
+import Model.GridKernels;
+import Model.IMazeGrid;
+import Model.OffHeapMazeGrid;
+import algorithms.mazeGenerators.Position;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+/**
+ * Compares the scalar and the Vector API {@link GridKernels} on one large grid,
+ * stored both off the heap (1 byte per cell) and as an {@code int[][]} (4 bytes per cell).
+ * A bulk copy of the off-heap cells is timed as well: it is about as fast as this
+ * machine's memory goes, so kernels close to its GB/s are bandwidth bound.
+ *
+ * Usage:
+ * <pre>
+ *     java --add-modules jdk.incubator.vector -Xmx1g org.example.GridKernelBenchmark
+ *          [--size 10000] [--runs 5] [--seed 1]
+ * </pre>
+ * Without {@code --add-modules} only the scalar kernels are measured. The default
+ * 10000 x 10000 grid needs about 100 MB off the heap and 400 MB on it.
+ */
+public class GridKernelBenchmark {
+
+    private static final int FREE_ARGB = 0x66CC0000;
+    private static final int WALL_ARGB = 0xFF000000;
+
+    private static long checksum;
+
+    public static void main(String[] args) {
+        int size = 10_000;
+        int runs = 5;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--size": size = Integer.parseInt(args[i + 1]); break;
+                case "--runs": runs = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        GridKernels scalar = GridKernels.scalar();
+        GridKernels vector = GridKernels.get();
+        if (!vector.isVectorized()) {
+            System.out.println("jdk.incubator.vector is not available - run with --add-modules jdk.incubator.vector");
+        }
+        System.out.printf("Building a %d x %d grid (%,d cells)...%n", size, size, (long) size * size);
+        Position corner = new Position(0, 0);
+        try (OffHeapMazeGrid offHeap = OffHeapMazeGrid.copyOf(randomGrid(size, seed), corner, corner);
+             Arena arena = Arena.ofConfined()) {
+            ArrayMazeGrid array = new ArrayMazeGrid(offHeap.getRegion(0, 0, size, size));
+            long cells = (long) size * size;
+
+            MemorySegment target = arena.allocate(offHeap.getByteSize());
+            double copyMillis = time(runs, () -> MemorySegment.copy(offHeap.getCells(), 0, target, 0, cells));
+            System.out.printf("Reference: bulk copy of the off-heap cells %.1f ms, %.2f GB/s%n",
+                    copyMillis, gigabytesPerSecond(cells, copyMillis));
+
+            System.out.printf("%-12s %-9s %10s %10s %9s %10s%n",
+                    "operation", "storage", "scalar ms", "vector ms", "speedup", "vector GB/s");
+            for (IMazeGrid grid : new IMazeGrid[]{offHeap, array}) {
+                String storage = grid == offHeap ? "off-heap" : "int[][]";
+                long bytes = grid == offHeap ? cells : cells * Integer.BYTES;
+                report("count open", storage, bytes, runs, scalar, vector, kernels ->
+                        checksum += kernels.countOpen(grid));
+                long[] words = new long[(int) ((cells + 63) >>> 6)];
+                report("pack bits", storage, bytes, runs, scalar, vector, kernels -> {
+                    Arrays.fill(words, 0);
+                    checksum += kernels.packOpenCells(grid, 0, cells, words);
+                });
+                int[] line = new int[size];
+                report("to ARGB", storage, bytes, runs, scalar, vector, kernels -> {
+                    for (int row = 0; row < grid.getRows(); row++) {
+                        kernels.toArgb(grid, row, 0, line.length, line, 0, FREE_ARGB, WALL_ARGB);
+                    }
+                    checksum += line[line.length - 1];
+                });
+            }
+        }
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private interface Kernel {
+        void run(GridKernels kernels);
+    }
+
+    private static void report(String operation, String storage, long bytes, int runs,
+                               GridKernels scalar, GridKernels vector, Kernel kernel) {
+        double scalarMillis = time(runs, () -> kernel.run(scalar));
+        if (!vector.isVectorized()) {
+            System.out.printf("%-12s %-9s %10.1f %10s %9s %10s%n", operation, storage, scalarMillis, "-", "-", "-");
+            return;
+        }
+        double vectorMillis = time(runs, () -> kernel.run(vector));
+        System.out.printf("%-12s %-9s %10.1f %10.1f %8.1fx %10.2f%n", operation, storage, scalarMillis,
+                vectorMillis, scalarMillis / vectorMillis, gigabytesPerSecond(bytes, vectorMillis));
+    }
+
+    // Median of the runs, after two warm-up runs for the JIT
+    private static double time(int runs, Runnable task) {
+        task.run();
+        task.run();
+        long[] times = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            task.run();
+            times[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[runs / 2] / 1e6;
+    }
+
+    private static double gigabytesPerSecond(long bytes, double millis) {
+        return bytes / (millis / 1000) / 1e9;
+    }
+
+    // About 30% walls, from a cheap hash of the cell number
+    private static IMazeGrid randomGrid(int size, long seed) {
+        return new IMazeGrid() {
+            @Override
+            public int getRows() {
+                return size;
+            }
+
+            @Override
+            public int getColumns() {
+                return size;
+            }
+
+            @Override
+            public int getCell(int row, int col) {
+                long x = ((long) row * size + col + seed) * 0x9E3779B97F4A7C15L;
+                x ^= x >>> 29;
+                return (x & 0xFF) < 77 ? 1 : 0;
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package org.example;
+
+import Client.Client;
+import IO.MyDecompressorInputStream;
+import algorithms.mazeGenerators.Maze;
+import algorithms.search.Solution;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+
+/**
+ * Requests to the JAR's servers over its object-stream protocol, written the
+ * same way as the JAR's own client strategies. Used by the benchmarks.
+ */
+public final class LegacyMazeClient {
+
+    private LegacyMazeClient() {
+    }
+
+    /**
+     * Asks a {@code ServerStrategyGenerateMaze} server for a maze.
+     */
+    public static Maze generate(InetAddress host, int port, int rows, int cols) throws IOException {
+        Maze[] result = new Maze[1];
+        IOException[] failure = new IOException[1];
+        new Client(host, port, (inFromServer, outToServer) -> {
+            try {
+                ObjectOutputStream out = new ObjectOutputStream(outToServer);
+                out.flush();
+                ObjectInputStream in = new ObjectInputStream(inFromServer);
+                out.writeObject(new int[]{rows, cols});
+                out.flush();
+                byte[] compressed = (byte[]) in.readObject();
+                byte[] mazeBytes = new byte[rows * cols + 12];
+                new MyDecompressorInputStream(new ByteArrayInputStream(compressed)).read(mazeBytes);
+                result[0] = new Maze(mazeBytes);
+            } catch (IOException e) {
+                failure[0] = e;
+            } catch (ClassNotFoundException | ClassCastException e) {
+                failure[0] = new IOException("Unexpected answer from the server", e);
+            }
+        }).communicateWithServer();
+        return check(result[0], failure[0]);
+    }
+
+    /**
+     * Asks a {@code ServerStrategySolveSearchProblem} server to solve a maze.
+     */
+    public static Solution solve(InetAddress host, int port, Maze maze) throws IOException {
+        Solution[] result = new Solution[1];
+        IOException[] failure = new IOException[1];
+        new Client(host, port, (inFromServer, outToServer) -> {
+            try {
+                ObjectOutputStream out = new ObjectOutputStream(outToServer);
+                out.flush();
+                ObjectInputStream in = new ObjectInputStream(inFromServer);
+                out.writeObject(maze);
+                out.flush();
+                result[0] = (Solution) in.readObject();
+            } catch (IOException e) {
+                failure[0] = e;
+            } catch (ClassNotFoundException | ClassCastException e) {
+                failure[0] = new IOException("Unexpected answer from the server", e);
+            }
+        }).communicateWithServer();
+        return check(result[0], failure[0]);
+    }
+
+    // The JAR's Client swallows connection errors, so a missing answer is reported here
+    private static <T> T check(T result, IOException failure) throws IOException {
+        if (failure != null) throw failure;
+        if (result == null) throw new IOException("No answer from the server");
+        return result;
+    }
+}
@@ -1,17 +1,96 @@
 package org.example;
 
-//TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
-// click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
+import Model.MyModel;
+import Model.SolverAlgorithm;
+import Simulation.SimulationReport;
+import Simulation.SimulationResult;
+import Simulation.SimulationRunner;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless command-line entry point for bulk maze experiments (no JavaFX).
+ * Generates, solves and validates many mazes in parallel and writes CSV statistics.
+ *
+ * Usage:
+ * <pre>
+ *     java org.example.Main --count 1000 --rows 50 --cols 50 [--max-rows 200 --max-cols 200]
+ *                           [--threads 8] [--seed 1] [--out results.csv] [--solver best-first]
+ * </pre>
+ * Writes {@code results.csv} (one row per maze) and {@code results-summary.csv}.
+ * Solvers: best-first (default), breadth-first, depth-first, parallel-breadth-first.
+ */
 public class Main {
-    public static void main(String[] args) {
-        //TIP Press <shortcut actionId="ShowIntentionActions"/> with your caret at the highlighted text
-        // to see how IntelliJ IDEA suggests fixing it.
-        System.out.printf("Hello and welcome!");
-
-        for (int i = 1; i <= 5; i++) {
-            //TIP Press <shortcut actionId="Debug"/> to start debugging your code. We have set one <icon src="AllIcons.Debugger.Db_set_breakpoint"/> breakpoint
-            // for you, but you can always add more by pressing <shortcut actionId="ToggleLineBreakpoint"/>.
-            System.out.println("i = " + i);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        int count = intOption(options, "count", 100);
+        int rows = intOption(options, "rows", 50);
+        int cols = intOption(options, "cols", 50);
+        int maxRows = Math.max(rows, intOption(options, "max-rows", rows));
+        int maxCols = Math.max(cols, intOption(options, "max-cols", cols));
+        int threads = intOption(options, "threads", Runtime.getRuntime().availableProcessors());
+        SolverAlgorithm solver = SolverAlgorithm.fromOption(options.getOrDefault("solver", "best-first"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        Path out = Path.of(options.getOrDefault("out", "simulation.csv"));
+
+        System.out.printf("Running %d mazes (%d-%d x %d-%d) on %d threads with %s...%n",
+                count, rows, maxRows, cols, maxCols, threads, solver.getDisplayName());
+        long start = System.nanoTime();
+        List<SimulationResult> results = new SimulationRunner(MyModel::new, threads, solver)
+                .run(count, rows, maxRows, cols, maxCols, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        SimulationReport report = new SimulationReport(results);
+        report.writeDetails(out);
+        Path summary = summaryPath(out);
+        report.writeSummary(summary);
+
+        long invalid = results.stream().filter(r -> !r.isValid()).count();
+        System.out.printf("Done in %.2fs (%.1f mazes/s), %d invalid. Wrote %s and %s%n",
+                seconds, count / seconds, invalid, out, summary);
+    }
+
+    // --name value pairs; a flag without a value maps to "true"
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "true");
+            }
         }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static Path summaryPath(Path out) {
+        String name = out.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return out.resolveSibling(base + "-summary.csv");
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: java org.example.Main --count N --rows R --cols C"
+                + " [--max-rows R2] [--max-cols C2] [--threads T] [--seed S] [--out file.csv]"
+                + " [--solver best-first|breadth-first|depth-first|parallel-breadth-first]");
     }
-}
\ No newline at end of file
+}
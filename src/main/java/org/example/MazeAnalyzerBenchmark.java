@@ -0,0 +1,94 @@
+package org.example;
+
+import Model.ArrayMazeGrid;
+import Model.MazeAnalysis;
+import Model.MazeAnalyzer;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.MyMazeGenerator;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Measures how many mazes per second {@link MazeAnalyzer} scores, on one thread and
+ * with one maze per thread of the common pool, then ranks the mazes by difficulty.
+ * Generation happens up front and is not timed.
+ *
+ * Usage:
+ * <pre>
+ *     java org.example.MazeAnalyzerBenchmark [--count 2000] [--size 100] [--runs 5] [--top 5]
+ * </pre>
+ */
+public class MazeAnalyzerBenchmark {
+
+    private static long checksum;
+
+    public static void main(String[] args) {
+        int count = 2000;
+        int size = 100;
+        int runs = 5;
+        int top = 5;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--count": count = Integer.parseInt(args[i + 1]); break;
+                case "--size": size = Integer.parseInt(args[i + 1]); break;
+                case "--runs": runs = Integer.parseInt(args[i + 1]); break;
+                case "--top": top = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        System.out.printf("Generating %d mazes of %d x %d...%n", count, size, size);
+        MyMazeGenerator generator = new MyMazeGenerator();
+        int rows = size;
+        Maze[] mazes = IntStream.range(0, count).parallel()
+                .mapToObj(i -> generator.generate(rows, rows))
+                .toArray(Maze[]::new);
+
+        MazeAnalyzer analyzer = new MazeAnalyzer();
+        MazeAnalysis[] results = new MazeAnalysis[count];
+        double sequentialMillis = time(runs, () -> {
+            for (int i = 0; i < mazes.length; i++) {
+                results[i] = analyze(analyzer, mazes[i]);
+            }
+        });
+        double parallelMillis = time(runs, () -> IntStream.range(0, mazes.length).parallel()
+                .forEach(i -> results[i] = analyze(analyzer, mazes[i])));
+        int threads = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%-12s %8.1f ms, %,10.0f mazes/s%n", "1 thread:", sequentialMillis,
+                count / (sequentialMillis / 1000));
+        System.out.printf("%-12s %8.1f ms, %,10.0f mazes/s%n", threads + " threads:", parallelMillis,
+                count / (parallelMillis / 1000));
+
+        List<MazeAnalysis> ranked = Arrays.stream(results)
+                .sorted(Comparator.comparingDouble(MazeAnalysis::getDifficulty).reversed())
+                .limit(top)
+                .toList();
+        System.out.println("Hardest mazes:");
+        ranked.forEach(analysis -> System.out.println("  " + analysis));
+        System.out.println("(checksum " + checksum + ")");
+    }
+
+    private static MazeAnalysis analyze(MazeAnalyzer analyzer, Maze maze) {
+        MazeAnalysis analysis = analyzer.analyze(new ArrayMazeGrid(maze.getMaze()),
+                maze.getStartPosition(), maze.getGoalPosition());
+        checksum += analysis.getDeadEnds();
+        return analysis;
+    }
+
+    // Median of the runs, after two warm-up runs for the JIT
+    private static double time(int runs, Runnable task) {
+        task.run();
+        task.run();
+        long[] times = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            long start = System.nanoTime();
+            task.run();
+            times[run] = System.nanoTime() - start;
+        }
+        Arrays.sort(times);
+        return times[runs / 2] / 1e6;
+    }
+}
@@ -0,0 +1,82 @@
+package org.example;
+
+import Model.ArrayMazeGrid;
+import Model.CompactSolution;
+import Model.IMazeGrid;
+import Model.MappedMazeGrid;
+import Model.ParallelBreadthFirstSearch;
+import Model.StreamingMazeGenerator;
+import algorithms.mazeGenerators.Position;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the speedup of {@link ParallelBreadthFirstSearch} with growing
+ * pool sizes on one large generated maze.
+ *
+ * Usage:
+ * <pre>
+ *     java org.example.ParallelSolverBenchmark [--size 10000] [--max-threads 8] [--runs 3] [--seed 1]
+ * </pre>
+ * The maze is generated into a temporary chunked file and copied to the heap
+ * once, so the timings cover the search only.
+ */
+public class ParallelSolverBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int size = 10_000;
+        int maxThreads = 8;
+        int runs = 3;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--size": size = Integer.parseInt(args[i + 1]); break;
+                case "--max-threads": maxThreads = Integer.parseInt(args[i + 1]); break;
+                case "--runs": runs = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        System.out.printf("Generating a %d x %d maze...%n", size, size);
+        Path file = Files.createTempFile("maze-benchmark", ".mzc");
+        IMazeGrid grid;
+        Position start;
+        Position goal;
+        try (MappedMazeGrid mapped = new StreamingMazeGenerator(seed).generate(file, size, size)) {
+            grid = new ArrayMazeGrid(mapped.getRegion(0, 0, size, size));
+            start = mapped.getStartPosition();
+            goal = mapped.getGoalPosition();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        System.out.printf("%8s %12s %10s %10s%n", "threads", "search ms", "speedup", "path");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                ParallelBreadthFirstSearch searcher = new ParallelBreadthFirstSearch(pool);
+                long[] times = new long[runs];
+                CompactSolution solution = null;
+                searcher.solve(grid, start, goal, null); // warm-up
+                for (int run = 0; run < runs; run++) {
+                    solution = searcher.solve(grid, start, goal, null);
+                    times[run] = searcher.getSearchNanos();
+                }
+                Arrays.sort(times);
+                double millis = times[runs / 2] / 1e6;
+                if (threads == 1) {
+                    baseline = millis;
+                }
+                System.out.printf("%8d %12.1f %10.2f %10s%n", threads, millis, baseline / millis,
+                        solution != null ? solution.size() : "none");
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import Model.CompactSolution;
+import Model.MazeStore;
+import Model.PackedMazeGrid;
+import Protocol.FramedMazeClient;
+import Protocol.FramedServerStrategy;
+import Server.Server;
+import Server.ServerStrategyGenerateMaze;
+import Server.ServerStrategySolveSearchProblem;
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+
+/**
+ * Compares the JAR's object-stream protocol with the framed binary protocol
+ * on one machine: the same generate and solve requests go to JAR servers with
+ * the legacy strategies and with {@link FramedServerStrategy}.
+ *
+ * Usage:
+ * <pre>
+ *     java org.example.ProtocolBenchmark [--size 1000] [--requests 20] [--port 5400]
+ * </pre>
+ * Prints milliseconds per request, heap allocated per request (client and
+ * server together, as both run in this JVM) and GC time.
+ */
+public class ProtocolBenchmark {
+
+    private static final int LISTENING_INTERVAL_MS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int size = 1000;
+        int requests = 20;
+        int port = 5400;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--size": size = Integer.parseInt(args[i + 1]); break;
+                case "--requests": requests = Integer.parseInt(args[i + 1]); break;
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        // A throwaway store, so the framed solution cache starts empty
+        MazeStore store = new MazeStore(Files.createTempDirectory("protocol-benchmark"));
+        Server legacyGenerate = new Server(port, LISTENING_INTERVAL_MS, new ServerStrategyGenerateMaze());
+        Server legacySolve = new Server(port + 1, LISTENING_INTERVAL_MS, new ServerStrategySolveSearchProblem());
+        Server framedGenerate = new Server(port + 2, LISTENING_INTERVAL_MS,
+                new FramedServerStrategy(new ServerStrategyGenerateMaze(), store));
+        Server framedSolve = new Server(port + 3, LISTENING_INTERVAL_MS,
+                new FramedServerStrategy(new ServerStrategySolveSearchProblem(), store));
+        Server[] servers = {legacyGenerate, legacySolve, framedGenerate, framedSolve};
+        for (Server server : servers) {
+            server.start();
+        }
+
+        try {
+            InetAddress host = InetAddress.getLoopbackAddress();
+            FramedMazeClient framedGenerateClient = new FramedMazeClient(new InetSocketAddress(host, port + 2));
+            FramedMazeClient framedSolveClient = new FramedMazeClient(new InetSocketAddress(host, port + 3));
+            final int n = size;
+            final int generatePort = port;
+
+            System.out.printf("%d x %d mazes, %d requests each%n", size, size, requests);
+            System.out.printf("%-18s %12s %16s %10s%n", "request", "ms/request", "KB alloc/request", "GC ms");
+            // Warm-up round for both protocols
+            measure("warm-up", requests / 4 + 1, () -> LegacyMazeClient.generate(host, generatePort, n, n));
+            measure("warm-up", requests / 4 + 1, () -> framedGenerateClient.generate(n, n));
+
+            measure("legacy generate", requests, () -> LegacyMazeClient.generate(host, generatePort, n, n));
+            measure("framed generate", requests, () -> framedGenerateClient.generate(n, n));
+            measure("legacy solve", requests, () -> LegacyMazeClient.solve(host, generatePort + 1,
+                    LegacyMazeClient.generate(host, generatePort, n, n)));
+            measure("framed solve", requests, () -> {
+                PackedMazeGrid grid = framedGenerateClient.generate(n, n);
+                CompactSolution solution = framedSolveClient.solve(grid, grid.getStartPosition(),
+                        grid.getGoalPosition(), null);
+                return solution != null ? solution.size() : 0;
+            });
+        } finally {
+            for (Server server : servers) {
+                server.stop();
+            }
+        }
+    }
+
+    private interface Request {
+        Object run() throws Exception;
+    }
+
+    private static void measure(String name, int count, Request request) throws Exception {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = totalAllocatedBytes(threads);
+        long gcBefore = totalGcMillis();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            request.run();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / count;
+        long allocated = (totalAllocatedBytes(threads) - allocatedBefore) / count;
+        if (!name.equals("warm-up")) {
+            System.out.printf("%-18s %12.2f %16d %10d%n", name, millis, allocated / 1024,
+                    totalGcMillis() - gcBefore);
+        }
+    }
+
+    // Threads that ended during the run are not counted; the servers keep their pool threads
+    private static long totalAllocatedBytes(ThreadMXBean threads) {
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) total += allocated;
+        }
+        return total;
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
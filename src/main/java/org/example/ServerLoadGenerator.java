@@ -0,0 +1,365 @@
+package org.example;
+
+import Model.ArrayMazeGrid;
+import Model.MazeStore;
+import Protocol.AdaptiveMazeServer;
+import Protocol.CoalescingSolveStrategy;
+import Protocol.FramedMazeClient;
+import Protocol.FramedServerStrategy;
+import Server.Configurations;
+import Server.IServerStrategy;
+import Server.Server;
+import Server.ServerStrategyGenerateMaze;
+import Server.ServerStrategySolveSearchProblem;
+import algorithms.mazeGenerators.Maze;
+import algorithms.mazeGenerators.MyMazeGenerator;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the maze servers. Starts the JAR's generate and solve
+ * servers on localhost, drives them with concurrent clients and reports
+ * throughput and latency percentiles per request type.
+ *
+ * Usage:
+ * <pre>
+ *     java org.example.ServerLoadGenerator [--workload mixed] [--protocol legacy] [--clients 8]
+ *          [--rate 0] [--arrivals poisson] [--think-ms 0] [--sizes 50x50:0.6,200x200:0.3,1000x1000:0.1]
+ *          [--warmup 5] [--duration 20] [--server-threads 10] [--generator MyMazeGenerator]
+ *          [--searcher BestFirstSearch] [--maze-pool 16] [--cold-cache true] [--coalesce false]
+ *          [--server jar] [--port 5400] [--hgrm-dir dir]
+ * </pre>
+ * <ul>
+ *     <li>workload: generate, solve or mixed (half of each)</li>
+ *     <li>protocol: legacy (the JAR's object streams) or framed ({@link FramedServerStrategy})</li>
+ *     <li>rate: 0 runs a closed loop - each client sends its next request when the last one
+ *         is answered (plus think time). A positive rate runs an open loop: requests arrive at
+ *         that many per second whatever the servers do, and latency is measured from the
+ *         scheduled arrival, so queueing behind a slow request is counted</li>
+ *     <li>sizes: maze sizes with their weights</li>
+ *     <li>server-threads, generator, searcher: set through {@code Configurations} before the
+ *         servers start</li>
+ *     <li>maze-pool: distinct mazes per size that solve requests pick from; a small pool makes
+ *         the servers' solution caches hit</li>
+ *     <li>cold-cache: start with empty solution caches (a fresh {@code java.io.tmpdir} for the
+ *         JAR's cache files and an empty maze store)</li>
+ *     <li>server: jar (the JAR's {@code Server}, fixed pool of server-threads) or adaptive
+ *         ({@link AdaptiveMazeServer}, which starts at server-threads and resizes itself)</li>
+ *     <li>coalesce: put {@link CoalescingSolveStrategy} in front of the JAR's solve strategy, so
+ *         identical solve requests in flight at the same time share one search</li>
+ * </ul>
+ * Requests finished during the warm-up are not recorded.
+ */
+public class ServerLoadGenerator {
+
+    // Latencies are recorded in microseconds, up to ten minutes, with 3 significant digits
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int LISTENING_INTERVAL_MS = 1000;
+
+    private final Map<String, String> options;
+    private final InetAddress host = InetAddress.getLoopbackAddress();
+    private final int port;
+    private final String protocol;
+    private final List<int[]> sizes = new ArrayList<>();
+    private final List<Double> sizeWeights = new ArrayList<>();
+    private final List<Maze[]> mazePools = new ArrayList<>();
+
+    private final Map<String, Histogram> latencies = new LinkedHashMap<>();
+    private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+    private final AtomicInteger maxBacklog = new AtomicInteger();
+
+    private FramedMazeClient framedGenerateClient;
+    private FramedMazeClient framedSolveClient;
+    private long measureStartNanos;
+    private long measureEndNanos;
+
+    private ServerLoadGenerator(Map<String, String> options) {
+        this.options = options;
+        this.port = Integer.parseInt(option("port", "5400"));
+        this.protocol = option("protocol", "legacy");
+        for (String operation : new String[]{"generate", "solve"}) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        new ServerLoadGenerator(options).run();
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private void run() throws Exception {
+        parseSizes(option("sizes", "50x50:0.6,200x200:0.3,1000x1000:0.1"));
+        String workload = option("workload", "mixed");
+        int clients = Integer.parseInt(option("clients", "8"));
+        double rate = Double.parseDouble(option("rate", "0"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("warmup", "5")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(option("duration", "20")));
+
+        // The JAR's servers read these when they are created
+        Configurations configurations = Configurations.getInstance();
+        configurations.setProperty("threadPoolSize", option("server-threads",
+                Integer.toString(configurations.getThreadPoolSize())));
+        configurations.setProperty("mazeGeneratingAlgorithm", option("generator",
+                configurations.getMazeGeneratingAlgorithm()));
+        configurations.setProperty("mazeSearchingAlgorithm", option("searcher",
+                configurations.getMazeSearchingAlgorithm()));
+
+        boolean coldCache = Boolean.parseBoolean(option("cold-cache", "true"));
+        if (coldCache) {
+            System.setProperty("java.io.tmpdir", Files.createTempDirectory("maze-load").toString());
+        }
+        fillMazePools(Integer.parseInt(option("maze-pool", "16")));
+
+        IServerStrategy solveStrategy = Boolean.parseBoolean(option("coalesce", "false"))
+                ? new CoalescingSolveStrategy() : new ServerStrategySolveSearchProblem();
+        String serverType = option("server", "jar");
+        Runnable stopGenerateServer = startServer(serverType, port, new ServerStrategyGenerateMaze(), coldCache);
+        Runnable stopSolveServer = startServer(serverType, port + 1, solveStrategy, coldCache);
+        framedGenerateClient = new FramedMazeClient(new InetSocketAddress(host, port));
+        framedSolveClient = new FramedMazeClient(new InetSocketAddress(host, port + 1));
+        framedGenerateClient.setLegacyFallback(false);
+        framedSolveClient.setLegacyFallback(false);
+
+        System.out.printf("workload=%s protocol=%s server=%s clients=%d %s server-threads=%d generator=%s searcher=%s%n",
+                workload, protocol, serverType, clients,
+                rate > 0 ? String.format("open loop %.1f req/s (%s)", rate, option("arrivals", "poisson"))
+                        : "closed loop, think " + option("think-ms", "0") + " ms",
+                configurations.getThreadPoolSize(), configurations.getMazeGeneratingAlgorithm(),
+                configurations.getMazeSearchingAlgorithm());
+        System.out.printf("warm-up %d s, measuring %d s%n",
+                TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+
+        try {
+            long start = System.nanoTime();
+            measureStartNanos = start + warmupNanos;
+            measureEndNanos = measureStartNanos + durationNanos;
+            if (rate > 0) {
+                runOpenLoop(workload, clients, rate);
+            } else {
+                runClosedLoop(workload, clients, Long.parseLong(option("think-ms", "0")));
+            }
+        } finally {
+            stopGenerateServer.run();
+            stopSolveServer.run();
+        }
+        report(durationNanos);
+    }
+
+    // Starts one server and returns how to stop it
+    private Runnable startServer(String type, int serverPort, IServerStrategy legacy, boolean coldCache)
+            throws IOException {
+        if (type.equals("adaptive")) {
+            // Serves both protocols, so the strategy is always the framed one
+            AdaptiveMazeServer server = new AdaptiveMazeServer(serverPort, framedStrategy(legacy, coldCache));
+            server.start();
+            return () -> {
+                System.out.printf("port %d: limit %d, %d admitted, %d deferred, %d rejected, %d limit changes%n",
+                        serverPort, server.getConcurrencyLimit(), server.getAdmittedCount(),
+                        server.getDeferredCount(), server.getRejectedCount(), server.getLimitChangeCount());
+                server.stop();
+            };
+        }
+        Server server = new Server(serverPort, LISTENING_INTERVAL_MS,
+                protocol.equals("framed") ? framedStrategy(legacy, coldCache) : legacy);
+        server.start();
+        return server::stop;
+    }
+
+    private FramedServerStrategy framedStrategy(IServerStrategy legacy, boolean coldCache) throws IOException {
+        MazeStore store = coldCache ? new MazeStore(Files.createTempDirectory("maze-load-store")) : MazeStore.getDefault();
+        return new FramedServerStrategy(legacy, store);
+    }
+
+    // =================== Load ===================
+
+    // Each client sends a request as soon as its previous one is answered
+    private void runClosedLoop(String workload, int clients, long thinkMillis) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            pool.execute(() -> {
+                while (System.nanoTime() < measureEndNanos) {
+                    long start = System.nanoTime();
+                    execute(workload, start);
+                    if (thinkMillis > 0) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(thinkMillis));
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(measureEndNanos - System.nanoTime() + TimeUnit.MINUTES.toNanos(5), TimeUnit.NANOSECONDS);
+    }
+
+    // Requests arrive on a schedule; a slow answer delays no later arrival
+    private void runOpenLoop(String workload, int clients, double rate) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        AtomicInteger backlog = new AtomicInteger();
+        boolean poisson = !option("arrivals", "poisson").equals("uniform");
+        double meanGapNanos = 1e9 / rate;
+        long next = System.nanoTime();
+        while (next < measureEndNanos) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = next;
+            maxBacklog.accumulateAndGet(backlog.incrementAndGet(), Math::max);
+            pool.execute(() -> {
+                backlog.decrementAndGet();
+                execute(workload, scheduled);
+            });
+            double gap = poisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos : meanGapNanos;
+            next += (long) gap;
+        }
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+    }
+
+    // Runs one request; the latency counts from the given start (scheduled arrival in the open loop)
+    private void execute(String workload, long startNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String operation = workload.equals("mixed") ? (random.nextBoolean() ? "generate" : "solve") : workload;
+        int sizeIndex = pickSize(random.nextDouble());
+        int[] size = sizes.get(sizeIndex);
+        boolean failed = false;
+        try {
+            if (operation.equals("generate")) {
+                generate(size[0], size[1]);
+            } else {
+                Maze[] pool = mazePools.get(sizeIndex);
+                solve(pool[random.nextInt(pool.length)]);
+            }
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+        }
+        long end = System.nanoTime();
+        if (startNanos < measureStartNanos || end > measureEndNanos) return;
+        if (failed) {
+            errors.get(operation).increment();
+        } else {
+            latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(end - startNanos));
+        }
+    }
+
+    private void generate(int rows, int cols) throws IOException {
+        if (protocol.equals("framed")) {
+            framedGenerateClient.generate(rows, cols);
+        } else {
+            LegacyMazeClient.generate(host, port, rows, cols);
+        }
+    }
+
+    private void solve(Maze maze) throws IOException {
+        if (protocol.equals("framed")) {
+            framedSolveClient.solve(new ArrayMazeGrid(maze.getMaze()), maze.getStartPosition(),
+                    maze.getGoalPosition(), null);
+        } else {
+            LegacyMazeClient.solve(host, port + 1, maze);
+        }
+    }
+
+    // =================== Setup and report ===================
+
+    private void parseSizes(String spec) {
+        double total = 0;
+        for (String part : spec.split(",")) {
+            String[] sizeAndWeight = part.trim().split(":");
+            String[] dimensions = sizeAndWeight[0].split("x");
+            sizes.add(new int[]{Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1])});
+            double weight = sizeAndWeight.length > 1 ? Double.parseDouble(sizeAndWeight[1]) : 1.0;
+            total += weight;
+            sizeWeights.add(total);
+        }
+        for (int i = 0; i < sizeWeights.size(); i++) {
+            sizeWeights.set(i, sizeWeights.get(i) / total);
+        }
+    }
+
+    private int pickSize(double uniform) {
+        for (int i = 0; i < sizeWeights.size(); i++) {
+            if (uniform < sizeWeights.get(i)) return i;
+        }
+        return sizeWeights.size() - 1;
+    }
+
+    // Solve requests send pre-generated mazes, so the generator is not part of their latency
+    private void fillMazePools(int poolSize) {
+        MyMazeGenerator generator = new MyMazeGenerator();
+        for (int[] size : sizes) {
+            Maze[] pool = new Maze[poolSize];
+            for (int i = 0; i < poolSize; i++) {
+                pool[i] = generator.generate(size[0], size[1]);
+            }
+            mazePools.add(pool);
+        }
+    }
+
+    private void report(long durationNanos) throws IOException {
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%-10s %8s %7s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        long totalErrors = 0;
+        for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0 && errors.get(entry.getKey()).sum() == 0) continue;
+            long failed = errors.get(entry.getKey()).sum();
+            printRow(entry.getKey(), histogram, failed, seconds);
+            total.add(histogram);
+            totalErrors += failed;
+        }
+        printRow("total", total, totalErrors, seconds);
+        if (maxBacklog.get() > 1) {
+            System.out.printf("Largest backlog of arrived requests waiting for a client: %d%n", maxBacklog.get());
+        }
+
+        String hgrmDir = options.get("hgrm-dir");
+        if (hgrmDir != null) {
+            Path dir = Files.createDirectories(Path.of(hgrmDir));
+            for (Map.Entry<String, Histogram> entry : latencies.entrySet()) {
+                Path file = dir.resolve(protocol + "-" + entry.getKey() + ".hgrm");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                    // Scaled to milliseconds
+                    entry.getValue().outputPercentileDistribution(out, 1000.0);
+                }
+            }
+            System.out.println("Percentile distributions written to " + dir);
+        }
+    }
+
+    private static void printRow(String name, Histogram histogram, long failed, double seconds) {
+        System.out.printf("%-10s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), failed,
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
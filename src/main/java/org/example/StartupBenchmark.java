@@ -0,0 +1,96 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cold-start benchmark for the packaged runtime image.
+ * Launches the game in training mode several times with class-data sharing
+ * off, with the JDK's default archive and with the application archive,
+ * and prints the median time to the first game frame and to process exit.
+ *
+ * Usage:
+ * <pre>
+ *     java org.example.StartupBenchmark --image target/maze-image [--runs 5] [--archive lib/app.jsa]
+ * </pre>
+ * The archive path is relative to the image directory.
+ */
+public class StartupBenchmark {
+
+    private static final String FIRST_FRAME_PREFIX = "startup.firstFrameMillis=";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        Path image = Path.of(options.getOrDefault("image", "target/maze-image"));
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Path archive = image.resolve(options.getOrDefault("archive", "lib/app.jsa"));
+
+        Map<String, List<String>> configurations = new LinkedHashMap<>();
+        configurations.put("CDS off", List.of("-Xshare:off"));
+        configurations.put("default CDS", List.of());
+        if (Files.exists(archive)) {
+            configurations.put("AppCDS", List.of("-XX:SharedArchiveFile=" + archive));
+        } else {
+            System.out.println("No application archive at " + archive + ", skipping AppCDS");
+        }
+
+        System.out.printf("%-12s %16s %16s%n", "config", "first frame ms", "exit ms");
+        for (Map.Entry<String, List<String>> configuration : configurations.entrySet()) {
+            // One untimed run to warm the OS file cache
+            launch(image, configuration.getValue());
+
+            long[] firstFrame = new long[runs];
+            long[] exit = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long start = System.nanoTime();
+                firstFrame[i] = launch(image, configuration.getValue());
+                exit[i] = (System.nanoTime() - start) / 1_000_000;
+            }
+            System.out.printf("%-12s %16d %16d%n", configuration.getKey(), median(firstFrame), median(exit));
+        }
+    }
+
+    // Runs the image's launcher in training mode and returns the reported first frame time
+    private static long launch(Path image, List<String> jvmOptions) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(image.resolve("bin").resolve("java").toString());
+        command.addAll(jvmOptions);
+        // Same module graph as the launcher scripts and the training run
+        command.addAll(Arrays.asList("--add-modules", "jdk.incubator.vector"));
+        command.addAll(Arrays.asList("-cp", image.resolve("app").resolve("*").toString(),
+                "View.MainApplication", "--training"));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long firstFrame = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(FIRST_FRAME_PREFIX)) {
+                    firstFrame = Long.parseLong(line.substring(FIRST_FRAME_PREFIX.length()).trim());
+                }
+            }
+        }
+        int status = process.waitFor();
+        if (status != 0 || firstFrame < 0) {
+            throw new IllegalStateException("Training run failed (exit code " + status + "): " + command);
+        }
+        return firstFrame;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,7 @@
+@echo off
+rem Starts the maze game from the runtime image, using the application
+rem class-data sharing archive recorded at build time when it is present.
+set DIR=%~dp0..
+set CDS=
+if exist "%DIR%\lib\app.jsa" set CDS=-XX:SharedArchiveFile="%DIR%\lib\app.jsa"
+"%DIR%\bin\java" %CDS% --add-modules jdk.incubator.vector -cp "%DIR%\app\*" View.MainApplication %*